@@ -0,0 +1,100 @@
+package com.omnifix.demo;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Contention benchmark of the lock free registry against a synchronized map of games. Every thread
+ * plays its own lanes, run with {@code -t 1}, {@code -t 2}, ... {@code -t max} to see the scaling.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BowlingRegistryBenchmark {
+
+  static final int LANES_PER_THREAD = 1024;
+
+  @State(Scope.Benchmark)
+  public static class Shared {
+    final BowlingRegistry registry = new BowlingRegistry(1 << 20);
+    final Map<Long, PackedBowling> synchronizedGames = Collections.synchronizedMap(new HashMap<>());
+    final AtomicInteger threads = new AtomicInteger();
+  }
+
+  @State(Scope.Thread)
+  public static class Lanes {
+    int[][] games;
+    long firstLane;
+    int lane;
+    int[] rollIndex = new int[LANES_PER_THREAD];
+    int[] gameIndex = new int[LANES_PER_THREAD];
+
+    @Setup(Level.Trial)
+    public void setUp(Shared shared) {
+      games = GameCorpus.RANDOM.games();
+      firstLane = 1 + (long) shared.threads.getAndIncrement() * LANES_PER_THREAD;
+      for (int i = 0; i < LANES_PER_THREAD; i++) {
+        gameIndex[i] = i % games.length;
+      }
+    }
+
+    /** Next roll of the next lane, wraps to a new game when the current one is over */
+    int nextPins() {
+      lane = (lane + 1) % LANES_PER_THREAD;
+      if (rollIndex[lane] == games[gameIndex[lane]].length) {
+        rollIndex[lane] = 0;
+        gameIndex[lane] = (gameIndex[lane] + 1) % games.length;
+      }
+      return games[gameIndex[lane]][rollIndex[lane]++];
+    }
+
+    boolean isNewGame() {
+      return rollIndex[lane] == 1;
+    }
+
+    long gameId() {
+      return firstLane + lane;
+    }
+  }
+
+  @Benchmark
+  public long registryRoll(Shared shared, Lanes lanes) {
+    int pins = lanes.nextPins();
+    long gameId = lanes.gameId();
+    if (lanes.isNewGame() && shared.registry.contains(gameId)) {
+      shared.registry.complete(gameId);
+      shared.registry.newGame(gameId);
+    }
+    return shared.registry.roll(gameId, pins);
+  }
+
+  @Benchmark
+  public int synchronizedMapRoll(Shared shared, Lanes lanes) {
+    int pins = lanes.nextPins();
+    long gameId = lanes.gameId();
+    synchronized (shared.synchronizedGames) {
+      PackedBowling game =
+          lanes.isNewGame()
+              ? shared.synchronizedGames.compute(gameId, (id, previous) -> new PackedBowling())
+              : shared.synchronizedGames.get(gameId);
+      game.roll(pins);
+      return game.score();
+    }
+  }
+}
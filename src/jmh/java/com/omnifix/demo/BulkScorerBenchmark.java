@@ -0,0 +1,69 @@
+package com.omnifix.demo;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Nightly reconciliation style scoring of a flat array of finished games */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkScorerBenchmark {
+
+  @Param({"1000000"})
+  public int games;
+
+  private int[] rolls;
+  private byte[] columnarRolls;
+  private int[] gameOffsets;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    int[][] corpus = GameCorpus.randomGames(new SplittableRandom(GameCorpus.SEED), games);
+    gameOffsets = new int[games];
+    rolls = new int[GameCorpus.totalRolls(corpus)];
+    columnarRolls = new byte[rolls.length];
+    int offset = 0;
+    for (int i = 0; i < games; i++) {
+      gameOffsets[i] = offset;
+      for (int pins : corpus[i]) {
+        rolls[offset] = pins;
+        columnarRolls[offset++] = (byte) pins;
+      }
+    }
+  }
+
+  @Benchmark
+  public int[] scoreAll() {
+    return BulkScorer.scoreAll(rolls, gameOffsets);
+  }
+
+  @Benchmark
+  public int[] scoreAllColumnar() {
+    return BulkScorer.scoreAll(columnarRolls, gameOffsets);
+  }
+
+  @Benchmark
+  public int[] scoreAllParallel() {
+    return BulkScorer.scoreAllParallel(rolls, gameOffsets);
+  }
+
+  @Benchmark
+  public int[] scoreAllColumnarParallel() {
+    return BulkScorer.scoreAllParallel(columnarRolls, gameOffsets);
+  }
+}
@@ -0,0 +1,94 @@
+package com.omnifix.demo;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encoding, decoding and scoring of a million games in the nibble format. Scoring straight from the
+ * encoded bytes is compared with decoding every game into an {@code int[]} first. The sizes of the
+ * corpus as JSON arrays, as {@code int[]} rolls and in the nibble format are printed at set up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameCodecBenchmark {
+
+  @Param({"1000000"})
+  public int games;
+
+  private int[][] corpus;
+  private byte[] encoded;
+  private byte[] buffer;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    corpus = GameCorpus.randomGames(new SplittableRandom(GameCorpus.SEED), games);
+    buffer = new byte[games * GameCodec.MAX_ENCODED_SIZE];
+    encoded = Arrays.copyOf(buffer, encodeAll());
+    long json = 0;
+    for (int[] game : corpus) {
+      json += Arrays.toString(game).replace(" ", "").length();
+    }
+    System.out.printf(
+        "Bytes per game: JSON %.1f, int[] rolls %.1f, nibbles %.1f%n",
+        (double) json / games,
+        4.0 * GameCorpus.totalRolls(corpus) / games,
+        (double) encoded.length / games);
+  }
+
+  @Benchmark
+  public int encodeAll() {
+    int offset = 0;
+    for (int[] game : corpus) {
+      offset = GameCodec.encode(game, game.length, buffer, offset);
+    }
+    return offset;
+  }
+
+  @Benchmark
+  public int[][] decodeAll() {
+    int[][] decoded = new int[games][];
+    int offset = 0;
+    for (int game = 0; game < games; game++) {
+      decoded[game] = GameCodec.decode(encoded, offset);
+      offset += GameCodec.encodedSize(encoded, offset);
+    }
+    return decoded;
+  }
+
+  @Benchmark
+  public int[] scoreAll() {
+    return GameCodec.scoreAll(encoded, 0);
+  }
+
+  @Benchmark
+  public int[] decodeAndScoreAll() {
+    int[] scores = new int[games];
+    int offset = 0;
+    for (int game = 0; game < games; game++) {
+      PackedBowling bowling = new PackedBowling();
+      for (int pins : GameCodec.decode(encoded, offset)) {
+        bowling.roll(pins);
+      }
+      scores[game] = bowling.score();
+      offset += GameCodec.encodedSize(encoded, offset);
+    }
+    return scores;
+  }
+}
@@ -0,0 +1,81 @@
+package com.omnifix.demo;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+/**
+ * Fixed corpora of complete games used by the benchmarks. Random games are generated from a fixed
+ * seed so that every run (and every engine) scores exactly the same rolls.
+ */
+public enum GameCorpus {
+  ALL_STRIKES(() -> repeat(new int[] {10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10})),
+  ALL_SPARES(
+      () -> repeat(new int[] {5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5})),
+  GUTTER(() -> repeat(new int[20])),
+  RANDOM(() -> randomGames(new SplittableRandom(GameCorpus.SEED), GameCorpus.GAMES));
+
+  public static final long SEED = 20211128L;
+  public static final int GAMES = 1024;
+
+  private final Supplier<int[][]> generator;
+
+  GameCorpus(Supplier<int[][]> generator) {
+    this.generator = generator;
+  }
+
+  public int[][] games() {
+    return generator.get();
+  }
+
+  public static int totalRolls(int[][] games) {
+    return Arrays.stream(games).mapToInt(game -> game.length).sum();
+  }
+
+  public static int[][] randomGames(SplittableRandom random, int count) {
+    int[][] games = new int[count][];
+    for (int i = 0; i < count; i++) {
+      games[i] = randomGame(random);
+    }
+    return games;
+  }
+
+  /** Every pin count that is left is equally likely, see {@link RandomGames} */
+  public static int[] randomGame(SplittableRandom random) {
+    int[] rolls = new int[ScoreCard.MAX_ROLLS];
+    return Arrays.copyOf(rolls, RandomGames.game(random, rolls, false));
+  }
+
+  /**
+   * Generates archive like games made of a few common frames (STRIKE, 9 and a SPARE, 9-0, 8-1 and
+   * 7-2), so that many games share long prefixes.
+   */
+  public static int[][] archiveGames(SplittableRandom random, int count) {
+    int[][] commonFrames = {{10}, {9, 1}, {9, 0}, {8, 1}, {7, 2}};
+    int[][] games = new int[count][];
+    for (int i = 0; i < count; i++) {
+      int[] rolls = new int[21];
+      int rollCount = 0;
+      for (int frame = 1; frame <= BowlingConstants.LAST_FRAME; frame++) {
+        for (int pins : commonFrames[random.nextInt(commonFrames.length)]) {
+          rolls[rollCount++] = pins;
+        }
+      }
+      int lastFrame = rollCount - (rolls[rollCount - 1] == 10 ? 1 : 2);
+      if (rolls[lastFrame] == 10 || rolls[lastFrame] + rolls[lastFrame + 1] == 10) {
+        rolls[rollCount++] = 10; // Bonus rolls of the tenth frame
+        if (rolls[lastFrame] == 10) {
+          rolls[rollCount++] = 10;
+        }
+      }
+      games[i] = Arrays.copyOf(rolls, rollCount);
+    }
+    return games;
+  }
+
+  private static int[][] repeat(int[] game) {
+    int[][] games = new int[GAMES][];
+    Arrays.fill(games, game);
+    return games;
+  }
+}
@@ -0,0 +1,186 @@
+package com.omnifix.demo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Loopback load test of {@link LaneServer}: every connection is a terminal on its own thread that
+ * keeps two batches of requests in flight, each batch playing a random game on every slot with the
+ * rolls of the games interleaved. The final score of every game is checked.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.omnifix.demo.LaneServerLoadTest [connections] [seconds]
+ * </pre>
+ *
+ * <p>The batches are encoded before the run, so the terminals only write them and read the acks.
+ */
+public class LaneServerLoadTest {
+
+  private static final int WARMUP_SECONDS = 5;
+  private static final int BATCHES = 64;
+  private static final int IN_FLIGHT = 2;
+
+  private final List<Batch> batches = new ArrayList<>();
+  private final InetSocketAddress address;
+  private final long measureFrom;
+  private final long deadline;
+  private final LogLinearHistogram latency = new LogLinearHistogram();
+  private final LongAdder rolls = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+
+  LaneServerLoadTest(InetSocketAddress address, long warmup, long measure) {
+    this.address = address;
+    this.measureFrom = System.nanoTime() + warmup;
+    this.deadline = measureFrom + measure;
+    SplittableRandom random = new SplittableRandom(42);
+    for (int batch = 0; batch < BATCHES; batch++) {
+      batches.add(new Batch(random));
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    int connections = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+    int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+    try (LaneServer server = new LaneServer(new InetSocketAddress("127.0.0.1", 0))) {
+      LaneServerLoadTest loadTest =
+          new LaneServerLoadTest(
+              server.getAddress(),
+              Duration.ofSeconds(WARMUP_SECONDS).toNanos(),
+              Duration.ofSeconds(seconds).toNanos());
+      long requests = server.getRequestCount();
+      long writes = server.getBatchCount();
+      List<Thread> terminals = new ArrayList<>();
+      for (int connection = 0; connection < connections; connection++) {
+        Thread terminal = new Thread(loadTest::play, "terminal-" + connection);
+        terminal.start();
+        terminals.add(terminal);
+      }
+      for (Thread terminal : terminals) {
+        terminal.join();
+      }
+
+      LogLinearHistogram.Snapshot snapshot = loadTest.latency.snapshot();
+      System.out.printf(
+          "%d connections, %d s: %.0f rolls/s, %.0f requests per ack write,"
+              + " batch of about %d requests p50 %.2f ms, p99 %.2f ms, max %.2f ms, %d errors%n",
+          connections,
+          seconds,
+          loadTest.rolls.sum() / (double) seconds,
+          (server.getRequestCount() - requests) / (double) (server.getBatchCount() - writes),
+          loadTest.batches.get(0).requestCount,
+          snapshot.valueAt(0.5) / 1e6,
+          snapshot.valueAt(0.99) / 1e6,
+          snapshot.getMax() / 1e6,
+          loadTest.errors.sum());
+    }
+  }
+
+  /** Writes the batches round robin and checks their acks until the deadline */
+  void play() {
+    try (SocketChannel channel = SocketChannel.open(address)) {
+      channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+      ByteBuffer acks =
+          ByteBuffer.allocateDirect(
+              batches.stream().mapToInt(batch -> batch.acks.capacity()).max().getAsInt());
+      long[] sentAt = new long[IN_FLIGHT];
+      int next = 0;
+      for (; next < IN_FLIGHT; next++) {
+        sentAt[next] = send(channel, next);
+      }
+      for (int received = 0; System.nanoTime() < deadline; received++, next++) {
+        Batch batch = batches.get(received % BATCHES);
+        acks.clear().limit(batch.acks.limit());
+        while (acks.hasRemaining()) {
+          if (channel.read(acks) < 0) {
+            throw new IOException("Closed by the server");
+          }
+        }
+        long receivedAt = System.nanoTime();
+        if (sentAt[received % IN_FLIGHT] >= measureFrom) {
+          latency.record(receivedAt - sentAt[received % IN_FLIGHT]);
+          rolls.add(batch.rolls);
+        }
+        if (!acks.flip().equals(batch.acks)) {
+          errors.increment();
+        }
+        sentAt[next % IN_FLIGHT] = send(channel, next);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private long send(SocketChannel channel, int batch) throws IOException {
+    ByteBuffer requests = batches.get(batch % BATCHES).requests();
+    long sentAt = System.nanoTime();
+    while (requests.hasRemaining()) {
+      channel.write(requests);
+    }
+    return sentAt;
+  }
+
+  /** A random game on every slot, the requests and the acks the server must send back */
+  private static final class Batch {
+    final ByteBuffer encoded;
+    final ByteBuffer acks;
+    final int requestCount;
+    final int rolls;
+
+    Batch(SplittableRandom random) {
+      int[][] games = new int[LaneServer.SLOTS][ScoreCard.MAX_ROLLS];
+      int[] counts = new int[LaneServer.SLOTS];
+      long[] states = new long[LaneServer.SLOTS];
+      int rollCount = 0;
+      for (int slot = 0; slot < LaneServer.SLOTS; slot++) {
+        counts[slot] = RandomGames.game(random, games[slot], true);
+        rollCount += counts[slot];
+      }
+      this.rolls = rollCount;
+      this.requestCount = LaneServer.SLOTS + rollCount;
+      ByteBuffer requestBuffer =
+          ByteBuffer.allocateDirect(
+              LaneServer.SLOTS * LaneServer.NEW_GAME_SIZE + rollCount * LaneServer.ROLL_SIZE);
+      ByteBuffer ackBuffer = ByteBuffer.allocateDirect(requestCount * LaneServer.ACK_SIZE);
+      for (int slot = 0; slot < LaneServer.SLOTS; slot++) {
+        LaneServer.putNewGame(requestBuffer, slot);
+        ack(ackBuffer, LaneServer.SCORED, slot, 0);
+      }
+      for (int roll = 0; roll < ScoreCard.MAX_ROLLS; roll++) {
+        for (int slot = 0; slot < LaneServer.SLOTS; slot++) {
+          if (roll < counts[slot]) {
+            LaneServer.putRoll(requestBuffer, slot, games[slot][roll]);
+            states[slot] = PackedBowling.roll(states[slot], games[slot][roll]);
+            ack(
+                ackBuffer,
+                PackedBowling.isOver(states[slot]) ? LaneServer.COMPLETED : LaneServer.SCORED,
+                slot,
+                PackedBowling.score(states[slot]));
+          }
+        }
+      }
+      this.encoded = requestBuffer.flip();
+      this.acks = ackBuffer.flip();
+    }
+
+    /** A view of the requests for one write, the batches are shared by the terminals */
+    ByteBuffer requests() {
+      return encoded.duplicate();
+    }
+
+    private static void ack(ByteBuffer acks, byte status, int slot, int score) {
+      acks.put((byte) (LaneServer.ACK_SIZE - 1))
+          .put(status)
+          .put((byte) slot)
+          .putShort((short) score);
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package com.omnifix.demo;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Score updates, rank lookups and top 100 snapshots of a leaderboard of a million games, against
+ * rescanning the scores of all games for the top 100, with the scores spread or nearly all tied so
+ * that the snapshot has to pick the lowest ids of a huge tie. Every thread updates its own games,
+ * run with {@code -t 1}, {@code -t 2}, ... {@code -t max} to see the scaling.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class LeaderboardBenchmark {
+
+  static final int TOP_K = 100;
+
+  @State(Scope.Benchmark)
+  public static class Shared {
+    @Param({"1000000"})
+    int games;
+
+    /** Uniform scores, or all games but a few tied at 0 as when they have just started */
+    @Param({"uniform", "tied"})
+    String distribution;
+
+    Leaderboard leaderboard;
+    int[] scores;
+    final AtomicInteger threads = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      leaderboard = new Leaderboard(TOP_K);
+      scores = new int[games];
+      SplittableRandom random = new SplittableRandom(GameCorpus.SEED);
+      for (int game = 0; game < games; game++) {
+        scores[game] =
+            "tied".equals(distribution) && game >= TOP_K / 2
+                ? 0
+                : random.nextInt(Leaderboard.MAX_SCORE + 1);
+        leaderboard.update(game + 1L, 1, scores[game]);
+      }
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Updates {
+    SplittableRandom random;
+    int sequence = 1;
+
+    @Setup(Level.Trial)
+    public void setUp(Shared shared) {
+      random = new SplittableRandom(GameCorpus.SEED + shared.threads.getAndIncrement());
+    }
+  }
+
+  @Benchmark
+  public boolean update(Shared shared, Updates updates) {
+    long gameId = 1 + updates.random.nextInt(shared.games);
+    return shared.leaderboard.update(
+        gameId, ++updates.sequence, updates.random.nextInt(Leaderboard.MAX_SCORE + 1));
+  }
+
+  @Benchmark
+  public int rank(Shared shared, Updates updates) {
+    return shared.leaderboard.rank(1 + updates.random.nextInt(shared.games));
+  }
+
+  @Benchmark
+  public Leaderboard.Snapshot snapshot(Shared shared) {
+    return shared.leaderboard.snapshot();
+  }
+
+  /** What a leaderboard without its own index does: a pass over all scores per refresh */
+  @Benchmark
+  public long[] rescan(Shared shared) {
+    int[] games = new int[Leaderboard.MAX_SCORE + 1];
+    for (int score : shared.scores) {
+      games[score]++;
+    }
+    int threshold = Leaderboard.MAX_SCORE;
+    for (int count = games[threshold]; count < TOP_K && threshold > 0; ) {
+      count += games[--threshold];
+    }
+    long[] top = new long[TOP_K];
+    int count = 0;
+    for (int game = 0; game < shared.scores.length && count < TOP_K; game++) {
+      if (shared.scores[game] > threshold) {
+        top[count++] = game + 1L;
+      }
+    }
+    return top;
+  }
+}
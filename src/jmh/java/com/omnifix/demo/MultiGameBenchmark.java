@@ -0,0 +1,72 @@
+package com.omnifix.demo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Interleaved rolls of {@code concurrentGames} live games through the multiplexed reactive
+ * pipeline, every game rolls once before any game rolls again. The score is the time to play all
+ * the games, divide the rolls printed at set up by it for rolls per second.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class MultiGameBenchmark {
+
+  @Param({"300000"})
+  int concurrentGames;
+
+  @Param({"1", "4"})
+  int rails;
+
+  List<LaneRoll> rolls;
+  Scheduler scheduler;
+  MultiGameReactiveBowling bowling;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    int[][] games = GameCorpus.randomGames(new SplittableRandom(GameCorpus.SEED), concurrentGames);
+    rolls = new ArrayList<>(GameCorpus.totalRolls(games));
+    for (int roll = 0; rolls.size() < GameCorpus.totalRolls(games); roll++) {
+      for (int game = 0; game < games.length; game++) {
+        if (roll < games[game].length) {
+          rolls.add(LaneRoll.of(game % 40, game + 1L, games[game][roll]));
+        }
+      }
+    }
+    System.out.println("Rolls per game set: " + rolls.size());
+    scheduler = Schedulers.newParallel("rails", rails);
+    bowling = new MultiGameReactiveBowling(rails, scheduler);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    scheduler.dispose();
+  }
+
+  @Benchmark
+  public Long playAll() {
+    return bowling.play(Flux.fromIterable(rolls)).count().block();
+  }
+}
@@ -0,0 +1,69 @@
+package com.omnifix.demo;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Scoring of a scorecard notation archive of a million games (about 30 MB) through memory mapped
+ * buffers, sequentially and split on line boundaries over the common pool. The file stays in the
+ * page cache, so this is the decoding cost rather than the disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotationParserBenchmark {
+
+  @Param({"1000000"})
+  public int games;
+
+  private Path file;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    file = Files.createTempFile("archive", ".txt");
+    int[][] corpus = GameCorpus.randomGames(new SplittableRandom(GameCorpus.SEED), games);
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+      for (int[] game : corpus) {
+        writer.write(NotationParser.format(game));
+        writer.write('\n');
+      }
+    }
+    System.out.println("Archive size: " + Files.size(file) + " bytes");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  @Benchmark
+  public NotationParser.Result parse() throws IOException {
+    return NotationParser.parse(file);
+  }
+
+  @Benchmark
+  public NotationParser.Result parseParallel() throws IOException {
+    return NotationParser.parseParallel(file);
+  }
+}
@@ -0,0 +1,78 @@
+package com.omnifix.demo;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Batch scoring with the prefix trie against {@link BulkScorer}, for random games (few shared
+ * prefixes) and archive like games made of a few common frames (many shared prefixes). The trie
+ * metrics are printed at the end of the trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrefixTrieBenchmark {
+
+  @Param({"1000000"})
+  public int games;
+
+  @Param({"RANDOM", "ARCHIVE"})
+  public String corpus;
+
+  @Param({"65536", "4194304"})
+  public int maxNodes;
+
+  private int[] rolls;
+  private int[] gameOffsets;
+  private PrefixTrieScorer scorer;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    SplittableRandom random = new SplittableRandom(GameCorpus.SEED);
+    int[][] games =
+        "ARCHIVE".equals(corpus)
+            ? GameCorpus.archiveGames(random, this.games)
+            : GameCorpus.randomGames(random, this.games);
+    gameOffsets = new int[games.length];
+    rolls = new int[GameCorpus.totalRolls(games)];
+    int offset = 0;
+    for (int i = 0; i < games.length; i++) {
+      gameOffsets[i] = offset;
+      for (int pins : games[i]) {
+        rolls[offset++] = pins;
+      }
+    }
+    scorer = new PrefixTrieScorer(maxNodes);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    System.out.println(scorer);
+  }
+
+  @Benchmark
+  public int[] prefixTrie() {
+    return scorer.scoreAll(rolls, gameOffsets);
+  }
+
+  @Benchmark
+  public int[] bulkScorer() {
+    return BulkScorer.scoreAll(rolls, gameOffsets);
+  }
+}
@@ -0,0 +1,68 @@
+package com.omnifix.demo;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of correcting a roll early, in the middle or at the end of a full game, against replaying
+ * the corrected game. Every operation corrects the roll and then corrects it back.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RollCorrectionBenchmark {
+
+  // Open frames of 3 and 4 with a STRIKE and a SPARE in between
+  private static final int[] GAME = {3, 4, 10, 3, 4, 6, 4, 3, 4, 3, 4, 3, 4, 3, 4, 3, 4, 3, 4};
+
+  @Param({"0", "9", "18"})
+  int rollIndex;
+
+  ScoreCard card;
+  int[] rolls;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    card = new ScoreCard();
+    for (int pins : GAME) {
+      card.roll(pins);
+    }
+    rolls = GAME.clone();
+  }
+
+  @Benchmark
+  public int correctRoll() {
+    card.correctRoll(rollIndex, 5);
+    card.correctRoll(rollIndex, GAME[rollIndex]);
+    return card.score();
+  }
+
+  @Benchmark
+  public int replay() {
+    rolls[rollIndex] = 5;
+    card.reset();
+    for (int pins : rolls) {
+      card.roll(pins);
+    }
+    rolls[rollIndex] = GAME[rollIndex];
+    card.reset();
+    for (int pins : rolls) {
+      card.roll(pins);
+    }
+    return card.score();
+  }
+}
@@ -0,0 +1,122 @@
+package com.omnifix.demo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Append throughput of the roll journal and the time to recover a journal of a given size. Run with
+ * {@code -p journalMegabytes=1024} for the 1 GB recovery.
+ */
+@Fork(1)
+public class RollJournalBenchmark {
+
+  static final int GAMES = 1 << 16;
+
+  @State(Scope.Benchmark)
+  public static class Appending {
+    Path directory;
+    RollJournal journal;
+    BowlingRegistry registry;
+    int[][] games;
+    int game;
+    int roll;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+      directory = Files.createTempDirectory("roll-journal-append");
+      journal = RollJournal.open(directory);
+      registry = new BowlingRegistry(GAMES);
+      games = GameCorpus.RANDOM.games();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+      journal.close();
+      delete(directory);
+    }
+
+    long roll() {
+      if (roll == games[game % games.length].length) {
+        long gameId = 1 + game % GAMES;
+        journal.appendComplete(gameId, registry.complete(gameId));
+        game++;
+        roll = 0;
+      }
+      long gameId = 1 + game % GAMES;
+      if (roll == 0 && registry.contains(gameId)) {
+        journal.appendNewGame(gameId, registry.newGame(gameId));
+      }
+      int pins = games[game % games.length][roll++];
+      return journal.appendRoll(gameId, registry.roll(gameId, pins), pins);
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class Recovering {
+    @Param({"64"})
+    int journalMegabytes;
+
+    Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+      directory = Files.createTempDirectory("roll-journal-recover");
+      Appending appending = new Appending();
+      appending.directory = directory;
+      appending.journal = RollJournal.open(directory);
+      appending.registry = new BowlingRegistry(GAMES);
+      appending.games = GameCorpus.RANDOM.games();
+      long records = ((long) journalMegabytes << 20) / RollJournal.RECORD_SIZE;
+      while (appending.journal.position() < records) {
+        appending.roll();
+      }
+      appending.journal.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+      delete(directory);
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @Warmup(iterations = 3, time = 2)
+  @Measurement(iterations = 5, time = 2)
+  public long append(Appending appending) {
+    return appending.roll();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Warmup(iterations = 1)
+  @Measurement(iterations = 3)
+  public long recover(Recovering recovering) throws IOException {
+    return RollJournal.recover(recovering.directory, 0, new BowlingRegistry(GAMES));
+  }
+
+  static void delete(Path directory) throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package com.omnifix.demo;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the roll metrics on {@link GameStateHelper#roll(int)}, disabled and enabled with every
+ * roll or one roll in 16 timed, and of a histogram record on its own. Run with {@code -t} above one
+ * to see the counters under contention.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class RollMetricsBenchmark {
+
+  /** One roll in N is timed, 0 leaves the metrics disabled (the baseline) */
+  @Param({"0", "1", "16"})
+  public int latencySampling;
+
+  private final LogLinearHistogram histogram = new LogLinearHistogram();
+
+  @State(Scope.Thread)
+  public static class Games {
+    int[][] games;
+    int nextGame;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      games = GameCorpus.RANDOM.games();
+    }
+
+    int[] next() {
+      int[] game = games[nextGame];
+      nextGame = (nextGame + 1) % games.length;
+      return game;
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    if (latencySampling > 0) {
+      RollMetrics.enable(latencySampling);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    RollMetrics.disable();
+  }
+
+  @Benchmark
+  public int gameStateHelperGame(Games games) {
+    GameState gameState = GameState.builder().build();
+    for (int pins : games.next()) {
+      gameState.roll(pins);
+    }
+    return gameState.score();
+  }
+
+  @Benchmark
+  public void histogramRecord(Games games) {
+    histogram.record(games.nextGame);
+    games.nextGame = (games.nextGame + 1) % games.games.length;
+  }
+}
@@ -0,0 +1,61 @@
+package com.omnifix.demo;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Exact score distribution by dynamic programming (uncached and cached) against a Monte Carlo
+ * estimate from 100,000 simulated games, whose probability of a likely score is still off by a few
+ * percent.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ScoreDistributionBenchmark {
+
+  static final int SIMULATED_GAMES = 100_000;
+
+  final PinModel model = PinModel.binomial(0.8);
+  final SplittableRandom random = new SplittableRandom(GameCorpus.SEED);
+
+  @Benchmark
+  public double[] dynamicProgramming() {
+    return ScoreDistribution.compute(model);
+  }
+
+  @Benchmark
+  public double[] cached() {
+    return ScoreDistribution.of(model);
+  }
+
+  @Benchmark
+  public double[] monteCarlo() {
+    double[] distribution = new double[ScoreDistribution.MAX_SCORE + 1];
+    for (int game = 0; game < SIMULATED_GAMES; game++) {
+      long state = PackedBowling.NEW_GAME;
+      while (!PackedBowling.isOver(state)) {
+        int standing = BowlingConstants.ALL_PINS - PackedBowling.prevRollValue(state);
+        double u = random.nextDouble();
+        int pins = 0;
+        while (pins < standing && u >= model.probability(standing, pins)) {
+          u -= model.probability(standing, pins++);
+        }
+        state = PackedBowling.roll(state, pins);
+      }
+      distribution[PackedBowling.score(state)] += 1.0 / SIMULATED_GAMES;
+    }
+    return distribution;
+  }
+}
@@ -0,0 +1,63 @@
+package com.omnifix.demo;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Best and worst final score of a game in frame 9, looked up in the projection tables against
+ * trying every continuation (which is only feasible that late in a game).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ScoreProjectionBenchmark {
+
+  // Eight open frames and a STRIKE in frame 9
+  private static final int[] ROLLS = {3, 4, 3, 4, 3, 4, 3, 4, 3, 4, 3, 4, 3, 4, 3, 4, 10};
+
+  long state;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    for (int pins : ROLLS) {
+      state = PackedBowling.roll(state, pins);
+    }
+  }
+
+  @Benchmark
+  public int projection() {
+    return ScoreProjection.maxPossible(state) - ScoreProjection.minPossible(state);
+  }
+
+  @Benchmark
+  public int bruteForce() {
+    return bruteForce(state, true) - bruteForce(state, false);
+  }
+
+  private static int bruteForce(long state, boolean best) {
+    if (PackedBowling.isOver(state)) {
+      return PackedBowling.score(state);
+    }
+    int result = best ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+    for (int pins = 0;
+        pins <= BowlingConstants.ALL_PINS - PackedBowling.prevRollValue(state);
+        pins++) {
+      int score = bruteForce(PackedBowling.roll(state, pins), best);
+      result = best ? Math.max(result, score) : Math.min(result, score);
+    }
+    return result;
+  }
+}
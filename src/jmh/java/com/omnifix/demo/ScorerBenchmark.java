@@ -0,0 +1,204 @@
+package com.omnifix.demo;
+
+import ch.qos.logback.classic.Logger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+
+/**
+ * Baseline for the three scorers over the fixed {@link GameCorpus} corpora.
+ *
+ * <p>Game benchmarks score one complete game per operation; {@link #gameStateHelperRoll()} applies
+ * a single roll per operation. Run with {@code -prof gc} to get the allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScorerBenchmark {
+
+  @Param({"ALL_STRIKES", "ALL_SPARES", "GUTTER", "RANDOM"})
+  public GameCorpus corpus;
+
+  /** Root log level, INFO lets the LOGGING roll event sink write every roll */
+  @Param({"WARN"})
+  public String logLevel;
+
+  /** Roll event sink attached to GameStateHelper: NONE, NOOP or LOGGING */
+  @Param({"NONE"})
+  public String rollEventSink;
+
+  private int[][] games;
+  private List<Flux<Integer>> pinStreams;
+  private int nextGame;
+
+  private ReactiveBowling reactiveBowling;
+  private FunctionalReactiveBowling functionalReactiveBowling;
+  private FunctionalReactiveBowling fusedFunctionalReactiveBowling;
+
+  private GameState rollingGame;
+  private int[] rollingRolls;
+  private int rollingIndex;
+
+  private long packedState;
+
+  private final ScoreCard scoreCard = new ScoreCard();
+  private int[] packedRolls;
+  private int packedIndex;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME))
+        .setLevel(ch.qos.logback.classic.Level.toLevel(logLevel));
+    if ("NOOP".equals(rollEventSink)) {
+      RollEvents.attach((gameId, fromState, toState, noOfPins, score, bonus) -> {});
+    } else if ("LOGGING".equals(rollEventSink)) {
+      RollEvents.attach(new LoggingRollEventSink());
+    }
+    games = corpus.games();
+    pinStreams =
+        Arrays.stream(games)
+            .map(
+                game -> Flux.fromIterable(Arrays.stream(game).boxed().collect(Collectors.toList())))
+            .collect(Collectors.toList());
+    reactiveBowling = new ReactiveBowling();
+    functionalReactiveBowling = new FunctionalReactiveBowling();
+    fusedFunctionalReactiveBowling =
+        new FunctionalReactiveBowling(FunctionalReactiveBowling.Mode.FUSED);
+    nextGame = 0;
+    startRollingGame();
+    packedRolls = nextGame();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    RollEvents.detach();
+  }
+
+  @Benchmark
+  public int gameStateHelperGame() {
+    int[] game = nextGame();
+    GameState gameState = GameState.builder().build();
+    for (int pins : game) {
+      gameState.roll(pins);
+    }
+    return gameState.score();
+  }
+
+  @Benchmark
+  public int gameStateHelperRoll() {
+    if (rollingIndex == rollingRolls.length) {
+      startRollingGame();
+    }
+    rollingGame.roll(rollingRolls[rollingIndex++]);
+    return rollingGame.score();
+  }
+
+  @Benchmark
+  public int packedBowlingGame() {
+    int[] game = nextGame();
+    long state = PackedBowling.NEW_GAME;
+    for (int pins : game) {
+      state = PackedBowling.roll(state, pins);
+    }
+    return PackedBowling.score(state);
+  }
+
+  @Benchmark
+  public int packedBowlingRoll() {
+    if (PackedBowling.isOver(packedState)) {
+      packedState = PackedBowling.NEW_GAME;
+      packedRolls = nextGame();
+      packedIndex = 0;
+    }
+    packedState = PackedBowling.roll(packedState, packedRolls[packedIndex++]);
+    return PackedBowling.score(packedState);
+  }
+
+  @Benchmark
+  public int transitionTableBowlingGame() {
+    int[] game = nextGame();
+    TransitionTableBowling transitionTableBowling = new TransitionTableBowling();
+    for (int pins : game) {
+      transitionTableBowling.roll(pins);
+    }
+    return transitionTableBowling.score();
+  }
+
+  @Benchmark
+  public int scoreCardGame() {
+    int[] game = nextGame();
+    scoreCard.reset();
+    for (int pins : game) {
+      scoreCard.roll(pins);
+    }
+    return scoreCard.score();
+  }
+
+  /** A display polling the whole card, run with -prof gc to see that reading allocates nothing */
+  @Benchmark
+  public int scoreCardRead() {
+    int checksum = 0;
+    for (int frame = 1; frame <= BowlingConstants.LAST_FRAME; frame++) {
+      checksum += scoreCard.getRoll(frame, 1) + scoreCard.getRoll(frame, 2);
+      checksum += scoreCard.getCumulativeScore(frame) + scoreCard.getPendingBonus(frame);
+    }
+    return checksum;
+  }
+
+  @Benchmark
+  public Integer reactiveBowlingGame() {
+    return reactiveBowling.play(nextPinStream()).blockLast();
+  }
+
+  @Benchmark
+  public Integer functionalReactiveBowlingGame() {
+    return functionalReactiveBowling.play(nextPinStream()).blockLast().getT1();
+  }
+
+  @Benchmark
+  public Integer fusedFunctionalReactiveBowlingGame() {
+    return fusedFunctionalReactiveBowling.play(nextPinStream()).blockLast().getT1();
+  }
+
+  @Benchmark
+  public Integer fusedFunctionalReactiveBowlingScore() {
+    return fusedFunctionalReactiveBowling.score(nextPinStream()).block();
+  }
+
+  private void startRollingGame() {
+    rollingGame = GameState.builder().build();
+    rollingRolls = nextGame();
+    rollingIndex = 0;
+  }
+
+  private int[] nextGame() {
+    int[] game = games[nextGame];
+    nextGame = (nextGame + 1) % games.length;
+    return game;
+  }
+
+  private Flux<Integer> nextPinStream() {
+    Flux<Integer> pinStream = pinStreams.get(nextGame);
+    nextGame = (nextGame + 1) % games.length;
+    return pinStream;
+  }
+}
@@ -0,0 +1,222 @@
+package com.omnifix.demo;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.SplittableRandom;
+
+/**
+ * Loopback load test of {@link ScoringServer}: every connection plays random games back to back,
+ * one request at a time (create the game, then one request per roll), and the latency of every
+ * request after the warm up goes into a {@link LogLinearHistogram}.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.omnifix.demo.ScoringServerLoadTest [connections] [seconds]
+ * </pre>
+ *
+ * <p>The client is a single non blocking selector thread writing raw HTTP/1.1 keep-alive requests,
+ * so that it takes as little of the CPU from the server as it can. Client and server share the
+ * process, so 10,000 connections need more than 20,000 file descriptors ({@code ulimit -n}).
+ */
+public class ScoringServerLoadTest {
+
+  private static final int WARMUP_SECONDS = 5;
+  private static final int BUFFER_SIZE = 4096;
+  private static final byte[] HEADER_END = {'\r', '\n', '\r', '\n'};
+
+  private final InetSocketAddress address;
+  private final int connections;
+  private final long measureFrom;
+  private final long deadline;
+  private final LogLinearHistogram latency = new LogLinearHistogram();
+  private long errors;
+  private long games;
+
+  ScoringServerLoadTest(InetSocketAddress address, int connections, long warmup, long measure) {
+    this.address = address;
+    this.connections = connections;
+    this.measureFrom = System.nanoTime() + warmup;
+    this.deadline = measureFrom + measure;
+  }
+
+  public static void main(String[] args) throws Exception {
+    int connections = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+    int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+    // The server keeps every connection when idle instead of closing all but 200
+    System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(connections));
+    // Every response otherwise waits for the delayed ACK, as in ScoringServer.main
+    System.getProperties().putIfAbsent("sun.net.httpserver.nodelay", "true");
+    try (ScoringServer server =
+        new ScoringServer(new InetSocketAddress("127.0.0.1", 0), connections)) {
+      ScoringServerLoadTest loadTest =
+          new ScoringServerLoadTest(
+              server.getAddress(),
+              connections,
+              Duration.ofSeconds(WARMUP_SECONDS).toNanos(),
+              Duration.ofSeconds(seconds).toNanos());
+      loadTest.run();
+
+      LogLinearHistogram.Snapshot snapshot = loadTest.latency.snapshot();
+      System.out.printf(
+          "%d connections, %d s: %.0f requests/s, p50 %.2f ms, p99 %.2f ms, p999 %.2f ms,"
+              + " max %.2f ms, %d errors, %d games%n",
+          connections,
+          seconds,
+          snapshot.getCount() / (double) seconds,
+          snapshot.valueAt(0.5) / 1e6,
+          snapshot.valueAt(0.99) / 1e6,
+          snapshot.valueAt(0.999) / 1e6,
+          snapshot.getMax() / 1e6,
+          loadTest.errors,
+          loadTest.games);
+    }
+  }
+
+  /** Runs the connections until the deadline, their last requests are not waited for */
+  void run() throws IOException {
+    try (Selector selector = Selector.open()) {
+      for (int connection = 0; connection < connections; connection++) {
+        SocketChannel channel = SocketChannel.open();
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        channel.connect(address);
+        channel.register(
+            selector, SelectionKey.OP_CONNECT, new Connection(new SplittableRandom(connection)));
+      }
+      while (System.nanoTime() < deadline) {
+        selector.select(100);
+        for (SelectionKey key : selector.selectedKeys()) {
+          Connection connection = (Connection) key.attachment();
+          try {
+            if (key.isConnectable()) {
+              ((SocketChannel) key.channel()).finishConnect();
+              connection.next(key);
+            } else if (key.isWritable()) {
+              connection.write(key);
+            } else if (key.isReadable()) {
+              connection.read(key);
+            }
+          } catch (IOException e) {
+            errors++;
+            key.cancel();
+            key.channel().close();
+          }
+        }
+        selector.selectedKeys().clear();
+      }
+      for (SelectionKey key : selector.keys()) {
+        key.channel().close();
+      }
+    }
+  }
+
+  /** One keep-alive connection playing games one request at a time */
+  private final class Connection {
+    final SplittableRandom random;
+    final int[] rolls = new int[ScoreCard.MAX_ROLLS];
+    final ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+    ByteBuffer out;
+    int count;
+    int roll = -1; // Creating the game
+    String rollsPath;
+    long sentAt;
+
+    Connection(SplittableRandom random) {
+      this.random = random;
+    }
+
+    void next(SelectionKey key) throws IOException {
+      if (roll == -1) {
+        count = RandomGames.game(random, rolls, true);
+        out = request(ScoringServer.GAMES, "");
+      } else {
+        out = request(rollsPath, String.valueOf(rolls[roll]));
+      }
+      sentAt = System.nanoTime();
+      write(key);
+    }
+
+    void write(SelectionKey key) throws IOException {
+      ((SocketChannel) key.channel()).write(out);
+      key.interestOps(out.hasRemaining() ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+
+    void read(SelectionKey key) throws IOException {
+      if (((SocketChannel) key.channel()).read(in) < 0) {
+        throw new IOException("Closed by the server");
+      }
+      int headerEnd = indexOf(in, HEADER_END);
+      if (headerEnd < 0) {
+        return;
+      }
+      String headers = new String(in.array(), 0, headerEnd, StandardCharsets.US_ASCII);
+      int bodyStart = headerEnd + HEADER_END.length;
+      int bodyEnd = bodyStart + contentLength(headers);
+      if (in.position() < bodyEnd) {
+        return;
+      }
+      long receivedAt = System.nanoTime();
+      if (sentAt >= measureFrom && receivedAt <= deadline) {
+        latency.record(receivedAt - sentAt);
+      }
+      int status = Integer.parseInt(headers.substring(9, 12));
+      String body = new String(in.array(), bodyStart, bodyEnd - bodyStart, StandardCharsets.UTF_8);
+      in.flip().position(bodyEnd);
+      in.compact();
+      if (status >= 400) {
+        errors++;
+        roll = -1;
+      } else if (roll == -1) {
+        String gameId = body.substring(body.indexOf(':') + 1, body.indexOf('}'));
+        rollsPath = ScoringServer.GAMES + "/" + gameId + "/rolls";
+        roll = 0;
+      } else if (++roll == count) {
+        games++;
+        roll = -1;
+      }
+      next(key);
+    }
+  }
+
+  private ByteBuffer request(String path, String body) {
+    return ByteBuffer.wrap(
+        ("POST "
+                + path
+                + " HTTP/1.1\r\nHost: "
+                + address.getHostString()
+                + "\r\nContent-Length: "
+                + body.length()
+                + "\r\n\r\n"
+                + body)
+            .getBytes(StandardCharsets.US_ASCII));
+  }
+
+  private static int contentLength(String headers) {
+    for (String header : headers.split("\r\n")) {
+      if (header.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+        return Integer.parseInt(header.substring(15).trim());
+      }
+    }
+    return 0;
+  }
+
+  private static int indexOf(ByteBuffer buffer, byte[] pattern) {
+    byte[] bytes = buffer.array();
+    for (int i = 0; i + pattern.length <= buffer.position(); i++) {
+      int matched = 0;
+      while (matched < pattern.length && bytes[i + matched] == pattern[matched]) {
+        matched++;
+      }
+      if (matched == pattern.length) {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
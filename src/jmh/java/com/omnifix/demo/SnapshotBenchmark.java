@@ -0,0 +1,81 @@
+package com.omnifix.demo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to snapshot a registry of live games and to recover it from the latest snapshot plus a
+ * journal tail of {@code tailRolls} rolls.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class SnapshotBenchmark {
+
+  @Param({"10000000"})
+  int liveGames;
+
+  @Param({"1000000"})
+  int tailRolls;
+
+  Path directory;
+  Path journalDirectory;
+  BowlingRegistry registry;
+  RollJournal journal;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("registry-snapshots");
+    journalDirectory = directory.resolve("journal");
+    Files.createDirectories(directory.resolve("bench"));
+    registry = new BowlingRegistry(liveGames);
+    journal = RollJournal.open(journalDirectory);
+    SplittableRandom random = new SplittableRandom(GameCorpus.SEED);
+    // Only the tail after the snapshot needs to be in the journal
+    for (long gameId = 1; gameId <= liveGames; gameId++) {
+      registry.roll(gameId, random.nextInt(10));
+    }
+    RegistrySnapshotter.write(registry, journal, directory);
+    for (int roll = 0; roll < tailRolls; roll++) {
+      long gameId = 1 + random.nextInt(liveGames);
+      if (!PackedBowling.isOver(registry.state(gameId))) {
+        journal.appendRoll(gameId, registry.roll(gameId, 0), 0);
+      }
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    journal.close();
+    RollJournalBenchmark.delete(directory);
+  }
+
+  @Benchmark
+  public Path snapshot() throws IOException {
+    return RegistrySnapshotter.write(registry, journal, directory.resolve("bench"));
+  }
+
+  @Benchmark
+  public long recover() throws IOException {
+    return RegistrySnapshotter.recover(directory, journalDirectory, new BowlingRegistry(liveGames));
+  }
+}
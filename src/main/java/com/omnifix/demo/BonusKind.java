@@ -0,0 +1,8 @@
+package com.omnifix.demo;
+
+/** Bonus earned by the frame a roll completed, as reported in roll events */
+public enum BonusKind {
+  NONE,
+  SPARE,
+  STRIKE
+}
@@ -0,0 +1,246 @@
+package com.omnifix.demo;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Lock free registry of live games keyed by a game id.
+ *
+ * <p>Games are held in an open addressed table of two {@link AtomicLongArray}s: the game ids and
+ * the game state words. A state word is a {@link PackedBowling} state with a completed flag and a
+ * 24 bit sequence in the upper bits, and every change is a CAS of that word so any thread can roll,
+ * score or complete any game. The sequence counts the changes (rolls, completions and new games)
+ * made under a game id modulo 2^24, which makes every change identifiable, e.g., in a {@link
+ * RollJournal}.
+ *
+ * <p>A game is created by its first roll. Slots are never freed, so the capacity must cover all the
+ * game ids used during the life of the registry. A completed game id can be reused with {@link
+ * #newGame(long)}, e.g., a lane id that moves on to its next game.
+ *
+ * @author George Bilchev
+ */
+@ThreadSafe
+public class BowlingRegistry {
+
+  /** Game id 0 marks an empty slot */
+  public static final long NO_GAME = 0L;
+
+  private static final int SEQUENCE_SHIFT = 32;
+  private static final long SEQUENCE_MASK = 0xFFFFFFL;
+  private static final long COMPLETED = 1L << 62;
+
+  private final AtomicLongArray gameIds;
+  private final AtomicLongArray states;
+  private final int mask;
+
+  /** @param capacity maximum number of distinct game ids, the table is kept at most half full */
+  public BowlingRegistry(int capacity) {
+    if (capacity <= 0 || capacity > 1 << 29) {
+      throw new IllegalArgumentException("Unsupported capacity " + capacity);
+    }
+    int size = Integer.highestOneBit(capacity * 2 - 1) << 1;
+    this.gameIds = new AtomicLongArray(size);
+    this.states = new AtomicLongArray(size);
+    this.mask = size - 1;
+  }
+
+  /**
+   * Rolls in a game, creating the game on its first roll
+   *
+   * @param gameId
+   * @param noOfPins
+   * @return the new state word of the game
+   */
+  public long roll(long gameId, int noOfPins) {
+    int slot = claimSlot(gameId);
+    while (true) {
+      long state = states.get(slot);
+      if ((state & COMPLETED) != 0) {
+        throw new IllegalStateException("Game " + gameId + " is completed!");
+      }
+      long next = nextChange(PackedBowling.roll(state, noOfPins));
+      if (states.compareAndSet(slot, state, next)) {
+        return next;
+      }
+    }
+  }
+
+  public int score(long gameId) {
+    return PackedBowling.score(state(gameId));
+  }
+
+  /**
+   * @param gameId
+   * @return the state word of the game
+   * @throws IllegalArgumentException for an unknown game id
+   */
+  public long state(long gameId) {
+    int slot = findSlot(gameId);
+    if (slot < 0) {
+      throw new IllegalArgumentException("Unknown game " + gameId);
+    }
+    return states.get(slot);
+  }
+
+  public boolean contains(long gameId) {
+    return findSlot(gameId) >= 0;
+  }
+
+  /**
+   * Freezes a game so that no more rolls are accepted, completing twice is harmless
+   *
+   * @param gameId
+   * @return the state word of the completed game, its score is the final score
+   */
+  public long complete(long gameId) {
+    int slot = findSlot(gameId);
+    if (slot < 0) {
+      throw new IllegalArgumentException("Unknown game " + gameId);
+    }
+    while (true) {
+      long state = states.get(slot);
+      if ((state & COMPLETED) != 0) {
+        return state;
+      }
+      long next = nextChange(state | COMPLETED);
+      if (states.compareAndSet(slot, state, next)) {
+        return next;
+      }
+    }
+  }
+
+  /**
+   * Starts a new game under a game id that is unknown or completed, a game without rolls is left as
+   * it is
+   *
+   * @param gameId
+   * @return the state word of the new game
+   */
+  public long newGame(long gameId) {
+    int slot = claimSlot(gameId);
+    while (true) {
+      long state = states.get(slot);
+      if ((state & COMPLETED) == 0) {
+        if ((state & PackedBowling.STATE_MASK) == PackedBowling.NEW_GAME) {
+          return state;
+        }
+        throw new IllegalStateException("Game " + gameId + " is in progress!");
+      }
+      long next = nextChange(withSequence(PackedBowling.NEW_GAME, sequence(state)));
+      if (states.compareAndSet(slot, state, next)) {
+        return next;
+      }
+    }
+  }
+
+  /**
+   * Sets the state word of a game, used to rebuild a registry on recovery
+   *
+   * @param gameId
+   * @param state
+   */
+  public void restore(long gameId, long state) {
+    states.set(claimSlot(gameId), state);
+  }
+
+  /**
+   * Visits every game. Concurrent rolls may or may not be seen, each state word is read atomically.
+   *
+   * @param visitor
+   */
+  public void forEach(GameVisitor visitor) {
+    for (int slot = 0; slot <= mask; slot++) {
+      long gameId = gameIds.get(slot);
+      if (gameId != NO_GAME) {
+        visitor.visit(gameId, states.get(slot));
+      }
+    }
+  }
+
+  public int capacity() {
+    return (mask + 1) / 2;
+  }
+
+  /*
+   * State word helpers
+   */
+
+  /** Number of changes made under the game id */
+  public static int sequence(long state) {
+    return (int) ((state >>> SEQUENCE_SHIFT) & SEQUENCE_MASK);
+  }
+
+  /** Counts one more change, the sequence wraps around within its 24 bits */
+  private static long nextChange(long state) {
+    return withSequence(state, (int) ((sequence(state) + 1) & SEQUENCE_MASK));
+  }
+
+  public static boolean isCompleted(long state) {
+    return (state & COMPLETED) != 0;
+  }
+
+  public static long withSequence(long state, int sequence) {
+    return (state & ~(SEQUENCE_MASK << SEQUENCE_SHIFT)) | ((long) sequence << SEQUENCE_SHIFT);
+  }
+
+  public static long completed(long state) {
+    return state | COMPLETED;
+  }
+
+  @FunctionalInterface
+  public interface GameVisitor {
+    void visit(long gameId, long state);
+  }
+
+  /*
+   * Open addressing with linear probing
+   */
+
+  private int findSlot(long gameId) {
+    checkGameId(gameId);
+    int slot = hash(gameId) & mask;
+    for (int probes = 0; probes <= mask; probes++) {
+      long key = gameIds.get(slot);
+      if (key == gameId) {
+        return slot;
+      }
+      if (key == NO_GAME) {
+        return -1;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  private int claimSlot(long gameId) {
+    checkGameId(gameId);
+    int slot = hash(gameId) & mask;
+    for (int probes = 0; probes <= mask; probes++) {
+      long key = gameIds.get(slot);
+      if (key == gameId) {
+        return slot;
+      }
+      if (key == NO_GAME) {
+        if (gameIds.compareAndSet(slot, NO_GAME, gameId)) {
+          return slot;
+        }
+        if (gameIds.get(slot) == gameId) {
+          return slot; // Claimed by a concurrent first roll of the same game
+        }
+      }
+      slot = (slot + 1) & mask;
+    }
+    throw new IllegalStateException("Registry is full! capacity=" + capacity());
+  }
+
+  private static void checkGameId(long gameId) {
+    if (gameId == NO_GAME) {
+      throw new IllegalArgumentException("Game id 0 is reserved");
+    }
+  }
+
+  private static int hash(long gameId) {
+    long h = gameId * 0x9E3779B97F4A7C15L; // Fibonacci hashing spreads sequential ids
+    return (int) (h ^ (h >>> 32));
+  }
+}
@@ -0,0 +1,133 @@
+package com.omnifix.demo;
+
+import static com.omnifix.demo.TransitionTableBowling.NEW_GAME_STATE;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Scores many games laid out back to back in a flat array without any per game objects.
+ *
+ * <p>Game {@code i} is made of the rolls from {@code gameOffsets[i]} up to (excluding) {@code
+ * gameOffsets[i + 1]}, the last game runs to the end of the array. The rules are the ones of the
+ * multiplier algorithm in {@link BowlingAlgorithmHelper} as tabulated by {@link
+ * TransitionTableBowling}. Unfinished games are scored as far as they go, like {@link
+ * Bowling#score()}.
+ *
+ * @author George Bilchev
+ */
+public final class BulkScorer {
+
+  /** Below this number of games a fork join task scores its range itself */
+  static final int PARALLEL_THRESHOLD = 8192;
+
+  private BulkScorer() {}
+
+  public static int[] scoreAll(int[] rolls, int[] gameOffsets) {
+    int[] scores = new int[gameOffsets.length];
+    scoreRange(rolls, gameOffsets, 0, gameOffsets.length, scores);
+    return scores;
+  }
+
+  /** Columnar variant, one byte per roll */
+  public static int[] scoreAll(byte[] rolls, int[] gameOffsets) {
+    int[] scores = new int[gameOffsets.length];
+    scoreRange(rolls, gameOffsets, 0, gameOffsets.length, scores);
+    return scores;
+  }
+
+  public static int[] scoreAllParallel(int[] rolls, int[] gameOffsets) {
+    int[] scores = new int[gameOffsets.length];
+    ForkJoinPool.commonPool()
+        .invoke(
+            new ScoreTask(
+                0,
+                gameOffsets.length,
+                (from, to) -> scoreRange(rolls, gameOffsets, from, to, scores)));
+    return scores;
+  }
+
+  public static int[] scoreAllParallel(byte[] rolls, int[] gameOffsets) {
+    int[] scores = new int[gameOffsets.length];
+    ForkJoinPool.commonPool()
+        .invoke(
+            new ScoreTask(
+                0,
+                gameOffsets.length,
+                (from, to) -> scoreRange(rolls, gameOffsets, from, to, scores)));
+    return scores;
+  }
+
+  /*
+   * Implementation details
+   */
+
+  private static void scoreRange(int[] rolls, int[] gameOffsets, int from, int to, int[] scores) {
+    for (int game = from; game < to; game++) {
+      int end = game + 1 < gameOffsets.length ? gameOffsets[game + 1] : rolls.length;
+      int stateId = NEW_GAME_STATE;
+      int score = 0;
+      for (int i = gameOffsets[game]; i < end; i++) {
+        int transition = TransitionTableBowling.transition(stateId, rolls[i]);
+        if (transition < 0) {
+          throw rejected(transition, stateId, rolls[i], game, i);
+        }
+        stateId = TransitionTableBowling.nextState(transition);
+        score += TransitionTableBowling.scoreDelta(transition);
+      }
+      scores[game] = score;
+    }
+  }
+
+  private static void scoreRange(byte[] rolls, int[] gameOffsets, int from, int to, int[] scores) {
+    for (int game = from; game < to; game++) {
+      int end = game + 1 < gameOffsets.length ? gameOffsets[game + 1] : rolls.length;
+      int stateId = NEW_GAME_STATE;
+      int score = 0;
+      for (int i = gameOffsets[game]; i < end; i++) {
+        int transition = TransitionTableBowling.transition(stateId, rolls[i]);
+        if (transition < 0) {
+          throw rejected(transition, stateId, rolls[i], game, i);
+        }
+        stateId = TransitionTableBowling.nextState(transition);
+        score += TransitionTableBowling.scoreDelta(transition);
+      }
+      scores[game] = score;
+    }
+  }
+
+  private static RuntimeException rejected(
+      int transition, int stateId, int noOfPins, int game, int offset) {
+    RuntimeException cause = TransitionTableBowling.rejected(transition, stateId, noOfPins);
+    return new IllegalArgumentException(
+        "Game " + game + " at roll offset " + offset + ": " + cause.getMessage(), cause);
+  }
+
+  private interface RangeScorer {
+    void score(int from, int to);
+  }
+
+  private static class ScoreTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final int from;
+    private final int to;
+    private final RangeScorer scorer;
+
+    ScoreTask(int from, int to, RangeScorer scorer) {
+      this.from = from;
+      this.to = to;
+      this.scorer = scorer;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= PARALLEL_THRESHOLD) {
+        scorer.score(from, to);
+      } else {
+        int middle = (from + to) >>> 1;
+        invokeAll(new ScoreTask(from, middle, scorer), new ScoreTask(middle, to, scorer));
+      }
+    }
+  }
+}
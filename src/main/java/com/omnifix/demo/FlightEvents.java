@@ -0,0 +1,205 @@
+package com.omnifix.demo;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import reactor.core.publisher.Flux;
+
+/**
+ * Java Flight Recorder events of the games, so that CPU samples and latency spikes can be matched
+ * with game activity. The events are off unless a recording enables them, e.g.,
+ *
+ * <pre>
+ * jcmd &lt;pid&gt; JFR.start settings=profile duration=60s filename=bowling.jfr
+ * </pre>
+ *
+ * <p>Only rolls slower than the {@code threshold} of {@value #ROLL_APPLIED} (10 µs unless the
+ * recording sets it) are recorded. With every event disabled the roll path checks one flag of each
+ * event type and allocates nothing.
+ *
+ * @author George Bilchev
+ */
+public final class FlightEvents {
+
+  public static final String CATEGORY = "Bowling";
+  public static final String GAME_STARTED = "com.omnifix.demo.GameStarted";
+  public static final String ROLL_APPLIED = "com.omnifix.demo.RollApplied";
+  public static final String GAME_COMPLETED = "com.omnifix.demo.GameCompleted";
+  public static final String BACKPRESSURE = "com.omnifix.demo.Backpressure";
+
+  // Only asked whether their type is enabled, never committed
+  private static final GameStarted GAME_STARTED_TYPE = new GameStarted();
+  private static final RollApplied ROLL_APPLIED_TYPE = new RollApplied();
+  private static final GameCompleted GAME_COMPLETED_TYPE = new GameCompleted();
+  private static final Backpressure BACKPRESSURE_TYPE = new Backpressure();
+
+  private FlightEvents() {}
+
+  @Name(GAME_STARTED)
+  @Label("Game Started")
+  @Category(CATEGORY)
+  @StackTrace(false)
+  public static class GameStarted extends Event {
+    @Label("Game Id")
+    long gameId;
+  }
+
+  @Name(ROLL_APPLIED)
+  @Label("Roll Applied")
+  @Description("A roll applied to a game, from the state of the game before the roll")
+  @Category(CATEGORY)
+  @Threshold("10 us")
+  @StackTrace(false)
+  public static class RollApplied extends Event {
+    @Label("Game Id")
+    long gameId;
+
+    @Label("From State")
+    String fromState;
+
+    @Label("To State")
+    String toState;
+
+    @Label("Pins")
+    int noOfPins;
+
+    @Label("Score")
+    int score;
+  }
+
+  @Name(GAME_COMPLETED)
+  @Label("Game Completed")
+  @Category(CATEGORY)
+  @StackTrace(false)
+  public static class GameCompleted extends Event {
+    @Label("Game Id")
+    long gameId;
+
+    @Label("Final Score")
+    int score;
+  }
+
+  @Name(BACKPRESSURE)
+  @Label("Backpressure")
+  @Description("Scores waiting for downstream demand, from the last demanded score to the request")
+  @Category(CATEGORY)
+  @Threshold("1 ms")
+  @StackTrace(false)
+  public static class Backpressure extends Event {
+    @Label("Pipeline")
+    String pipeline;
+
+    @Label("Delivered")
+    @Description("Scores delivered before the wait")
+    long delivered;
+
+    @Label("Requested")
+    long requested;
+  }
+
+  /** @return whether a roll has to go through {@link #beginRoll()} */
+  public static boolean isRollEnabled() {
+    return ROLL_APPLIED_TYPE.isEnabled()
+        || GAME_STARTED_TYPE.isEnabled()
+        || GAME_COMPLETED_TYPE.isEnabled();
+  }
+
+  /** Starts timing a roll, call before the game changes */
+  public static RollApplied beginRoll() {
+    RollApplied event = new RollApplied();
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Commits the events of a roll, call after the game changed
+   *
+   * @param event from {@link #beginRoll()}, ended right after the game changed
+   * @param game after the roll
+   * @param from state of the game before the roll
+   * @param noOfPins
+   * @param firstRoll whether the roll was the first of the game
+   */
+  public static void endRoll(
+      RollApplied event,
+      GameStateHelper game,
+      GameStateMachine from,
+      int noOfPins,
+      boolean firstRoll) {
+    GameStateMachine to = GameStateMachine.calculateState(game);
+    if (event.shouldCommit()) {
+      event.gameId = game.getGameId();
+      event.fromState = from.name();
+      event.toState = to.name();
+      event.noOfPins = noOfPins;
+      event.score = game.getScore();
+      event.commit();
+    }
+    if (firstRoll && GAME_STARTED_TYPE.isEnabled()) {
+      GameStarted started = new GameStarted();
+      started.gameId = game.getGameId();
+      started.commit();
+    }
+    if (to == GameStateMachine.END_OF_GAME && GAME_COMPLETED_TYPE.isEnabled()) {
+      GameCompleted completed = new GameCompleted();
+      completed.gameId = game.getGameId();
+      completed.score = game.getScore();
+      completed.commit();
+    }
+  }
+
+  /**
+   * Records the waits of a pipeline for downstream demand, checked when the pipeline is subscribed
+   *
+   * @param pipeline name in the events
+   * @param flux output of the pipeline
+   */
+  public static <T> Flux<T> backpressure(String pipeline, Flux<T> flux) {
+    return Flux.defer(
+        () -> {
+          if (!BACKPRESSURE_TYPE.isEnabled()) {
+            return flux;
+          }
+          AtomicLong demand = new AtomicLong();
+          AtomicLong delivered = new AtomicLong();
+          AtomicReference<Backpressure> waiting = new AtomicReference<>();
+          return flux.doOnRequest(
+                  requested -> {
+                    Backpressure event = waiting.getAndSet(null);
+                    demand.accumulateAndGet(requested, FlightEvents::addCap);
+                    if (event != null) {
+                      event.end();
+                      if (event.shouldCommit()) {
+                        event.pipeline = pipeline;
+                        event.delivered = delivered.get();
+                        event.requested = requested;
+                        event.commit();
+                      }
+                    }
+                  })
+              .doOnNext(
+                  next -> {
+                    delivered.incrementAndGet();
+                    if (demand.get() != Long.MAX_VALUE && demand.decrementAndGet() == 0) {
+                      Backpressure event = new Backpressure();
+                      event.begin();
+                      waiting.set(event);
+                      if (demand.get() > 0) { // Requested meanwhile, there was no wait
+                        waiting.compareAndSet(event, null);
+                      }
+                    }
+                  });
+        });
+  }
+
+  private static long addCap(long demand, long requested) {
+    long sum = demand + requested;
+    return sum < 0 || demand == Long.MAX_VALUE ? Long.MAX_VALUE : sum;
+  }
+}
@@ -1,11 +1,13 @@
 package com.omnifix.demo;
 
+import static com.omnifix.demo.BowlingConstants.ALL_PINS;
 import static com.omnifix.demo.BowlingConstants.MULTIPLYER_IDENTITY;
 import static com.omnifix.demo.BowlingConstants.RESET_PREV_VALUE;
 import static com.omnifix.demo.BowlingConstants.STARTING_ROLL_INDEX;
 import static com.omnifix.demo.BowlingConstants.STARTING_SCORE;
 
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.util.function.Tuple6;
 import reactor.util.function.Tuples;
 
@@ -26,8 +28,73 @@ import reactor.util.function.Tuples;
 //
 public class FunctionalReactiveBowling implements BowlingAlgorithmHelper {
 
+  public enum Mode {
+    /** The registry is threaded through the subscriber context one roll at a time */
+    CONTEXT,
+    /**
+     * A single {@code handle} stage over a primitive copy of the registry, it takes part in the
+     * synchronous and asynchronous fusion of the pins stream
+     */
+    FUSED
+  }
+
+  private final Mode mode;
+
+  public FunctionalReactiveBowling() {
+    this(Mode.CONTEXT);
+  }
+
+  public FunctionalReactiveBowling(Mode mode) {
+    this.mode = mode;
+  }
+
+  public Mode getMode() {
+    return mode;
+  }
+
+  /**
+   * Given a stream of noOfPins
+   *
+   * @param pinsStream
+   * @return A stream of the registry after each roll, see above
+   */
   public Flux<Tuple6<Integer, Integer, Integer, Integer, Integer, Integer>> play(
       Flux<Integer> pinsStream) {
+    if (mode == Mode.FUSED) {
+      return Flux.defer(
+          () -> {
+            FusedRegistry registry = new FusedRegistry();
+            return pinsStream.handle(
+                (noOfPins, sink) -> {
+                  registry.roll(noOfPins);
+                  sink.next(registry.toTuple());
+                });
+          });
+    }
+    return playInContext(pinsStream);
+  }
+
+  /**
+   * Given a stream of noOfPins
+   *
+   * @param pinsStream
+   * @return The score after the last roll, in {@link Mode#FUSED} without allocating per roll
+   */
+  public Mono<Integer> score(Flux<Integer> pinsStream) {
+    if (mode == Mode.FUSED) {
+      return Mono.defer(
+          () -> {
+            FusedRegistry registry = new FusedRegistry();
+            return pinsStream
+                .doOnNext(registry::roll)
+                .then(Mono.fromCallable(() -> registry.score));
+          });
+    }
+    return playInContext(pinsStream).map(Tuple6::getT1).last(STARTING_SCORE);
+  }
+
+  private Flux<Tuple6<Integer, Integer, Integer, Integer, Integer, Integer>> playInContext(
+      Flux<Integer> pinsStream) {
     MutableContext mutableContext = new MutableContext();
     return pinsStream
         .flatMap(
@@ -79,4 +146,39 @@ public class FunctionalReactiveBowling implements BowlingAlgorithmHelper {
                         MULTIPLYER_IDENTITY,
                         RESET_PREV_VALUE)));
   }
+
+  /** The registry of 6 in primitives, the same steps as the {@link BowlingAlgorithmHelper} */
+  private static final class FusedRegistry {
+    int score = STARTING_SCORE;
+    int rollIndex = STARTING_ROLL_INDEX;
+    int multiplier = MULTIPLYER_IDENTITY;
+    int nextMultiplier = MULTIPLYER_IDENTITY;
+    int nextNextMultiplier = MULTIPLYER_IDENTITY;
+    int prevRollValue = RESET_PREV_VALUE;
+
+    void roll(int noOfPins) {
+      boolean firstRoll = rollIndex % 2 == 1;
+      boolean strike = firstRoll && noOfPins == ALL_PINS && rollIndex < 19;
+      boolean spare = !firstRoll && noOfPins + prevRollValue == ALL_PINS && rollIndex < 20;
+      score += multiplier * noOfPins;
+      if (strike || spare) {
+        nextMultiplier++;
+      }
+      if (strike) {
+        nextNextMultiplier++;
+      }
+      prevRollValue = firstRoll && noOfPins != ALL_PINS ? noOfPins : RESET_PREV_VALUE;
+      rollIndex += strike ? 2 : 1;
+      // Left shift of the multipliers
+      boolean notLastBonusRoll = rollIndex <= 20;
+      multiplier = notLastBonusRoll ? nextMultiplier : MULTIPLYER_IDENTITY;
+      nextMultiplier = notLastBonusRoll ? nextNextMultiplier : MULTIPLYER_IDENTITY;
+      nextNextMultiplier = MULTIPLYER_IDENTITY;
+    }
+
+    Tuple6<Integer, Integer, Integer, Integer, Integer, Integer> toTuple() {
+      return Tuples.of(
+          score, rollIndex, multiplier, nextMultiplier, nextNextMultiplier, prevRollValue);
+    }
+  }
 }
@@ -0,0 +1,185 @@
+package com.omnifix.demo;
+
+import static com.omnifix.demo.BowlingConstants.ALL_PINS;
+import static com.omnifix.demo.TransitionTableBowling.NEW_GAME_STATE;
+
+/**
+ * Compact binary format of games: a length byte with the number of rolls followed by one nibble per
+ * roll, two rolls per byte with the first roll in the low nibble. A complete game has at most 21
+ * rolls, so it takes at most 12 bytes. Games are stored back to back without any separator.
+ *
+ * <p>The scoring functions run the rolls straight from the encoded bytes through the {@link
+ * TransitionTableBowling} transitions without decoding them into an {@code int[]}.
+ *
+ * @author George Bilchev
+ */
+public final class GameCodec {
+
+  public static final int MAX_ROLLS = ScoreCard.MAX_ROLLS;
+
+  /** Length byte plus 11 bytes of nibbles */
+  public static final int MAX_ENCODED_SIZE = 1 + (MAX_ROLLS + 1) / 2;
+
+  private static final int NIBBLE_BITS = 4;
+  private static final int NIBBLE_MASK = 0xF;
+
+  private GameCodec() {}
+
+  public static int encodedSize(int rolls) {
+    return 1 + (rolls + 1) / 2;
+  }
+
+  /** Encoded size of the game starting at the offset */
+  public static int encodedSize(byte[] encoded, int offset) {
+    return encodedSize(length(encoded, offset));
+  }
+
+  public static byte[] encode(int[] rolls) {
+    byte[] encoded = new byte[encodedSize(rolls.length)];
+    encode(rolls, rolls.length, encoded, 0);
+    return encoded;
+  }
+
+  /**
+   * Encodes the roll history of a score card
+   *
+   * @return the offset after the encoded game
+   */
+  public static int encode(ScoreCard card, byte[] encoded, int offset) {
+    int rolls = card.getRollCount();
+    encoded[offset] = (byte) rolls;
+    for (int roll = 0; roll < rolls; roll += 2) {
+      int second = roll + 1 < rolls ? card.getRoll(roll + 1) : 0;
+      encoded[offset + 1 + roll / 2] = (byte) (card.getRoll(roll) | second << NIBBLE_BITS);
+    }
+    return offset + encodedSize(rolls);
+  }
+
+  /**
+   * Encodes the first rolls of a game
+   *
+   * @return the offset after the encoded game
+   * @throws IllegalArgumentException for more than 21 rolls or a pin count outside 0..10
+   */
+  public static int encode(int[] rolls, int count, byte[] encoded, int offset) {
+    if (count < 0 || count > MAX_ROLLS) {
+      throw new IllegalArgumentException("Invalid number of rolls " + count);
+    }
+    encoded[offset] = (byte) count;
+    for (int roll = 0; roll < count; roll += 2) {
+      int second = roll + 1 < count ? nibble(rolls[roll + 1]) : 0;
+      encoded[offset + 1 + roll / 2] = (byte) (nibble(rolls[roll]) | second << NIBBLE_BITS);
+    }
+    return offset + encodedSize(count);
+  }
+
+  public static int[] decode(byte[] encoded, int offset) {
+    int[] rolls = new int[length(encoded, offset)];
+    for (int roll = 0; roll < rolls.length; roll++) {
+      rolls[roll] = roll(encoded, offset, roll);
+    }
+    return rolls;
+  }
+
+  /**
+   * Number of games stored back to back from the offset up to the end of the array
+   *
+   * @throws IllegalArgumentException for a game cut by the end of the array
+   */
+  public static int count(byte[] encoded, int offset) {
+    int games = 0;
+    for (int at = offset; at < encoded.length; at += encodedSize(encoded, at)) {
+      games++;
+    }
+    return games;
+  }
+
+  /**
+   * Scores one encoded game, an unfinished game is scored as far as it goes
+   *
+   * @throws IllegalArgumentException for a roll that breaks the rules or a game cut by the end of
+   *     the array
+   */
+  public static int score(byte[] encoded, int offset) {
+    return score(encoded, offset, 0);
+  }
+
+  /**
+   * Scores the games stored back to back from the offset up to the end of the array
+   *
+   * @throws IllegalArgumentException for a roll that breaks the rules or a game cut by the end of
+   *     the array
+   */
+  public static int[] scoreAll(byte[] encoded, int offset) {
+    int[] scores = new int[count(encoded, offset)];
+    int at = offset;
+    for (int game = 0; game < scores.length; game++) {
+      scores[game] = score(encoded, at, game);
+      at += encodedSize(encoded, at);
+    }
+    return scores;
+  }
+
+  /*
+   * Implementation details
+   */
+
+  private static int score(byte[] encoded, int offset, int game) {
+    int rolls = length(encoded, offset);
+    int stateId = NEW_GAME_STATE;
+    int score = 0;
+    int at = offset + 1;
+    for (int roll = 0; roll < rolls; roll += 2, at++) {
+      int pair = encoded[at];
+      int transition = TransitionTableBowling.transition(stateId, pair & NIBBLE_MASK);
+      if (transition < 0) {
+        throw rejected(transition, stateId, pair & NIBBLE_MASK, game, at);
+      }
+      stateId = TransitionTableBowling.nextState(transition);
+      score += TransitionTableBowling.scoreDelta(transition);
+      if (roll + 1 == rolls) {
+        break;
+      }
+      int second = (pair >>> NIBBLE_BITS) & NIBBLE_MASK;
+      transition = TransitionTableBowling.transition(stateId, second);
+      if (transition < 0) {
+        throw rejected(transition, stateId, second, game, at);
+      }
+      stateId = TransitionTableBowling.nextState(transition);
+      score += TransitionTableBowling.scoreDelta(transition);
+    }
+    return score;
+  }
+
+  /** Number of rolls of the game at the offset, checked against the end of the array */
+  private static int length(byte[] encoded, int offset) {
+    int rolls = encoded[offset];
+    if (rolls < 0 || rolls > MAX_ROLLS) {
+      throw new IllegalArgumentException(
+          "Invalid number of rolls " + rolls + " at byte offset " + offset);
+    }
+    if (offset + encodedSize(rolls) > encoded.length) {
+      throw new IllegalArgumentException(
+          "Truncated game of " + rolls + " rolls at byte offset " + offset);
+    }
+    return rolls;
+  }
+
+  private static int roll(byte[] encoded, int offset, int roll) {
+    return (encoded[offset + 1 + roll / 2] >>> (roll & 1) * NIBBLE_BITS) & NIBBLE_MASK;
+  }
+
+  private static int nibble(int noOfPins) {
+    if (noOfPins < 0 || noOfPins > ALL_PINS) {
+      throw new IllegalArgumentException("Invalid number of pins " + noOfPins);
+    }
+    return noOfPins;
+  }
+
+  private static RuntimeException rejected(
+      int transition, int stateId, int noOfPins, int game, int offset) {
+    RuntimeException cause = TransitionTableBowling.rejected(transition, stateId, noOfPins);
+    return new IllegalArgumentException(
+        "Game " + game + " at byte offset " + offset + ": " + cause.getMessage(), cause);
+  }
+}
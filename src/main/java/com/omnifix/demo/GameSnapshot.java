@@ -0,0 +1,47 @@
+package com.omnifix.demo;
+
+import lombok.Value;
+
+/**
+ * Immutable snapshot of a game, a {@link PackedBowling} state behind a value type.
+ *
+ * <p>Taking a snapshot copies one {@code long}, so it is O(1) at any point of the game, and rolling
+ * a snapshot returns a new snapshot, which makes every snapshot an independent branch of the game.
+ *
+ * @author George Bilchev
+ */
+@Value(staticConstructor = "of")
+public class GameSnapshot {
+
+  public static final GameSnapshot NEW_GAME = of(PackedBowling.NEW_GAME);
+
+  long state;
+
+  /** Drops the caller bits so that equal games are equal snapshots */
+  public static GameSnapshot of(PackedBowling bowling) {
+    return of(bowling.getState() & PackedBowling.STATE_MASK);
+  }
+
+  /** The snapshot after one more roll, this one is unchanged */
+  public GameSnapshot roll(int noOfPins) {
+    return of(PackedBowling.roll(state, noOfPins));
+  }
+
+  public int score() {
+    return PackedBowling.score(state);
+  }
+
+  public boolean isOver() {
+    return PackedBowling.isOver(state);
+  }
+
+  /** A new game continuing from this snapshot, independent of any other fork */
+  public PackedBowling fork() {
+    return new PackedBowling(state);
+  }
+
+  @Override
+  public String toString() {
+    return PackedBowling.toString(state);
+  }
+}
@@ -43,4 +43,10 @@ public class GameState extends GameStateHelper {
   @Setter(AccessLevel.PROTECTED)
   @Builder.Default
   private boolean doubleStrike = false;
+
+  // Identifies the game in roll events, not part of the scoring state
+  @Setter(AccessLevel.PROTECTED)
+  @Builder.Default
+  @EqualsAndHashCode.Exclude
+  private long gameId = 0;
 }
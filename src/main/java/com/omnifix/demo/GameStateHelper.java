@@ -1,9 +1,7 @@
 package com.omnifix.demo;
 
-import lombok.extern.slf4j.Slf4j;
 import net.jcip.annotations.NotThreadSafe;
 
-@Slf4j
 @NotThreadSafe
 public abstract class GameStateHelper implements Bowling {
 
@@ -16,34 +14,53 @@ public abstract class GameStateHelper implements Bowling {
   }
 
   public void roll(int noOfPins) {
+    RollEventRingBuffer rollEvents = RollEvents.publisher();
+    RollMetrics metrics = RollMetrics.recorder();
+    boolean flightEvents = FlightEvents.isRollEnabled();
+    if (rollEvents == null && metrics == null && !flightEvents) { // Nothing attached, no extra work
+      GameStateMachine.calculateState(this).nextState(noOfPins, this);
+      return;
+    }
 
-    String currentStateStr = GameStateMachine.getStateStr(this);
-
-    String newState = GameStateMachine.calculateState(this).nextState(noOfPins, this);
-
-    logState(noOfPins, currentStateStr, newState);
+    int fromState = rollEvents == null ? 0 : RollEvents.stateCode(this);
+    GameStateMachine from = GameStateMachine.calculateState(this);
+    int prevRollValue = getPrevRollValue();
+    boolean firstRoll = getNextFrame() == 1 && getNextRoll() == BowlingConstants.ROLL_ONE;
+    FlightEvents.RollApplied flightEvent = flightEvents ? FlightEvents.beginRoll() : null;
+    boolean timed = metrics != null && metrics.timeRoll();
+    long start = timed ? System.nanoTime() : 0;
+    try {
+      from.nextState(noOfPins, this);
+    } catch (RuntimeException e) {
+      if (metrics != null) {
+        metrics.recordRejectedRoll();
+      }
+      throw e;
+    }
+    if (flightEvent != null) {
+      flightEvent.end(); // Times the roll alone, not the recording of it
+    }
+    if (metrics != null) {
+      long nanos = timed ? System.nanoTime() - start : RollMetrics.NOT_TIMED;
+      metrics.recordRoll(
+          from, GameStateMachine.calculateState(this), noOfPins, prevRollValue, nanos);
+    }
+    if (flightEvent != null) {
+      FlightEvents.endRoll(flightEvent, this, from, noOfPins, firstRoll);
+    }
+    if (rollEvents != null) {
+      rollEvents.publish(
+          getGameId(), fromState, RollEvents.stateCode(this), noOfPins, getScore(), getBonusKind());
+    }
   }
 
-  /**
-   * Helpers
-   *
-   * @param noOfPins
-   * @param prevState
-   * @param newState
-   */
-  private void logState(int noOfPins, String prevState, String newState) {
-    String bonusStr = "";
+  public BonusKind getBonusKind() {
     if (isSpareBonus()) {
-      bonusStr = "SPARE";
+      return BonusKind.SPARE;
     } else if (isStrike()) {
-      bonusStr = "STRIKE";
+      return BonusKind.STRIKE;
     }
-
-    log.info(
-        "{}",
-        String.format(
-            "%-15s ->    %-15s   ROLL: %2d ==> SCORE: %3d   %-10s",
-            prevState, newState, noOfPins, getScore(), bonusStr));
+    return BonusKind.NONE;
   }
 
   // Used for logging "STRIKE"
@@ -83,5 +100,9 @@ public abstract class GameStateHelper implements Bowling {
 
   protected abstract void setDoubleStrike(boolean value);
 
+  public abstract long getGameId();
+
+  protected abstract void setGameId(long gameId);
+
   public abstract String toString();
 }
@@ -9,7 +9,7 @@ import lombok.extern.slf4j.Slf4j;
 public enum GameStateMachine {
   FIRST_GO {
     @Override
-    public String nextState(int noOfPins, GameStateHelper stateProxy) {
+    public GameStateMachine nextState(int noOfPins, GameStateHelper stateProxy) {
       recordScoreAndBonus(noOfPins, stateProxy);
       if (noOfPins == ALL_PINS) {
         log.debug("Detected a STRIKE: {}", this);
@@ -24,12 +24,12 @@ public enum GameStateMachine {
         stateProxy.setNextRoll(stateProxy.getNextRoll() + 1);
         stateProxy.setPrevRollValue(noOfPins);
       }
-      return getStateStr(stateProxy);
+      return calculateState(stateProxy);
     }
   },
   SECOND_GO {
     @Override
-    public String nextState(int noOfPins, GameStateHelper stateProxy) {
+    public GameStateMachine nextState(int noOfPins, GameStateHelper stateProxy) {
       stateProxy.setDoubleStrike(false); // Can't be double strike if we are here
       recordScoreAndBonus(noOfPins, stateProxy);
       if (noOfPins == BowlingConstants.ALL_PINS) { // SPARE from second go only
@@ -44,12 +44,12 @@ public enum GameStateMachine {
         // Reset next roll and advance frame
         advanceToNextFrame(noOfPins, stateProxy);
       }
-      return getStateStr(stateProxy);
+      return calculateState(stateProxy);
     }
   },
   BONUS_GO {
     @Override
-    public String nextState(int noOfPins, GameStateHelper stateProxy) {
+    public GameStateMachine nextState(int noOfPins, GameStateHelper stateProxy) {
       recordScoreAndBonus(noOfPins, stateProxy);
       if (isStrikeBonus(stateProxy)) {
         stateProxy.setNextRoll(stateProxy.getNextRoll() + 1);
@@ -58,17 +58,24 @@ public enum GameStateMachine {
         // Cannot go to BONUS_GO more than once if SPARE
         stateProxy.setNextRoll(3); // This is END OF GAME!
       }
-      return getStateStr(stateProxy);
+      return calculateState(stateProxy);
     }
   },
   END_OF_GAME {
     @Override
-    public String nextState(int noOfPins, GameStateHelper stateProxy) {
+    public GameStateMachine nextState(int noOfPins, GameStateHelper stateProxy) {
       throw new IllegalStateException("End of game! " + stateProxy);
     }
   };
 
-  public abstract String nextState(int noOfPins, GameStateHelper stateProxy);
+  /**
+   * Applies a roll to the game state
+   *
+   * @param noOfPins
+   * @param stateProxy
+   * @return the state the game moved to
+   */
+  public abstract GameStateMachine nextState(int noOfPins, GameStateHelper stateProxy);
 
   /**
    * State is implicitly modelled by GameState so this function just calculates the state and maps
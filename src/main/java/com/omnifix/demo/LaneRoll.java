@@ -0,0 +1,11 @@
+package com.omnifix.demo;
+
+import lombok.Value;
+
+/** One roll reported by a lane controller, the rolls of all the lanes come interleaved */
+@Value(staticConstructor = "of")
+public class LaneRoll {
+  int laneId;
+  long gameId;
+  int pins;
+}
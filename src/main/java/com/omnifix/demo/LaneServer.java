@@ -0,0 +1,351 @@
+package com.omnifix.demo;
+
+import static com.omnifix.demo.TransitionTableBowling.END_OF_GAME;
+import static com.omnifix.demo.TransitionTableBowling.INVALID_PINS;
+import static com.omnifix.demo.TransitionTableBowling.NEW_GAME_STATE;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Binary scoring protocol for lane terminals served by a single non blocking selector thread.
+ *
+ * <p>Every message is a length byte followed by that many bytes, the first of which is the
+ * operation or status. A terminal plays up to 256 games at a time on a connection, each in a slot
+ * it picks:
+ *
+ * <pre>
+ * request  [2][NEW_GAME][slot]           starts (or restarts) the game of the slot
+ * request  [3][ROLL][slot][pins]
+ * ack      [4][status][slot][score u16]  one per request, in the order of the requests
+ * </pre>
+ *
+ * <p>Requests are pipelined: a terminal writes as many as it wants without waiting for the acks.
+ * The requests are decoded in place from a direct buffer shared by the connections and the acks of
+ * all the requests read in one go are written back with a single write. A connection only keeps
+ * what is left over on the heap: the start of a request cut by the read, or the acks and the
+ * requests held back while its socket is full. The games are {@link TransitionTableBowling} states,
+ * so a roll costs a table lookup.
+ *
+ * <p>A failure while serving a terminal closes that terminal only, and failed accepts pause the
+ * accepting for {@value #ACCEPT_RETRY_MILLIS} ms, so the selector thread survives both.
+ *
+ * @author George Bilchev
+ */
+@Slf4j
+@ThreadSafe
+public class LaneServer implements AutoCloseable {
+
+  public static final byte NEW_GAME = 1;
+  public static final byte ROLL = 2;
+
+  public static final byte SCORED = 0;
+  public static final byte COMPLETED = 1;
+  public static final byte INVALID_ROLL = 2;
+  public static final byte GAME_OVER = 3;
+  public static final byte NO_GAME = 4;
+  public static final byte UNKNOWN_REQUEST = 5;
+
+  public static final int SLOTS = 256;
+  public static final int NEW_GAME_SIZE = 3;
+  public static final int ROLL_SIZE = 4;
+  public static final int ACK_SIZE = 5;
+
+  static final int BUFFER_SIZE = 64 * 1024;
+
+  private static final int ACCEPT_RETRY_MILLIS = 100;
+  private static final int FREE_SLOT = -1;
+  private static final int STATE_BITS = 16;
+  private static final int STATE_MASK = (1 << STATE_BITS) - 1;
+
+  private final ServerSocketChannel serverChannel;
+  private final Selector selector;
+  private final Thread selectorThread;
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder batches = new LongAdder();
+  private volatile boolean running = true;
+  // Only touched by the selector thread, the buffers are shared by the connections
+  private final ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_SIZE);
+  private final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE * 2);
+  private boolean acceptPaused;
+  private long acceptResumeAt;
+
+  /**
+   * Starts serving
+   *
+   * @param address port 0 picks a free port
+   */
+  public LaneServer(InetSocketAddress address) throws IOException {
+    this.selector = Selector.open();
+    this.serverChannel = ServerSocketChannel.open();
+    serverChannel.bind(address);
+    serverChannel.configureBlocking(false);
+    serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    this.selectorThread = new Thread(this::serve, "lanes");
+    selectorThread.setDaemon(true);
+    selectorThread.start();
+    log.info("Lanes on {}", getAddress());
+  }
+
+  /** Serves on the port of the first argument, 9090 by default */
+  public static void main(String[] args) throws IOException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 9090;
+    LaneServer server = new LaneServer(new InetSocketAddress(port));
+    Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+  }
+
+  public InetSocketAddress getAddress() {
+    try {
+      return (InetSocketAddress) serverChannel.getLocalAddress();
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** Requests acknowledged so far */
+  public long getRequestCount() {
+    return requests.sum();
+  }
+
+  /** Writes of acks so far, one per read of requests */
+  public long getBatchCount() {
+    return batches.sum();
+  }
+
+  public static ByteBuffer putNewGame(ByteBuffer buffer, int slot) {
+    return buffer.put((byte) (NEW_GAME_SIZE - 1)).put(NEW_GAME).put((byte) slot);
+  }
+
+  public static ByteBuffer putRoll(ByteBuffer buffer, int slot, int noOfPins) {
+    return buffer.put((byte) (ROLL_SIZE - 1)).put(ROLL).put((byte) slot).put((byte) noOfPins);
+  }
+
+  /** Stops the selector thread and closes every connection */
+  @Override
+  public void close() {
+    running = false;
+    selector.wakeup();
+    try {
+      selectorThread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /*
+   * Implementation details
+   */
+
+  private void serve() {
+    try (selector;
+        serverChannel) {
+      while (running) {
+        selector.select(acceptPaused ? ACCEPT_RETRY_MILLIS : 0);
+        if (acceptPaused && System.nanoTime() - acceptResumeAt >= 0) {
+          acceptPaused = false;
+          serverChannel.keyFor(selector).interestOps(SelectionKey.OP_ACCEPT);
+        }
+        for (SelectionKey key : selector.selectedKeys()) {
+          if (key.isAcceptable()) {
+            accept(key);
+          } else {
+            serve(key);
+          }
+        }
+        selector.selectedKeys().clear();
+      }
+      for (SelectionKey key : selector.keys()) {
+        key.channel().close();
+      }
+    } catch (IOException | RuntimeException | Error e) {
+      log.error("Lanes stopped", e);
+    }
+  }
+
+  /** A terminal that fails is closed alone, the others go on */
+  private void serve(SelectionKey key) {
+    Connection connection = (Connection) key.attachment();
+    try {
+      if (key.isWritable()) {
+        connection.write(key);
+      } else if (key.isReadable()) {
+        connection.read(key);
+      }
+    } catch (IOException e) {
+      log.debug("Closing {}", key.channel(), e);
+      close(key.channel());
+    } catch (RuntimeException | Error e) {
+      log.error("Closing {} after a failure", key.channel(), e);
+      close(key.channel());
+    }
+  }
+
+  /** Pauses the accepts for a moment when they fail, out of file descriptors for instance */
+  private void accept(SelectionKey key) {
+    SocketChannel channel = null;
+    try {
+      channel = serverChannel.accept();
+      if (channel != null) {
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        channel.register(selector, SelectionKey.OP_READ, new Connection());
+      }
+    } catch (IOException | RuntimeException | Error e) {
+      log.error("Accept failed, retrying in {} ms", ACCEPT_RETRY_MILLIS, e);
+      if (channel != null) {
+        close(channel);
+      }
+      key.interestOps(0);
+      acceptPaused = true;
+      acceptResumeAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ACCEPT_RETRY_MILLIS);
+    }
+  }
+
+  private static ByteBuffer copy(ByteBuffer buffer) {
+    return ByteBuffer.allocate(buffer.remaining()).put(buffer).flip();
+  }
+
+  private static void close(Channel channel) {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      log.debug("Failed to close {}", channel, e);
+    }
+  }
+
+  /** Games of a terminal and its bytes left over, only touched by the selector thread */
+  private final class Connection {
+    // Score in the high bits and transition table state id in the low bits
+    final int[] games = new int[SLOTS];
+    // Requests not applied yet (the start of the next one at least) and acks not written yet
+    ByteBuffer pendingIn;
+    ByteBuffer pendingOut;
+
+    Connection() {
+      Arrays.fill(games, FREE_SLOT);
+    }
+
+    void read(SelectionKey key) throws IOException {
+      restoreInput();
+      int read = ((SocketChannel) key.channel()).read(in);
+      in.flip();
+      if (read < 0) {
+        throw new IOException("Closed by the terminal");
+      }
+      acknowledge(key);
+    }
+
+    /** Flushes the acks left from a short write, then goes on with the requests already read */
+    void write(SelectionKey key) throws IOException {
+      ((SocketChannel) key.channel()).write(pendingOut);
+      if (!pendingOut.hasRemaining()) {
+        pendingOut = null;
+        restoreInput();
+        in.flip();
+        acknowledge(key);
+      }
+    }
+
+    /** Starts the shared input with the requests left from the last time */
+    private void restoreInput() {
+      in.clear();
+      if (pendingIn != null) {
+        in.put(pendingIn);
+        pendingIn = null;
+      }
+    }
+
+    /**
+     * Applies the complete requests in the input and writes their acks, as long as they go out,
+     * then keeps what is left of both
+     */
+    private void acknowledge(SelectionKey key) throws IOException {
+      while (true) {
+        out.clear();
+        int count = decode();
+        out.flip();
+        if (count == 0) {
+          break;
+        }
+        requests.add(count);
+        batches.increment();
+        ((SocketChannel) key.channel()).write(out);
+        if (out.hasRemaining()) {
+          pendingOut = copy(out);
+          break;
+        }
+      }
+      pendingIn = in.hasRemaining() ? copy(in) : null;
+      // A full socket stops the reads until the acks are out
+      key.interestOps(pendingOut != null ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+
+    /** Applies the requests in place while their acks fit in the output */
+    private int decode() throws IOException {
+      int count = 0;
+      while (in.hasRemaining() && out.remaining() >= ACK_SIZE) {
+        int at = in.position();
+        int length = in.get(at) & 0xFF;
+        if (length == 0) {
+          throw new IOException("Empty message");
+        }
+        if (in.remaining() <= length) {
+          break;
+        }
+        apply(at + 1, length);
+        in.position(at + 1 + length);
+        count++;
+      }
+      return count;
+    }
+
+    private void apply(int at, int length) {
+      int slot = length > 1 ? in.get(at + 1) & 0xFF : 0;
+      byte operation = in.get(at);
+      if (operation == NEW_GAME && length == NEW_GAME_SIZE - 1) {
+        games[slot] = NEW_GAME_STATE;
+        ack(SCORED, slot, 0);
+      } else if (operation == ROLL && length == ROLL_SIZE - 1) {
+        roll(slot, in.get(at + 2));
+      } else {
+        ack(UNKNOWN_REQUEST, slot, 0);
+      }
+    }
+
+    private void roll(int slot, int noOfPins) {
+      int game = games[slot];
+      if (game == FREE_SLOT) {
+        ack(NO_GAME, slot, 0);
+        return;
+      }
+      int score = game >>> STATE_BITS;
+      int transition = TransitionTableBowling.transition(game & STATE_MASK, noOfPins);
+      if (transition == INVALID_PINS) {
+        ack(INVALID_ROLL, slot, score);
+      } else if (transition == END_OF_GAME) {
+        ack(GAME_OVER, slot, score);
+      } else {
+        int stateId = TransitionTableBowling.nextState(transition);
+        score += TransitionTableBowling.scoreDelta(transition);
+        games[slot] = score << STATE_BITS | stateId;
+        ack(TransitionTableBowling.isOver(stateId) ? COMPLETED : SCORED, slot, score);
+      }
+    }
+
+    private void ack(byte status, int slot, int score) {
+      out.put((byte) (ACK_SIZE - 1)).put(status).put((byte) slot).putShort((short) score);
+    }
+  }
+}
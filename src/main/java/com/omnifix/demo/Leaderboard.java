@@ -0,0 +1,442 @@
+package com.omnifix.demo;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Live leaderboard of many concurrent games, fed with the state words returned by a {@link
+ * BowlingRegistry}.
+ *
+ * <p>A score is between 0 and 300, so games are bucketed by score instead of being kept in a sorted
+ * tree: a score change moves the game id from one bucket to another in O(1) and the top K is read
+ * from the highest buckets down. Games are striped by id over independently locked stripes, each
+ * with its own {@link PackedGameMap} of game ids to bucket positions, its primitive buckets and a
+ * Fenwick tree of the games per score for ranking. Updates of different stripes never contend and
+ * nothing is allocated unless a bucket grows.
+ *
+ * <p>The registry sequence in the state word orders the updates of a game, so an update that
+ * arrives after a newer one (two threads rolling in the same game) is ignored. A {@link Snapshot}
+ * holds all stripes locked while it selects the top K and copies the score histogram, so it is a
+ * consistent view of one moment for rendering. The lowest ids of a tied score are selected with a
+ * heap of at most K ids, so the time under the locks grows with the games tied at the lowest score
+ * taken but nothing is copied or sorted beyond K.
+ *
+ * @author George Bilchev
+ */
+@ThreadSafe
+public class Leaderboard {
+
+  public static final int MAX_SCORE = 300;
+
+  private static final int SCORES = MAX_SCORE + 1;
+  private static final int MIN_BUCKET_CAPACITY = 8;
+
+  // Stripe map entry: sequence (24 bits) | score (9 bits) | position in the bucket + 1 (31 bits)
+  private static final int SCORE_SHIFT = 31;
+  private static final int SEQUENCE_SHIFT = 40;
+  private static final long POSITION_MASK = (1L << SCORE_SHIFT) - 1;
+  private static final long SCORE_MASK = 0x1FF;
+  private static final int SEQUENCE_MASK = 0xFFFFFF;
+
+  private final int topK;
+  private final Stripe[] stripes;
+  private final int stripeMask;
+
+  /** @param topK number of leading games in a snapshot */
+  public Leaderboard(int topK) {
+    this(topK, Math.max(16, Integer.highestOneBit(Runtime.getRuntime().availableProcessors()) * 4));
+  }
+
+  /**
+   * @param topK number of leading games in a snapshot
+   * @param stripes number of independently locked stripes, rounded up to a power of two
+   */
+  public Leaderboard(int topK, int stripes) {
+    if (topK <= 0) {
+      throw new IllegalArgumentException("Invalid top K " + topK);
+    }
+    if (stripes <= 0 || stripes > 1 << 16) {
+      throw new IllegalArgumentException("Unsupported number of stripes " + stripes);
+    }
+    this.topK = topK;
+    int size = Integer.highestOneBit(stripes * 2 - 1);
+    this.stripes = new Stripe[size];
+    for (int i = 0; i < size; i++) {
+      this.stripes[i] = new Stripe();
+    }
+    this.stripeMask = size - 1;
+  }
+
+  /**
+   * Records the score of a game from a {@link BowlingRegistry} state word
+   *
+   * @param gameId
+   * @param state the state word returned by the registry
+   * @return false if a newer state of the game was already recorded
+   */
+  public boolean update(long gameId, long state) {
+    return update(gameId, BowlingRegistry.sequence(state), PackedBowling.score(state));
+  }
+
+  /**
+   * Records the score of a game
+   *
+   * @param gameId
+   * @param sequence orders the updates of a game, e.g., {@link BowlingRegistry#sequence(long)}
+   * @param score
+   * @return false if a newer score of the game was already recorded
+   */
+  public boolean update(long gameId, int sequence, int score) {
+    if (score < 0 || score > MAX_SCORE) {
+      throw new IllegalArgumentException("Invalid score " + score + " of game " + gameId);
+    }
+    Stripe stripe = stripe(gameId);
+    stripe.lock.lock();
+    try {
+      return stripe.update(gameId, sequence & SEQUENCE_MASK, score);
+    } finally {
+      stripe.lock.unlock();
+    }
+  }
+
+  /** @return false for an unknown game */
+  public boolean remove(long gameId) {
+    Stripe stripe = stripe(gameId);
+    stripe.lock.lock();
+    try {
+      return stripe.remove(gameId);
+    } finally {
+      stripe.lock.unlock();
+    }
+  }
+
+  /** @throws IllegalArgumentException for an unknown game */
+  public int score(long gameId) {
+    Stripe stripe = stripe(gameId);
+    stripe.lock.lock();
+    try {
+      return entryScore(stripe.find(gameId));
+    } finally {
+      stripe.lock.unlock();
+    }
+  }
+
+  /**
+   * Competition rank of a game, e.g., 1 + the number of games with a higher score. The stripes are
+   * counted one after the other, so concurrent updates may or may not be seen; use a {@link
+   * Snapshot} for a consistent rank.
+   *
+   * @throws IllegalArgumentException for an unknown game
+   */
+  public int rank(long gameId) {
+    int score = score(gameId);
+    int rank = 1;
+    for (Stripe stripe : stripes) {
+      stripe.lock.lock();
+      try {
+        rank += stripe.countAbove(score);
+      } finally {
+        stripe.lock.unlock();
+      }
+    }
+    return rank;
+  }
+
+  public boolean contains(long gameId) {
+    Stripe stripe = stripe(gameId);
+    stripe.lock.lock();
+    try {
+      return stripe.games.contains(gameId);
+    } finally {
+      stripe.lock.unlock();
+    }
+  }
+
+  /** Number of games on the leaderboard, see {@link #rank(long)} about concurrent updates */
+  public int size() {
+    int size = 0;
+    for (Stripe stripe : stripes) {
+      stripe.lock.lock();
+      try {
+        size += stripe.games.size();
+      } finally {
+        stripe.lock.unlock();
+      }
+    }
+    return size;
+  }
+
+  public int getTopK() {
+    return topK;
+  }
+
+  /**
+   * Consistent copy of the top K games and of the number of games per score. The top games are
+   * ordered by score and then by game id.
+   */
+  public Snapshot snapshot() {
+    for (Stripe stripe : stripes) {
+      stripe.lock.lock();
+    }
+    try {
+      int[] games = new int[SCORES];
+      for (Stripe stripe : stripes) {
+        for (int score = 0; score < SCORES; score++) {
+          games[score] += stripe.sizes[score];
+        }
+      }
+      long[] gameIds = new long[topK];
+      int[] scores = new int[topK];
+      int count = 0;
+      for (int score = MAX_SCORE; score >= 0 && count < topK; score--) {
+        int taken = Math.min(games[score], topK - count);
+        if (taken > 0) {
+          selectLowestIds(score, taken, gameIds, count);
+          Arrays.fill(scores, count, count + taken, score);
+          count += taken;
+        }
+      }
+      return new Snapshot(Arrays.copyOf(gameIds, count), Arrays.copyOf(scores, count), games);
+    } finally {
+      for (Stripe stripe : stripes) {
+        stripe.lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Sorts the lowest game ids with a score into the ids from the offset, with a max heap of them
+   * over the buckets of all stripes: a score that most games share costs a pass over its buckets,
+   * not a copy and a sort of them. Call with all stripes locked.
+   */
+  private void selectLowestIds(int score, int limit, long[] ids, int offset) {
+    int size = 0;
+    for (Stripe stripe : stripes) {
+      long[] bucket = stripe.buckets[score];
+      for (int i = 0; i < stripe.sizes[score]; i++) {
+        if (size < limit) {
+          siftUp(ids, offset, size++, bucket[i]);
+        } else if (bucket[i] < ids[offset]) {
+          siftDown(ids, offset, limit, bucket[i]);
+        }
+      }
+    }
+    Arrays.sort(ids, offset, offset + limit);
+  }
+
+  /** Top K games and the score histogram of one moment */
+  @Immutable
+  public static final class Snapshot {
+
+    private final long[] gameIds;
+    private final int[] scores;
+    private final int[] gamesAbove; // score -> games with a higher score
+    private final int games;
+
+    private Snapshot(long[] gameIds, int[] scores, int[] gamesPerScore) {
+      this.gameIds = gameIds;
+      this.scores = scores;
+      this.gamesAbove = new int[SCORES];
+      int above = 0;
+      for (int score = MAX_SCORE; score >= 0; score--) {
+        gamesAbove[score] = above;
+        above += gamesPerScore[score];
+      }
+      this.games = above;
+    }
+
+    /** Number of top games held, at most K */
+    public int size() {
+      return gameIds.length;
+    }
+
+    /** @param position 0 for the leader */
+    public long getGameId(int position) {
+      return gameIds[position];
+    }
+
+    public int getScore(int position) {
+      return scores[position];
+    }
+
+    /** Competition rank of the game at a position, tied games share a rank */
+    public int getRank(int position) {
+      return rankOf(scores[position]);
+    }
+
+    /** Rank that a game with the given score had */
+    public int rankOf(int score) {
+      if (score < 0 || score > MAX_SCORE) {
+        throw new IllegalArgumentException("Invalid score " + score);
+      }
+      return gamesAbove[score] + 1;
+    }
+
+    /** Number of games on the leaderboard */
+    public int getGames() {
+      return games;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder("Leaderboard.Snapshot(games=").append(games);
+      for (int position = 0; position < gameIds.length; position++) {
+        sb.append(position == 0 ? ", top=[" : ", ")
+            .append(getRank(position))
+            .append(". ")
+            .append(gameIds[position])
+            .append('=')
+            .append(scores[position]);
+      }
+      return sb.append(gameIds.length == 0 ? ")" : "])").toString();
+    }
+  }
+
+  /*
+   * Implementation details
+   */
+
+  private Stripe stripe(long gameId) {
+    long h = gameId * 0x9E3779B97F4A7C15L;
+    return stripes[(int) (h >>> 40) & stripeMask]; // High bits, the maps hash the low bits
+  }
+
+  /** Adds an id at the end of the max heap starting at the base */
+  private static void siftUp(long[] heap, int base, int index, long id) {
+    while (index > 0) {
+      int parent = (index - 1) >>> 1;
+      if (heap[base + parent] >= id) {
+        break;
+      }
+      heap[base + index] = heap[base + parent];
+      index = parent;
+    }
+    heap[base + index] = id;
+  }
+
+  /** Replaces the largest id of the max heap starting at the base */
+  private static void siftDown(long[] heap, int base, int size, long id) {
+    int index = 0;
+    for (int child = 1; child < size; child = 2 * index + 1) {
+      if (child + 1 < size && heap[base + child + 1] > heap[base + child]) {
+        child++;
+      }
+      if (heap[base + child] <= id) {
+        break;
+      }
+      heap[base + index] = heap[base + child];
+      index = child;
+    }
+    heap[base + index] = id;
+  }
+
+  private static int entryScore(long entry) {
+    return (int) ((entry >>> SCORE_SHIFT) & SCORE_MASK);
+  }
+
+  private static int entryPosition(long entry) {
+    return (int) (entry & POSITION_MASK) - 1;
+  }
+
+  private static int entrySequence(long entry) {
+    return (int) (entry >>> SEQUENCE_SHIFT);
+  }
+
+  private static long newEntry(int sequence, int score, int position) {
+    return (long) sequence << SEQUENCE_SHIFT | (long) score << SCORE_SHIFT | (position + 1);
+  }
+
+  /** Wrap around compare of 24 bit sequences */
+  private static boolean isNewer(int sequence, int than) {
+    int distance = (sequence - than) & SEQUENCE_MASK;
+    return distance != 0 && distance < (SEQUENCE_MASK >>> 1);
+  }
+
+  /** Guarded by its lock */
+  private static final class Stripe {
+
+    final ReentrantLock lock = new ReentrantLock();
+    final PackedGameMap games = new PackedGameMap(); // gameId -> entry
+    final long[][] buckets = new long[SCORES][]; // score -> game ids
+    final int[] sizes = new int[SCORES];
+    final int[] tree = new int[SCORES + 1]; // Fenwick tree of the games per score
+
+    boolean update(long gameId, int sequence, int score) {
+      long entry = games.get(gameId);
+      if (entry != PackedBowling.NEW_GAME) {
+        if (!isNewer(sequence, entrySequence(entry))) {
+          return false;
+        }
+        if (entryScore(entry) == score) {
+          games.put(gameId, newEntry(sequence, score, entryPosition(entry)));
+          return true;
+        }
+        removeFromBucket(entryScore(entry), entryPosition(entry));
+      }
+      games.put(gameId, newEntry(sequence, score, addToBucket(gameId, score)));
+      return true;
+    }
+
+    boolean remove(long gameId) {
+      long entry = games.get(gameId);
+      if (entry == PackedBowling.NEW_GAME) {
+        return false;
+      }
+      removeFromBucket(entryScore(entry), entryPosition(entry));
+      games.remove(gameId);
+      return true;
+    }
+
+    long find(long gameId) {
+      long entry = games.get(gameId);
+      if (entry == PackedBowling.NEW_GAME) {
+        throw new IllegalArgumentException("Unknown game " + gameId);
+      }
+      return entry;
+    }
+
+    int countAbove(int score) {
+      int below = 0; // Games with a score up to and including the given score
+      for (int i = score + 1; i > 0; i -= i & -i) {
+        below += tree[i];
+      }
+      return games.size() - below;
+    }
+
+    private int addToBucket(long gameId, int score) {
+      long[] bucket = buckets[score];
+      int position = sizes[score]++;
+      if (bucket == null || position == bucket.length) {
+        bucket =
+            bucket == null
+                ? new long[MIN_BUCKET_CAPACITY]
+                : Arrays.copyOf(bucket, bucket.length * 2);
+        buckets[score] = bucket;
+      }
+      bucket[position] = gameId;
+      count(score, 1);
+      return position;
+    }
+
+    /** Moves the last game id of the bucket into the hole */
+    private void removeFromBucket(int score, int position) {
+      long[] bucket = buckets[score];
+      int last = --sizes[score];
+      if (position != last) {
+        long moved = bucket[last];
+        bucket[position] = moved;
+        long movedEntry = games.get(moved);
+        games.put(moved, newEntry(entrySequence(movedEntry), score, position));
+      }
+      count(score, -1);
+    }
+
+    private void count(int score, int delta) {
+      for (int i = score + 1; i <= SCORES; i += i & -i) {
+        tree[i] += delta;
+      }
+    }
+  }
+}
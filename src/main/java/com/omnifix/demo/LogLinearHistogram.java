@@ -0,0 +1,127 @@
+package com.omnifix.demo;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Lock-free histogram of non negative values, e.g., latencies in nanoseconds.
+ *
+ * <p>Every power of two is split into 16 linear sub-buckets, so a recorded value is known within
+ * 1/16 (6.25%) of itself and all of {@code long} fits in less than a thousand buckets. Recording
+ * increments one slot of an {@link AtomicLongArray}, nothing is allocated. A snapshot copies the
+ * buckets one at a time, so it may miss the values recorded while it is taken.
+ *
+ * @author George Bilchev
+ */
+@ThreadSafe
+public final class LogLinearHistogram {
+
+  static final int SUB_BUCKET_BITS = 4;
+  static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAdder sum = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  /** @param value negative values are recorded as 0 */
+  public void record(long value) {
+    long recorded = Math.max(0, value);
+    counts.incrementAndGet(bucket(recorded));
+    sum.add(recorded);
+    max.accumulate(recorded);
+  }
+
+  public Snapshot snapshot() {
+    long[] copy = new long[BUCKETS];
+    long count = 0;
+    for (int bucket = 0; bucket < BUCKETS; bucket++) {
+      copy[bucket] = counts.get(bucket);
+      count += copy[bucket];
+    }
+    return new Snapshot(copy, count, sum.sum(), max.get());
+  }
+
+  public void reset() {
+    for (int bucket = 0; bucket < BUCKETS; bucket++) {
+      counts.set(bucket, 0);
+    }
+    sum.reset();
+    max.reset();
+  }
+
+  /** Values up to 15 get a bucket each, then 16 buckets per power of two */
+  static int bucket(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+  }
+
+  /** Highest value that falls in the bucket */
+  static long highestValue(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = bucket / SUB_BUCKETS - 1;
+    long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+
+  @Immutable
+  public static final class Snapshot {
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    Snapshot(long[] counts, long count, long sum, long max) {
+      this.counts = counts;
+      this.count = count;
+      this.sum = sum;
+      this.max = max;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public long getMax() {
+      return max;
+    }
+
+    public double getMean() {
+      return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * @param quantile between 0 and 1, e.g., 0.99
+     * @return the highest value of the bucket holding the quantile, at most the max, 0 when empty
+     */
+    public long valueAt(double quantile) {
+      if (quantile < 0 || quantile > 1) {
+        throw new IllegalArgumentException("Invalid quantile " + quantile);
+      }
+      long rank = Math.max(1, (long) Math.ceil(quantile * count));
+      long seen = 0;
+      for (int bucket = 0; bucket < counts.length; bucket++) {
+        seen += counts[bucket];
+        if (seen >= rank) {
+          return Math.min(highestValue(bucket), max);
+        }
+      }
+      return 0;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "LogLinearHistogram.Snapshot(count=%d, mean=%.1f, p50=%d, p99=%d, p999=%d, max=%d)",
+          count, getMean(), valueAt(0.5), valueAt(0.99), valueAt(0.999), max);
+    }
+  }
+}
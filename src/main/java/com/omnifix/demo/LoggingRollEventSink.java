@@ -0,0 +1,16 @@
+package com.omnifix.demo;
+
+import lombok.extern.slf4j.Slf4j;
+
+/** Logs roll events in the format {@link GameStateHelper} used to log every roll with */
+@Slf4j
+public class LoggingRollEventSink implements RollEventSink {
+
+  @Override
+  public void onRoll(
+      long gameId, int fromState, int toState, int noOfPins, int score, BonusKind bonus) {
+    if (log.isInfoEnabled()) {
+      log.info("{}", RollEvents.format(fromState, toState, noOfPins, score, bonus));
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package com.omnifix.demo;
+
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Reactive scoring of the interleaved rolls of many games at once.
+ *
+ * <p>The games are sharded by their id onto a fixed number of rails, so the number of groups is the
+ * number of rails however many games are live and the rolls of a game are always scored in order by
+ * the same rail. Every rail keeps the {@link PackedBowling} states of its games in a {@link
+ * PackedGameMap}, a finished game is dropped from the map and its id can start a new game. Demand
+ * flows from the subscriber through the merge and the rails to the source.
+ *
+ * <p>A roll that breaks the rules fails the stream like in the single game implementations, use
+ * {@code onErrorContinue} to skip such rolls and carry on with the other games.
+ *
+ * @author George Bilchev
+ */
+public class MultiGameReactiveBowling {
+
+  public static final int DEFAULT_RAILS = Schedulers.DEFAULT_POOL_SIZE;
+
+  private final int rails;
+  private final Scheduler scheduler;
+
+  public MultiGameReactiveBowling() {
+    this(DEFAULT_RAILS, Schedulers.parallel());
+  }
+
+  /**
+   * @param rails number of shards the games are spread over
+   * @param scheduler the rails are scored on
+   */
+  public MultiGameReactiveBowling(int rails, Scheduler scheduler) {
+    if (rails <= 0) {
+      throw new IllegalArgumentException("At least one rail is needed: " + rails);
+    }
+    this.rails = rails;
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * Given an interleaved stream of rolls
+   *
+   * @param rollStream
+   * @return A stream of the updated score of a game per roll, in roll order for every game
+   */
+  public Flux<ScoreUpdate> play(Flux<LaneRoll> rollStream) {
+    if (rails == 1) {
+      return rollStream.publishOn(scheduler).transform(MultiGameReactiveBowling::scoreRail);
+    }
+    return rollStream
+        .groupBy(roll -> railOf(roll.getGameId()))
+        .flatMap(
+            rail -> rail.publishOn(scheduler).transform(MultiGameReactiveBowling::scoreRail),
+            rails);
+  }
+
+  public int getRails() {
+    return rails;
+  }
+
+  int railOf(long gameId) {
+    long h = gameId * 0x9E3779B97F4A7C15L;
+    return (int) ((h >>> 32) % rails);
+  }
+
+  private static Flux<ScoreUpdate> scoreRail(Flux<LaneRoll> rollStream) {
+    return Flux.defer(
+        () -> {
+          PackedGameMap games = new PackedGameMap();
+          return rollStream.handle(
+              (roll, sink) -> {
+                long state = PackedBowling.roll(games.get(roll.getGameId()), roll.getPins());
+                boolean over = PackedBowling.isOver(state);
+                if (over) {
+                  games.remove(roll.getGameId());
+                } else {
+                  games.put(roll.getGameId(), state);
+                }
+                sink.next(
+                    ScoreUpdate.of(
+                        roll.getLaneId(),
+                        roll.getGameId(),
+                        roll.getPins(),
+                        PackedBowling.score(state),
+                        over));
+              });
+        });
+  }
+}
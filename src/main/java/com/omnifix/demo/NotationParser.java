@@ -0,0 +1,321 @@
+package com.omnifix.demo;
+
+import static com.omnifix.demo.BowlingConstants.ALL_PINS;
+import static com.omnifix.demo.BowlingConstants.LAST_FRAME;
+import static com.omnifix.demo.TransitionTableBowling.NEW_GAME_STATE;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import lombok.Value;
+
+/**
+ * Scores archives of games written in the standard scorecard notation, one game per line, e.g.,
+ * {@code X 7/ 9- X -8 8/ -6 X X X81}.
+ *
+ * <p>A roll is {@code X} (STRIKE), {@code /} (SPARE), {@code -} (no pins) or a digit; spaces and
+ * tabs between frames are ignored. Files are read through memory mapped buffers and decoded byte by
+ * byte straight into the {@link TransitionTableBowling} transitions, so no {@code String} or per
+ * game object is created. A malformed or incomplete line is reported with its line number and the
+ * byte offset of the problem, its score is {@link #MALFORMED} and parsing goes on with the next
+ * line. The parallel variants split the input on line boundaries and score the chunks on the common
+ * fork join pool.
+ *
+ * @author George Bilchev
+ */
+public final class NotationParser {
+
+  /** Score of a malformed game */
+  public static final int MALFORMED = -1;
+
+  /** Files are mapped in regions of at most this size, split on line boundaries */
+  static final int MAX_REGION_SIZE = 1 << 30;
+
+  /** Smallest chunk worth a fork join task */
+  static final int MIN_CHUNK_SIZE = 1 << 16;
+
+  // Byte -> pins (X is 10), or one of the codes below
+  private static final byte[] CODES = new byte[256];
+  private static final int INVALID = -1;
+  private static final int SPARE = 11;
+  private static final int SKIP = 12;
+  private static final int LINE_END = 13;
+
+  static {
+    Arrays.fill(CODES, (byte) INVALID);
+    for (int pins = 0; pins <= 9; pins++) {
+      CODES['0' + pins] = (byte) pins;
+    }
+    CODES['-'] = 0;
+    CODES['X'] = ALL_PINS;
+    CODES['x'] = ALL_PINS;
+    CODES['/'] = SPARE;
+    CODES[' '] = SKIP;
+    CODES['\t'] = SKIP;
+    CODES['\r'] = SKIP;
+    CODES['\n'] = LINE_END;
+  }
+
+  private NotationParser() {}
+
+  public static Result parse(Path file) throws IOException {
+    return parse(file, MAX_REGION_SIZE, false);
+  }
+
+  public static Result parseParallel(Path file) throws IOException {
+    return parse(file, MAX_REGION_SIZE, true);
+  }
+
+  /** Parses the bytes from the position to the limit, offsets are relative to the position */
+  public static Result parse(ByteBuffer buffer) {
+    return merge(
+        Collections.singletonList(
+            parseChunk(buffer, buffer.position(), buffer.limit(), -buffer.position())));
+  }
+
+  /** Parses the bytes from the position to the limit, offsets are relative to the position */
+  public static Result parseParallel(ByteBuffer buffer) {
+    return merge(parseChunks(buffer, buffer.position(), buffer.limit(), -buffer.position()));
+  }
+
+  /** Writes the rolls of a game in the notation, frames are separated by a space */
+  public static String format(int[] rolls) {
+    StringBuilder sb = new StringBuilder(rolls.length + LAST_FRAME);
+    int frame = 1;
+    boolean secondBall = false;
+    int standing = ALL_PINS;
+    for (int noOfPins : rolls) {
+      if (!secondBall && sb.length() > 0 && frame <= LAST_FRAME) {
+        sb.append(' ');
+      }
+      if (!secondBall && noOfPins == ALL_PINS) {
+        sb.append('X');
+        frame++;
+        continue;
+      }
+      if (secondBall && noOfPins == standing) {
+        sb.append('/');
+      } else {
+        sb.append(noOfPins == 0 ? '-' : (char) ('0' + noOfPins));
+      }
+      if (secondBall) {
+        frame++;
+        standing = ALL_PINS;
+      } else {
+        standing = ALL_PINS - noOfPins;
+      }
+      secondBall = !secondBall;
+    }
+    return sb.toString();
+  }
+
+  /** Scores of the games (non blank lines) in the order of the lines */
+  @Value
+  public static class Result {
+    int[] scores;
+    List<MalformedLine> malformedLines;
+    long lines;
+
+    public int getGames() {
+      return scores.length;
+    }
+  }
+
+  @Value(staticConstructor = "of")
+  public static class MalformedLine {
+    /** Line number, the first line is 1 */
+    long line;
+    /** Index of the game in the scores */
+    int game;
+    /** Byte offset of the offending roll or of the end of the line */
+    long offset;
+
+    String message;
+  }
+
+  /*
+   * Implementation details
+   */
+
+  static Result parse(Path file, int regionSize, boolean parallel) throws IOException {
+    List<Chunk> chunks = new ArrayList<>();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      long start = 0;
+      while (start < size) {
+        int length = (int) Math.min(regionSize, size - start);
+        MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        int end = start + length < size ? lastLineEnd(region, length, start) : length;
+        if (parallel) {
+          chunks.addAll(parseChunks(region, 0, end, start));
+        } else {
+          chunks.add(parseChunk(region, 0, end, start));
+        }
+        start += end;
+      }
+    }
+    return merge(chunks);
+  }
+
+  private static List<Chunk> parseChunks(ByteBuffer buffer, int from, int to, long offsetBase) {
+    int chunks =
+        Math.max(
+            1, Math.min(ForkJoinPool.getCommonPoolParallelism() * 4, (to - from) / MIN_CHUNK_SIZE));
+    int[] starts = new int[chunks + 1];
+    starts[0] = from;
+    for (int chunk = 1; chunk < chunks; chunk++) {
+      int start = Math.max(starts[chunk - 1], from + (int) ((long) (to - from) * chunk / chunks));
+      while (start < to && start > from && buffer.get(start - 1) != '\n') {
+        start++;
+      }
+      starts[chunk] = start;
+    }
+    starts[chunks] = to;
+    return IntStream.range(0, chunks)
+        .parallel()
+        .mapToObj(chunk -> parseChunk(buffer, starts[chunk], starts[chunk + 1], offsetBase))
+        .collect(Collectors.toList());
+  }
+
+  /** Scores the lines of a chunk that starts at the beginning of a line */
+  private static Chunk parseChunk(ByteBuffer buffer, int from, int to, long offsetBase) {
+    Chunk chunk = new Chunk((to - from) / 32 + 16);
+    int stateId = NEW_GAME_STATE;
+    int score = 0;
+    boolean secondBall = false;
+    int standing = ALL_PINS;
+    boolean blank = true;
+    boolean malformed = false;
+    for (int i = from; i < to; i++) {
+      byte b = buffer.get(i);
+      int code = CODES[b & 0xFF];
+      if (code >= SKIP) {
+        if (code == LINE_END) {
+          if (!blank) {
+            endGame(chunk, stateId, score, malformed, offsetBase + i);
+          }
+          chunk.lines++;
+          stateId = NEW_GAME_STATE;
+          score = 0;
+          secondBall = false;
+          standing = ALL_PINS;
+          blank = true;
+          malformed = false;
+        }
+        continue;
+      }
+      int noOfPins;
+      if (code == SPARE) {
+        noOfPins = secondBall ? standing : INVALID;
+      } else if (code == ALL_PINS) {
+        noOfPins = secondBall ? INVALID : ALL_PINS;
+      } else {
+        noOfPins = code;
+      }
+      blank = false;
+      if (malformed) {
+        continue; // Only the first problem of a line is reported
+      }
+      if (noOfPins == INVALID) {
+        chunk.malformed(offsetBase + i, "Unexpected character '" + (char) (b & 0xFF) + "'");
+        malformed = true;
+        continue;
+      }
+      int transition = TransitionTableBowling.transition(stateId, noOfPins);
+      if (transition < 0) {
+        String cause = TransitionTableBowling.rejected(transition, stateId, noOfPins).getMessage();
+        chunk.malformed(offsetBase + i, cause);
+        malformed = true;
+        continue;
+      }
+      stateId = TransitionTableBowling.nextState(transition);
+      score += TransitionTableBowling.scoreDelta(transition);
+      if (secondBall || noOfPins == ALL_PINS) {
+        secondBall = false;
+        standing = ALL_PINS;
+      } else {
+        secondBall = true;
+        standing = ALL_PINS - noOfPins;
+      }
+    }
+    if (!blank) { // Last line without a line feed
+      endGame(chunk, stateId, score, malformed, offsetBase + to);
+      chunk.lines++;
+    }
+    return chunk;
+  }
+
+  private static void endGame(Chunk chunk, int stateId, int score, boolean malformed, long offset) {
+    if (!malformed && !TransitionTableBowling.isOver(stateId)) {
+      chunk.malformed(offset, "Incomplete game");
+      malformed = true;
+    }
+    chunk.add(malformed ? MALFORMED : score);
+  }
+
+  private static int lastLineEnd(ByteBuffer region, int length, long regionStart) {
+    for (int i = length - 1; i >= 0; i--) {
+      if (region.get(i) == '\n') {
+        return i + 1;
+      }
+    }
+    throw new IllegalArgumentException(
+        "No line ends within " + length + " bytes of " + regionStart);
+  }
+
+  private static Result merge(List<Chunk> chunks) {
+    int games = chunks.stream().mapToInt(chunk -> chunk.games).sum();
+    int[] scores = new int[games];
+    List<MalformedLine> malformedLines = new ArrayList<>();
+    int game = 0;
+    long line = 1;
+    for (Chunk chunk : chunks) {
+      System.arraycopy(chunk.scores, 0, scores, game, chunk.games);
+      for (MalformedLine malformed : chunk.malformedLines) {
+        malformedLines.add(
+            MalformedLine.of(
+                line + malformed.getLine(),
+                game + malformed.getGame(),
+                malformed.getOffset(),
+                malformed.getMessage()));
+      }
+      game += chunk.games;
+      line += chunk.lines;
+    }
+    return new Result(scores, Collections.unmodifiableList(malformedLines), line - 1);
+  }
+
+  /** Games of a chunk, lines and games are counted from the start of the chunk */
+  private static final class Chunk {
+    int[] scores;
+    int games;
+    long lines;
+    final List<MalformedLine> malformedLines = new ArrayList<>();
+
+    Chunk(int expectedGames) {
+      scores = new int[expectedGames];
+    }
+
+    void add(int score) {
+      if (games == scores.length) {
+        scores = Arrays.copyOf(scores, scores.length * 2);
+      }
+      scores[games++] = score;
+    }
+
+    /** Called before the game is added */
+    void malformed(long offset, String message) {
+      malformedLines.add(MalformedLine.of(lines, games, offset, message));
+    }
+  }
+}
@@ -0,0 +1,220 @@
+package com.omnifix.demo;
+
+import static com.omnifix.demo.BowlingConstants.ALL_PINS;
+import static com.omnifix.demo.BowlingConstants.MULTIPLYER_IDENTITY;
+import static com.omnifix.demo.BowlingConstants.STARTING_ROLL_INDEX;
+
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Allocation free implementation of the multiplier algorithm from {@link BowlingAlgorithmHelper}
+ * where the whole game state is bit-packed into a single {@code long}.
+ *
+ * <p>The static functions can be used directly on a {@code long[]} holding many games - a zero word
+ * is a new game.
+ *
+ * @author George Bilchev
+ */
+
+// Bit layout of the state (the upper 40 bits are free for callers, e.g. a sequence number)
+//
+// bits  0-8 : Current score (0..300)
+// bits  9-13: Current roll index - 1 (T2, a STRIKE skips the second roll of its frame)
+// bits 14-15: Current bonus multiplier - 1 (T3)
+// bits 16-17: The next multiplier - 1 (T4)
+// bits 18-21: Pins knocked down by the previous roll of an unfinished rack, 0 for a fresh rack
+// bit     22: Frame 10 was a STRIKE or a SPARE, e.g., there are bonus rolls
+// bit     23: End of game
+//
+@NotThreadSafe
+public class PackedBowling implements Bowling {
+
+  public static final long NEW_GAME = 0L;
+
+  /** Mask of the bits used by the game state, the rest of the long is left to the caller */
+  public static final long STATE_MASK = (1L << 24) - 1;
+
+  /** The score is held in the lowest bits so that it can be stripped to key the scoring state */
+  public static final int SCORE_BITS = 9;
+
+  private static final int SCORE_SHIFT = 0;
+  private static final int ROLL_INDEX_SHIFT = 9;
+  private static final int CURRENT_MULTIPLIER_SHIFT = 14;
+  private static final int NEXT_MULTIPLIER_SHIFT = 16;
+  private static final int PREV_ROLL_VALUE_SHIFT = 18;
+
+  private static final long SCORE_MASK = 0x1FF;
+  private static final long ROLL_INDEX_MASK = 0x1F;
+  private static final long MULTIPLIER_MASK = 0x3;
+  private static final long PREV_ROLL_VALUE_MASK = 0xF;
+
+  private static final long LAST_FRAME_BONUS = 1L << 22;
+  private static final long GAME_OVER = 1L << 23;
+
+  private static final int LAST_FRAME_FIRST_ROLL = 19;
+  private static final int LAST_FRAME_SECOND_ROLL = 20;
+  private static final int LAST_BONUS_ROLL = 21;
+
+  private long state;
+
+  public PackedBowling() {
+    this(NEW_GAME);
+  }
+
+  /** Continues a game from a packed state */
+  public PackedBowling(long state) {
+    this.state = state;
+  }
+
+  /*
+   * Bowling Interface contract
+   */
+
+  @Override
+  public void roll(int noOfPins) {
+    state = roll(state, noOfPins);
+  }
+
+  @Override
+  public int score() {
+    return score(state);
+  }
+
+  public long getState() {
+    return state;
+  }
+
+  public boolean isOver() {
+    return isOver(state);
+  }
+
+  /** O(1) immutable copy of the game so far */
+  public GameSnapshot snapshot() {
+    return GameSnapshot.of(this);
+  }
+
+  /** Rewinds or forwards this game to a snapshot */
+  public void restore(GameSnapshot snapshot) {
+    state = snapshot.getState();
+  }
+
+  /*
+   * Packed state functions
+   */
+
+  /**
+   * Applies one roll to a packed game state. The upper caller bits are preserved.
+   *
+   * @param state
+   * @param noOfPins
+   * @return the new packed state
+   */
+  public static long roll(long state, int noOfPins) {
+    if ((state & GAME_OVER) != 0) {
+      throw new IllegalStateException("End of game! " + toString(state));
+    }
+    int prevRollValue = prevRollValue(state);
+    if (noOfPins < 0 || prevRollValue + noOfPins > ALL_PINS) {
+      throw new IllegalArgumentException(
+          "Invalid number of pins " + noOfPins + "! " + toString(state));
+    }
+
+    int rollIndex = rollIndex(state);
+    int firstRoll = rollIndex & 1; // First roll is odd
+    int rackCleared = prevRollValue + noOfPins == ALL_PINS ? 1 : 0;
+    int strike = firstRoll & rackCleared & (rollIndex < LAST_FRAME_FIRST_ROLL ? 1 : 0);
+    int spare = (firstRoll ^ 1) & rackCleared & (rollIndex < LAST_FRAME_SECOND_ROLL ? 1 : 0);
+
+    int score = score(state) + currentMultiplier(state) * noOfPins;
+    int nextIndex = rollIndex + 1 + strike; // Second roll of a STRIKE is skipped
+    // Left shift of the multiplier registry unless the last bonus roll is next
+    int shift = nextIndex <= LAST_FRAME_SECOND_ROLL ? 1 : 0;
+    int current = shift * (nextMultiplier(state) + (strike | spare) - 1);
+    int next = shift * strike;
+    int nextPrevRollValue =
+        (rackCleared | ((firstRoll ^ 1) & (rollIndex < LAST_FRAME_SECOND_ROLL ? 1 : 0))) == 1
+            ? 0
+            : prevRollValue + noOfPins;
+
+    long lastFrameBonus =
+        (state & LAST_FRAME_BONUS)
+            | (rollIndex >= LAST_FRAME_FIRST_ROLL && rackCleared == 1 ? LAST_FRAME_BONUS : 0);
+    long gameOver =
+        rollIndex == LAST_BONUS_ROLL || (rollIndex == LAST_FRAME_SECOND_ROLL && lastFrameBonus == 0)
+            ? GAME_OVER
+            : 0;
+
+    return (state & ~STATE_MASK)
+        | ((long) score << SCORE_SHIFT)
+        | ((long) (nextIndex - STARTING_ROLL_INDEX) << ROLL_INDEX_SHIFT)
+        | ((long) current << CURRENT_MULTIPLIER_SHIFT)
+        | ((long) next << NEXT_MULTIPLIER_SHIFT)
+        | ((long) nextPrevRollValue << PREV_ROLL_VALUE_SHIFT)
+        | lastFrameBonus
+        | gameOver;
+  }
+
+  public static int score(long state) {
+    return (int) ((state >>> SCORE_SHIFT) & SCORE_MASK);
+  }
+
+  public static long withScore(long state, int score) {
+    return (state & ~(SCORE_MASK << SCORE_SHIFT)) | ((long) score << SCORE_SHIFT);
+  }
+
+  /** Sets the multipliers (T3 and T4) of the next two rolls, e.g., after a correction */
+  public static long withMultipliers(long state, int currentMultiplier, int nextMultiplier) {
+    return (state
+            & ~(MULTIPLIER_MASK << CURRENT_MULTIPLIER_SHIFT)
+            & ~(MULTIPLIER_MASK << NEXT_MULTIPLIER_SHIFT))
+        | ((long) (currentMultiplier - MULTIPLYER_IDENTITY) << CURRENT_MULTIPLIER_SHIFT)
+        | ((long) (nextMultiplier - MULTIPLYER_IDENTITY) << NEXT_MULTIPLIER_SHIFT);
+  }
+
+  public static boolean isOver(long state) {
+    return (state & GAME_OVER) != 0;
+  }
+
+  /** Next roll index (T2), 1..21, a STRIKE in frames 1-9 skips the second roll */
+  public static int rollIndex(long state) {
+    return (int) ((state >>> ROLL_INDEX_SHIFT) & ROLL_INDEX_MASK) + STARTING_ROLL_INDEX;
+  }
+
+  /** Multiplier of the next roll (T3) */
+  public static int currentMultiplier(long state) {
+    return (int) ((state >>> CURRENT_MULTIPLIER_SHIFT) & MULTIPLIER_MASK) + MULTIPLYER_IDENTITY;
+  }
+
+  /** Multiplier of the roll after the next (T4) */
+  public static int nextMultiplier(long state) {
+    return (int) ((state >>> NEXT_MULTIPLIER_SHIFT) & MULTIPLIER_MASK) + MULTIPLYER_IDENTITY;
+  }
+
+  /** Pins already knocked down on the current rack, the next roll can knock the rest */
+  public static int prevRollValue(long state) {
+    return (int) ((state >>> PREV_ROLL_VALUE_SHIFT) & PREV_ROLL_VALUE_MASK);
+  }
+
+  public static String toString(long state) {
+    return "PackedBowling(score="
+        + score(state)
+        + ", rollIndex="
+        + rollIndex(state)
+        + ", currentMultiplier="
+        + currentMultiplier(state)
+        + ", nextMultiplier="
+        + nextMultiplier(state)
+        + ", prevRollValue="
+        + prevRollValue(state)
+        + ", lastFrameBonus="
+        + ((state & LAST_FRAME_BONUS) != 0)
+        + ", gameOver="
+        + isOver(state)
+        + ")";
+  }
+
+  @Override
+  public String toString() {
+    return toString(state);
+  }
+}
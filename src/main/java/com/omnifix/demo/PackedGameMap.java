@@ -0,0 +1,137 @@
+package com.omnifix.demo;
+
+import java.util.Arrays;
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Open addressed map of game ids to {@link PackedBowling} states held in two primitive arrays, so
+ * that a lookup or an update allocates nothing. Grows when it is half full, removals use backward
+ * shift deletion so there are no tombstones.
+ *
+ * @author George Bilchev
+ */
+@NotThreadSafe
+public final class PackedGameMap {
+
+  private static final int MIN_CAPACITY = 16;
+
+  private long[] gameIds;
+  private long[] states;
+  private int mask;
+  private int size;
+
+  public PackedGameMap() {
+    this(MIN_CAPACITY);
+  }
+
+  /** @param expectedGames number of games held without growing */
+  public PackedGameMap(int expectedGames) {
+    int tableSize = Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedGames) * 2 - 1) << 1;
+    allocate(tableSize);
+  }
+
+  /** @return the state of the game, {@link PackedBowling#NEW_GAME} for an unknown game */
+  public long get(long gameId) {
+    int slot = find(gameId);
+    return slot < 0 ? PackedBowling.NEW_GAME : states[slot];
+  }
+
+  public boolean contains(long gameId) {
+    return find(gameId) >= 0;
+  }
+
+  public void put(long gameId, long state) {
+    checkGameId(gameId);
+    int slot = hash(gameId) & mask;
+    while (gameIds[slot] != BowlingRegistry.NO_GAME) {
+      if (gameIds[slot] == gameId) {
+        states[slot] = state;
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+    gameIds[slot] = gameId;
+    states[slot] = state;
+    if (++size * 2 > mask + 1) {
+      rehash((mask + 1) * 2);
+    }
+  }
+
+  public boolean remove(long gameId) {
+    int slot = find(gameId);
+    if (slot < 0) {
+      return false;
+    }
+    // Shift back the following entries of the probe run into the hole
+    int hole = slot;
+    int next = (hole + 1) & mask;
+    while (gameIds[next] != BowlingRegistry.NO_GAME) {
+      int home = hash(gameIds[next]) & mask;
+      if (((next - home) & mask) >= ((next - hole) & mask)) {
+        gameIds[hole] = gameIds[next];
+        states[hole] = states[next];
+        hole = next;
+      }
+      next = (next + 1) & mask;
+    }
+    gameIds[hole] = BowlingRegistry.NO_GAME;
+    states[hole] = PackedBowling.NEW_GAME;
+    size--;
+    return true;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public void clear() {
+    Arrays.fill(gameIds, BowlingRegistry.NO_GAME);
+    Arrays.fill(states, PackedBowling.NEW_GAME);
+    size = 0;
+  }
+
+  /*
+   * Implementation details
+   */
+
+  private int find(long gameId) {
+    checkGameId(gameId);
+    int slot = hash(gameId) & mask;
+    while (gameIds[slot] != BowlingRegistry.NO_GAME) {
+      if (gameIds[slot] == gameId) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  private void rehash(int tableSize) {
+    long[] oldGameIds = gameIds;
+    long[] oldStates = states;
+    allocate(tableSize);
+    size = 0;
+    for (int slot = 0; slot < oldGameIds.length; slot++) {
+      if (oldGameIds[slot] != BowlingRegistry.NO_GAME) {
+        put(oldGameIds[slot], oldStates[slot]);
+      }
+    }
+  }
+
+  private void allocate(int tableSize) {
+    gameIds = new long[tableSize];
+    states = new long[tableSize];
+    mask = tableSize - 1;
+  }
+
+  private static void checkGameId(long gameId) {
+    if (gameId == BowlingRegistry.NO_GAME) {
+      throw new IllegalArgumentException("Game id 0 is reserved");
+    }
+  }
+
+  private static int hash(long gameId) {
+    long h = gameId * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+}
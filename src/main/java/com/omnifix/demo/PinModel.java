@@ -0,0 +1,104 @@
+package com.omnifix.demo;
+
+import static com.omnifix.demo.BowlingConstants.ALL_PINS;
+
+import java.util.Arrays;
+import net.jcip.annotations.Immutable;
+
+/**
+ * Probability model of a single roll: the probability of knocking down {@code pins} when {@code
+ * standing} pins are standing. Models are values, two models with the same probabilities are equal,
+ * so they can key a cache of results.
+ *
+ * @author George Bilchev
+ */
+@Immutable
+public final class PinModel {
+
+  private static final double TOLERANCE = 1e-9;
+
+  private final double[][] probabilities; // [standing][pins]
+
+  private PinModel(double[][] probabilities) {
+    this.probabilities = probabilities;
+  }
+
+  /**
+   * @param probabilities {@code probabilities[standing][pins]} for {@code 1 <= standing <= 10},
+   *     every row sums to 1, row 0 is ignored
+   */
+  public static PinModel of(double[][] probabilities) {
+    if (probabilities.length != ALL_PINS + 1) {
+      throw new IllegalArgumentException("Expected rows for 0 to " + ALL_PINS + " standing pins");
+    }
+    double[][] copy = new double[ALL_PINS + 1][];
+    copy[0] = new double[] {1};
+    for (int standing = 1; standing <= ALL_PINS; standing++) {
+      double[] row = probabilities[standing];
+      if (row.length != standing + 1) {
+        throw new IllegalArgumentException(
+            "Expected " + (standing + 1) + " probabilities for " + standing + " standing pins");
+      }
+      double sum = 0;
+      for (double probability : row) {
+        if (!(probability >= 0 && probability <= 1)) {
+          throw new IllegalArgumentException("Invalid probability " + probability);
+        }
+        sum += probability;
+      }
+      if (Math.abs(sum - 1) > TOLERANCE) {
+        throw new IllegalArgumentException(
+            "Probabilities for " + standing + " standing pins sum to " + sum);
+      }
+      copy[standing] = row.clone();
+    }
+    return new PinModel(copy);
+  }
+
+  /** Every number of the standing pins is equally likely */
+  public static PinModel uniform() {
+    double[][] probabilities = new double[ALL_PINS + 1][];
+    for (int standing = 0; standing <= ALL_PINS; standing++) {
+      probabilities[standing] = new double[standing + 1];
+      Arrays.fill(probabilities[standing], 1.0 / (standing + 1));
+    }
+    return of(probabilities);
+  }
+
+  /** Every standing pin falls independently with the given probability */
+  public static PinModel binomial(double pinProbability) {
+    double[][] probabilities = new double[ALL_PINS + 1][];
+    for (int standing = 0; standing <= ALL_PINS; standing++) {
+      probabilities[standing] = new double[standing + 1];
+      double combinations = 1;
+      for (int pins = 0; pins <= standing; pins++) {
+        probabilities[standing][pins] =
+            combinations
+                * Math.pow(pinProbability, pins)
+                * Math.pow(1 - pinProbability, standing - pins);
+        combinations = combinations * (standing - pins) / (pins + 1);
+      }
+    }
+    return of(probabilities);
+  }
+
+  public double probability(int standing, int pins) {
+    return pins < 0 || pins > standing ? 0 : probabilities[standing][pins];
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof PinModel
+        && Arrays.deepEquals(probabilities, ((PinModel) other).probabilities);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.deepHashCode(probabilities);
+  }
+
+  @Override
+  public String toString() {
+    return "PinModel(" + Arrays.toString(probabilities[ALL_PINS]) + ", ...)";
+  }
+}
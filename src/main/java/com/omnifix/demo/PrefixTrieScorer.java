@@ -0,0 +1,233 @@
+package com.omnifix.demo;
+
+import static com.omnifix.demo.BowlingConstants.ALL_PINS;
+
+import java.util.Arrays;
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Batch scorer that scores the rolls shared by many games only once.
+ *
+ * <p>Roll sequences are inserted into a trie keyed by the pins of every roll and each node caches
+ * the {@link PackedBowling} state (the scoring state and the score) after its prefix, so a game
+ * that shares a prefix with an earlier game only walks the cached nodes. The trie is held in
+ * primitive arrays with a fixed node budget. Nodes are kept in LRU order and a walk touches its
+ * path from the deepest node up, so a node is always more recent than its descendants and the least
+ * recently used node is a leaf; it is evicted to make room, which trims cold subtrees from the
+ * bottom.
+ *
+ * @author George Bilchev
+ */
+@NotThreadSafe
+public class PrefixTrieScorer {
+
+  public static final int MIN_NODES = 64;
+
+  private static final int PIN_COUNTS = ALL_PINS + 1;
+  private static final int ROOT = 0;
+  private static final int NONE = 0; // The root is nobody's child, nor in the LRU list
+
+  private final int maxNodes;
+  private final long[] states;
+  private final int[] children; // node * 11 + pins -> child node
+  private final int[] parents;
+  private final byte[] parentPins;
+  private final int[] lruPrevious;
+  private final int[] lruNext;
+  private int lruHead = NONE; // Most recently used
+  private int lruTail = NONE; // Least recently used
+
+  private int nodeCount = 1;
+  private final int[] path = new int[ScoreCard.MAX_ROLLS];
+
+  private long games;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  /** @param maxNodes memory budget in trie nodes, about 70 bytes each */
+  public PrefixTrieScorer(int maxNodes) {
+    if (maxNodes < MIN_NODES) {
+      throw new IllegalArgumentException("At least " + MIN_NODES + " nodes are needed");
+    }
+    this.maxNodes = maxNodes;
+    this.states = new long[maxNodes];
+    this.children = new int[maxNodes * PIN_COUNTS];
+    this.parents = new int[maxNodes];
+    this.parentPins = new byte[maxNodes];
+    this.lruPrevious = new int[maxNodes];
+    this.lruNext = new int[maxNodes];
+    this.states[ROOT] = PackedBowling.NEW_GAME;
+  }
+
+  /**
+   * Scores games laid out back to back like in {@link BulkScorer#scoreAll(int[], int[])}
+   *
+   * @throws IllegalArgumentException for a roll that breaks the rules
+   */
+  public int[] scoreAll(int[] rolls, int[] gameOffsets) {
+    int[] scores = new int[gameOffsets.length];
+    for (int game = 0; game < gameOffsets.length; game++) {
+      int end = game + 1 < gameOffsets.length ? gameOffsets[game + 1] : rolls.length;
+      scores[game] = score(rolls, gameOffsets[game], end, game);
+    }
+    return scores;
+  }
+
+  public int[] scoreAll(int[][] games) {
+    int[] scores = new int[games.length];
+    for (int game = 0; game < games.length; game++) {
+      scores[game] = score(games[game], 0, games[game].length, game);
+    }
+    return scores;
+  }
+
+  /*
+   * Metrics
+   */
+
+  /** Share of the rolls that were found in the trie */
+  public double getHitRatio() {
+    return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+  }
+
+  /** New nodes created per scored game, e.g., the rolls that were actually scored */
+  public double getNodesPerGame() {
+    return games == 0 ? 0 : (double) misses / games;
+  }
+
+  public long getGames() {
+    return games;
+  }
+
+  public long getHits() {
+    return hits;
+  }
+
+  public long getMisses() {
+    return misses;
+  }
+
+  public long getEvictions() {
+    return evictions;
+  }
+
+  /** Nodes in the trie, the root included */
+  public int getNodeCount() {
+    return nodeCount;
+  }
+
+  public int getMaxNodes() {
+    return maxNodes;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "PrefixTrieScorer(games=%d, hitRatio=%.3f, nodesPerGame=%.2f, nodes=%d/%d, evictions=%d)",
+        games, getHitRatio(), getNodesPerGame(), nodeCount, maxNodes, evictions);
+  }
+
+  /*
+   * Implementation details
+   */
+
+  private int score(int[] rolls, int from, int to, int game) {
+    int node = ROOT;
+    int depth = 0;
+    try {
+      for (int i = from; i < to; i++) {
+        int noOfPins = rolls[i];
+        int child =
+            noOfPins < 0 || noOfPins > ALL_PINS ? NONE : children[node * PIN_COUNTS + noOfPins];
+        if (child == NONE) {
+          long state;
+          try {
+            state = PackedBowling.roll(states[node], noOfPins);
+          } catch (RuntimeException e) {
+            throw rejected(game, i, e);
+          }
+          child = allocate(node, noOfPins, state);
+          misses++;
+        } else {
+          hits++;
+        }
+        touch(child); // Keeps the path away from eviction while it is walked
+        path[depth++] = child;
+        node = child;
+      }
+    } finally {
+      // Ancestors end up more recent than descendants, so the LRU node is a leaf, also when a roll
+      // of the game is rejected half way
+      for (int d = depth - 1; d >= 0; d--) {
+        touch(path[d]);
+      }
+    }
+    games++;
+    return PackedBowling.score(states[node]);
+  }
+
+  private int allocate(int parent, int noOfPins, long state) {
+    int node = nodeCount < maxNodes ? nodeCount : evict();
+    nodeCount++;
+    states[node] = state;
+    parents[node] = parent;
+    parentPins[node] = (byte) noOfPins;
+    children[parent * PIN_COUNTS + noOfPins] = node;
+    lruPrevious[node] = NONE;
+    lruNext[node] = NONE;
+    return node;
+  }
+
+  /** Frees the least recently used node, it has no children */
+  private int evict() {
+    int node = lruTail;
+    unlink(node);
+    children[parents[node] * PIN_COUNTS + parentPins[node]] = NONE;
+    // A leaf has no children, cleared anyway so that a reused node can never lead to stale states
+    Arrays.fill(children, node * PIN_COUNTS, (node + 1) * PIN_COUNTS, NONE);
+    nodeCount--;
+    evictions++;
+    return node;
+  }
+
+  private void touch(int node) {
+    if (lruHead == node) {
+      return;
+    }
+    if (lruPrevious[node] != NONE || lruTail == node) {
+      unlink(node);
+    }
+    lruNext[node] = lruHead;
+    lruPrevious[node] = NONE;
+    if (lruHead != NONE) {
+      lruPrevious[lruHead] = node;
+    }
+    lruHead = node;
+    if (lruTail == NONE) {
+      lruTail = node;
+    }
+  }
+
+  private void unlink(int node) {
+    int previous = lruPrevious[node];
+    int next = lruNext[node];
+    if (previous != NONE) {
+      lruNext[previous] = next;
+    } else {
+      lruHead = next;
+    }
+    if (next != NONE) {
+      lruPrevious[next] = previous;
+    } else {
+      lruTail = previous;
+    }
+    lruPrevious[node] = NONE;
+    lruNext[node] = NONE;
+  }
+
+  private static IllegalArgumentException rejected(int game, int offset, RuntimeException cause) {
+    return new IllegalArgumentException(
+        "Game " + game + " at roll offset " + offset + ": " + cause.getMessage(), cause);
+  }
+}
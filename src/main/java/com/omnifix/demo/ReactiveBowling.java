@@ -11,6 +11,10 @@ public class ReactiveBowling {
    * @return A stream of current score (no "X" and "/" allowed)
    */
   public Flux<Integer> play(Flux<Integer> pinsStream) {
+    return FlightEvents.backpressure("ReactiveBowling", score(pinsStream));
+  }
+
+  private Flux<Integer> score(Flux<Integer> pinsStream) {
     return pinsStream
         .flatMap(
             noOfPins ->
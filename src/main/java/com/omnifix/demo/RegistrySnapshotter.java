@@ -0,0 +1,258 @@
+package com.omnifix.demo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Periodic snapshots of the live games of a {@link BowlingRegistry}, so that recovery replays only
+ * the tail of the {@link RollJournal} after the latest snapshot.
+ *
+ * <p>A snapshot does not stop the rolls. The journal position is taken first and then every state
+ * word is read atomically while games keep changing, so the snapshot holds every change journalled
+ * before the position and possibly some after it. Replaying the tail from the position is still
+ * exact because the journal skips the changes a state word already has by their sequence.
+ *
+ * <p>A snapshot file is a header (magic, journal position, number of games) followed by a game id
+ * and a state word per game. It is written to a temporary file, forced and then renamed, so a crash
+ * never leaves a partial snapshot behind. The last {@link #KEEP_SNAPSHOTS} snapshots are kept and
+ * the journal segments before the oldest of them are deleted.
+ *
+ * @author George Bilchev
+ */
+@Slf4j
+@ThreadSafe
+public class RegistrySnapshotter implements Closeable {
+
+  public static final int KEEP_SNAPSHOTS = 2;
+
+  private static final long MAGIC = 0x424F574C534E4150L; // "BOWLSNAP"
+  private static final int HEADER_SIZE = 24;
+  private static final int ENTRY_SIZE = 16;
+  private static final int BUFFER_SIZE = 1 << 20;
+
+  private static final String SNAPSHOT_PREFIX = "snapshot-";
+  private static final String SNAPSHOT_SUFFIX = ".snap";
+
+  private final BowlingRegistry registry;
+  private final RollJournal journal;
+  private final Path directory;
+  private final ScheduledExecutorService scheduler;
+
+  /**
+   * Starts taking a snapshot every interval
+   *
+   * @param registry
+   * @param journal the journal of the registry changes
+   * @param directory where the snapshots are written
+   * @param intervalMillis
+   */
+  public RegistrySnapshotter(
+      BowlingRegistry registry, RollJournal journal, Path directory, long intervalMillis)
+      throws IOException {
+    this.registry = registry;
+    this.journal = journal;
+    this.directory = directory;
+    Files.createDirectories(directory);
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            task -> {
+              Thread thread = new Thread(task, "registry-snapshotter");
+              thread.setDaemon(true);
+              return thread;
+            });
+    scheduler.scheduleWithFixedDelay(
+        this::snapshotQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Takes a snapshot now, drops the old snapshots and the journal segments they no longer need
+   *
+   * @return the snapshot file
+   */
+  public synchronized Path snapshot() throws IOException {
+    Path file = write(registry, journal, directory);
+    List<Path> snapshots = snapshots(directory);
+    for (int i = 0; i < snapshots.size() - KEEP_SNAPSHOTS; i++) {
+      Files.delete(snapshots.get(i));
+    }
+    if (snapshots.size() >= KEEP_SNAPSHOTS) {
+      journal.truncateBefore(position(snapshots.get(snapshots.size() - KEEP_SNAPSHOTS)));
+    }
+    return file;
+  }
+
+  @Override
+  public void close() {
+    scheduler.shutdown();
+    try {
+      scheduler.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void snapshotQuietly() {
+    try {
+      long start = System.nanoTime();
+      Path file = snapshot();
+      log.debug("Wrote {} in {} ms", file, (System.nanoTime() - start) / 1_000_000);
+    } catch (IOException | RuntimeException e) {
+      log.warn("Registry snapshot failed", e);
+    }
+  }
+
+  /*
+   * Snapshot files
+   */
+
+  /**
+   * Writes a snapshot of the registry covering the journal up to its current position
+   *
+   * @return the snapshot file
+   */
+  public static Path write(BowlingRegistry registry, RollJournal journal, Path directory)
+      throws IOException {
+    long position = journal.position();
+    Path file = directory.resolve(snapshotName(position));
+    Path temporary = directory.resolve(snapshotName(position) + ".tmp");
+    try (FileChannel channel =
+        FileChannel.open(
+            temporary,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE)) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.nativeOrder());
+      buffer.position(HEADER_SIZE);
+      long[] count = new long[1];
+      registry.forEach(
+          (gameId, state) -> {
+            if (buffer.remaining() < ENTRY_SIZE) {
+              drain(channel, buffer);
+            }
+            buffer.putLong(gameId).putLong(state);
+            count[0]++;
+          });
+      drain(channel, buffer);
+      buffer.putLong(MAGIC).putLong(position).putLong(count[0]).flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer, buffer.position()); // The header is at the start of the file
+      }
+      channel.force(true);
+    }
+    Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+    return file;
+  }
+
+  /**
+   * Loads a snapshot into a registry
+   *
+   * @return the journal position to replay the tail from
+   */
+  public static long load(Path file, BowlingRegistry registry) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.nativeOrder());
+      buffer.limit(HEADER_SIZE);
+      readFully(channel, buffer);
+      if (buffer.getLong() != MAGIC) {
+        throw new IOException("Not a registry snapshot " + file);
+      }
+      long position = buffer.getLong();
+      long count = buffer.getLong();
+      if (channel.size() != HEADER_SIZE + count * ENTRY_SIZE) {
+        throw new IOException("Snapshot " + file + " should have " + count + " games");
+      }
+      buffer.limit(0);
+      for (long loaded = 0; loaded < count; loaded++) {
+        if (!buffer.hasRemaining()) {
+          buffer.clear();
+          buffer.limit((int) Math.min(BUFFER_SIZE, (count - loaded) * ENTRY_SIZE));
+          readFully(channel, buffer);
+        }
+        registry.restore(buffer.getLong(), buffer.getLong());
+      }
+      return position;
+    }
+  }
+
+  /**
+   * Rebuilds the registry from the latest snapshot, if any, and the journal after it
+   *
+   * @return the position after the last valid journal record
+   */
+  public static long recover(
+      Path snapshotDirectory, Path journalDirectory, int segmentSize, BowlingRegistry registry)
+      throws IOException {
+    List<Path> snapshots = snapshots(snapshotDirectory);
+    long position = 0;
+    if (!snapshots.isEmpty()) {
+      position = load(snapshots.get(snapshots.size() - 1), registry);
+    }
+    return RollJournal.recover(journalDirectory, segmentSize, position, registry);
+  }
+
+  public static long recover(
+      Path snapshotDirectory, Path journalDirectory, BowlingRegistry registry) throws IOException {
+    return recover(snapshotDirectory, journalDirectory, RollJournal.DEFAULT_SEGMENT_SIZE, registry);
+  }
+
+  /** Snapshot files, oldest first */
+  static List<Path> snapshots(Path directory) throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return List.of();
+    }
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+          .filter(path -> path.getFileName().toString().startsWith(SNAPSHOT_PREFIX))
+          .filter(path -> path.getFileName().toString().endsWith(SNAPSHOT_SUFFIX))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  private static String snapshotName(long position) {
+    return String.format("%s%020d%s", SNAPSHOT_PREFIX, position, SNAPSHOT_SUFFIX);
+  }
+
+  private static long position(Path snapshot) {
+    String name = snapshot.getFileName().toString();
+    return Long.parseLong(
+        name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+  }
+
+  private static void drain(FileChannel channel, ByteBuffer buffer) {
+    buffer.flip();
+    try {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    buffer.clear();
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer) < 0) {
+        throw new IOException("Unexpected end of snapshot");
+      }
+    }
+    buffer.flip();
+  }
+}
@@ -0,0 +1,152 @@
+package com.omnifix.demo;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import lombok.extern.slf4j.Slf4j;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Preallocated multi producer, single consumer ring buffer of roll events.
+ *
+ * <p>Events are stored as primitives in parallel arrays, so publishing allocates nothing. A
+ * producer claims a sequence with a CAS, writes the slot and then publishes the sequence in the
+ * slot; the consumer thread delivers the slots in sequence order to the sinks. When the consumer
+ * falls a full ring behind the event is dropped (and counted) rather than blocking the roll.
+ */
+@Slf4j
+@ThreadSafe
+public class RollEventRingBuffer {
+
+  private static final int SPIN_TRIES = 100;
+  private static final long PARK_NANOS = 50_000;
+
+  private final int capacity;
+  private final int mask;
+  private final long[] gameIds;
+  private final int[] fromStates;
+  private final int[] toStates;
+  private final int[] pins;
+  private final int[] scores;
+  private final BonusKind[] bonuses;
+  private final AtomicLongArray published;
+
+  private final AtomicLong claimed = new AtomicLong();
+  private final AtomicLong consumed = new AtomicLong();
+  private final LongAdder dropped = new LongAdder();
+
+  private final RollEventSink[] sinks;
+  private final Thread consumer;
+  private volatile boolean running;
+
+  public RollEventRingBuffer(int capacity, RollEventSink... sinks) {
+    if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+    }
+    this.capacity = capacity;
+    this.mask = capacity - 1;
+    this.gameIds = new long[capacity];
+    this.fromStates = new int[capacity];
+    this.toStates = new int[capacity];
+    this.pins = new int[capacity];
+    this.scores = new int[capacity];
+    this.bonuses = new BonusKind[capacity];
+    this.published = new AtomicLongArray(capacity);
+    for (int slot = 0; slot < capacity; slot++) {
+      published.set(slot, -1);
+    }
+    this.sinks = sinks.clone();
+    this.consumer = new Thread(this::consume, "roll-events");
+    this.consumer.setDaemon(true);
+  }
+
+  /**
+   * Publishes one roll event
+   *
+   * @return false if the event was dropped because the ring is full or stopped
+   */
+  public boolean publish(
+      long gameId, int fromState, int toState, int noOfPins, int score, BonusKind bonus) {
+    if (!running) { // Raced with RollEvents.detach()
+      dropped.increment();
+      return false;
+    }
+    long sequence;
+    do {
+      sequence = claimed.get();
+      if (sequence - consumed.get() >= capacity) {
+        dropped.increment();
+        return false;
+      }
+    } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+    int slot = (int) sequence & mask;
+    gameIds[slot] = gameId;
+    fromStates[slot] = fromState;
+    toStates[slot] = toState;
+    pins[slot] = noOfPins;
+    scores[slot] = score;
+    bonuses[slot] = bonus;
+    published.lazySet(slot, sequence);
+    return true;
+  }
+
+  /** @return number of events dropped because the consumer was a full ring behind or stopped */
+  public long getDropped() {
+    return dropped.sum();
+  }
+
+  void start() {
+    running = true;
+    consumer.start();
+  }
+
+  /** Stops the consumer once every claimed event has been delivered */
+  void stop() {
+    running = false;
+    LockSupport.unpark(consumer);
+    try {
+      consumer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /*
+   * Consumer thread
+   */
+
+  private void consume() {
+    long next = 0;
+    int idle = 0;
+    while (running || next < claimed.get()) {
+      int slot = (int) next & mask;
+      if (published.get(slot) == next) {
+        deliver(slot);
+        consumed.lazySet(++next);
+        idle = 0;
+      } else if (++idle < SPIN_TRIES) {
+        Thread.onSpinWait();
+      } else {
+        LockSupport.parkNanos(PARK_NANOS);
+      }
+    }
+  }
+
+  private void deliver(int slot) {
+    for (RollEventSink sink : sinks) {
+      try {
+        sink.onRoll(
+            gameIds[slot],
+            fromStates[slot],
+            toStates[slot],
+            pins[slot],
+            scores[slot],
+            bonuses[slot]);
+      } catch (RuntimeException e) {
+        log.warn("Roll event sink {} failed", sink, e);
+      }
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package com.omnifix.demo;
+
+/**
+ * Receives structured roll events on the background consumer thread of {@link RollEvents}.
+ *
+ * <p>States are encoded by {@link RollEvents#stateCode(GameStateHelper)}, a sink that needs text
+ * can use {@link RollEvents#format(int, int, int, int, BonusKind)}.
+ */
+@FunctionalInterface
+public interface RollEventSink {
+
+  void onRoll(long gameId, int fromState, int toState, int noOfPins, int score, BonusKind bonus);
+}
@@ -0,0 +1,97 @@
+package com.omnifix.demo;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Entry point of the structured roll events published by {@link GameStateHelper#roll(int)}.
+ *
+ * <p>While no sink is attached {@link #publisher()} returns null and the roll skips building the
+ * event. Attaching sinks starts a {@link RollEventRingBuffer} whose background consumer hands the
+ * events to the sinks, so any formatting happens off the roll path.
+ */
+@ThreadSafe
+public final class RollEvents {
+
+  public static final int DEFAULT_CAPACITY = 1 << 16;
+
+  private static final int INDEX_BITS = 8;
+  private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+  private static final GameStateMachine[] STATES = GameStateMachine.values();
+
+  private static volatile RollEventRingBuffer publisher;
+
+  private RollEvents() {}
+
+  /** @return the ring buffer to publish to, or null when no sink is attached */
+  public static RollEventRingBuffer publisher() {
+    return publisher;
+  }
+
+  public static synchronized void attach(RollEventSink... sinks) {
+    attach(DEFAULT_CAPACITY, sinks);
+  }
+
+  /**
+   * Replaces the attached sinks (if any) with the given ones
+   *
+   * @param capacity ring buffer size, a power of two
+   * @param sinks
+   */
+  public static synchronized void attach(int capacity, RollEventSink... sinks) {
+    detach();
+    RollEventRingBuffer ringBuffer = new RollEventRingBuffer(capacity, sinks);
+    ringBuffer.start();
+    publisher = ringBuffer;
+  }
+
+  /**
+   * Stops publishing, the events already published are delivered before this returns. A roll that
+   * read the publisher just before the swap can still publish to the stopped ring: its event is
+   * lost, and counted in {@link RollEventRingBuffer#getDropped()} unless it got in as the consumer
+   * exited.
+   */
+  public static synchronized void detach() {
+    RollEventRingBuffer ringBuffer = publisher;
+    publisher = null;
+    if (ringBuffer != null) {
+      ringBuffer.stop();
+    }
+  }
+
+  /*
+   * State encoding: GameStateMachine ordinal and the frame (or the bonus roll for BONUS_GO)
+   */
+
+  public static int stateCode(GameStateHelper stateProxy) {
+    GameStateMachine state = GameStateMachine.calculateState(stateProxy);
+    int index =
+        GameStateMachine.BONUS_GO.equals(state)
+            ? stateProxy.getNextRoll()
+            : stateProxy.getNextFrame();
+    return state.ordinal() << INDEX_BITS | index;
+  }
+
+  public static GameStateMachine state(int stateCode) {
+    return STATES[stateCode >>> INDEX_BITS];
+  }
+
+  public static int index(int stateCode) {
+    return stateCode & INDEX_MASK;
+  }
+
+  /** Same text as {@link GameStateMachine#getStateStr(GameStateHelper)} */
+  public static String stateStr(int stateCode) {
+    return state(stateCode) + "[" + index(stateCode) + "]";
+  }
+
+  public static String format(
+      int fromState, int toState, int noOfPins, int score, BonusKind bonus) {
+    return String.format(
+        "%-15s ->    %-15s   ROLL: %2d ==> SCORE: %3d   %-10s",
+        stateStr(fromState),
+        stateStr(toState),
+        noOfPins,
+        score,
+        bonus == BonusKind.NONE ? "" : bonus.name());
+  }
+}
@@ -0,0 +1,438 @@
+package com.omnifix.demo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Append only journal of the changes made to a {@link BowlingRegistry}, kept in memory mapped
+ * segment files so that live games survive a JVM restart.
+ *
+ * <p>Every change is a fixed width record and the position of a record is its index in the journal.
+ * Appends only write to the mapped segment; a background flusher forces the written records to disk
+ * every flush interval (group commit) and {@link #awaitDurable(long)} lets a caller wait for its
+ * record. Recovery replays the records through the registry using the per game sequence numbers, so
+ * a record is applied exactly once and in order even if appends of the same game from two threads
+ * were reordered.
+ *
+ * @author George Bilchev
+ */
+@Slf4j
+@ThreadSafe
+public class RollJournal implements Closeable {
+
+  public static final byte ROLL = 1;
+  public static final byte COMPLETE = 2;
+  public static final byte NEW_GAME = 3;
+
+  /** Record: game id (8), sequence (3) and type (1), pins (2), checksum (2) */
+  public static final int RECORD_SIZE = 16;
+
+  public static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+  public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 2;
+
+  private static final String SEGMENT_PREFIX = "roll-journal-";
+  private static final String SEGMENT_SUFFIX = ".seg";
+
+  private final Path directory;
+  private final int recordsPerSegment;
+  private final long flushIntervalMillis;
+  private final Thread flusher;
+
+  // Guarded by this
+  private MappedByteBuffer segment;
+  private long segmentIndex;
+  private final List<MappedByteBuffer> unflushedSegments = new ArrayList<>();
+  private long nextPosition;
+  private long flushedPosition;
+  private boolean closed;
+  private boolean finalFlushDone; // After the close, nothing becomes durable any more
+
+  private RollJournal(Path directory, int segmentSize, long flushIntervalMillis)
+      throws IOException {
+    if (segmentSize <= 0 || segmentSize % RECORD_SIZE != 0) {
+      throw new IllegalArgumentException("Segment size must be a multiple of " + RECORD_SIZE);
+    }
+    this.directory = directory;
+    this.recordsPerSegment = segmentSize / RECORD_SIZE;
+    this.flushIntervalMillis = flushIntervalMillis;
+    Files.createDirectories(directory);
+    this.nextPosition = findEnd(directory, recordsPerSegment);
+    this.flushedPosition = nextPosition;
+    this.segmentIndex = segmentIndex(nextPosition);
+    this.segment = map(segmentIndex);
+    this.flusher = new Thread(this::flushLoop, "roll-journal-flusher");
+    this.flusher.setDaemon(true);
+    this.flusher.start();
+  }
+
+  /** Opens (or creates) a journal, appends continue after the last valid record */
+  public static RollJournal open(Path directory) throws IOException {
+    return open(directory, DEFAULT_SEGMENT_SIZE, DEFAULT_FLUSH_INTERVAL_MILLIS);
+  }
+
+  public static RollJournal open(Path directory, int segmentSize, long flushIntervalMillis)
+      throws IOException {
+    return new RollJournal(directory, segmentSize, flushIntervalMillis);
+  }
+
+  /*
+   * Appending
+   */
+
+  public long appendRoll(long gameId, long state, int noOfPins) {
+    return append(gameId, BowlingRegistry.sequence(state), ROLL, noOfPins);
+  }
+
+  public long appendComplete(long gameId, long state) {
+    return append(gameId, BowlingRegistry.sequence(state), COMPLETE, 0);
+  }
+
+  public long appendNewGame(long gameId, long state) {
+    return append(gameId, BowlingRegistry.sequence(state), NEW_GAME, 0);
+  }
+
+  /**
+   * Appends one record
+   *
+   * @return the position of the record
+   */
+  public synchronized long append(long gameId, int sequence, byte type, int noOfPins) {
+    if (closed) {
+      throw new IllegalStateException("Journal is closed");
+    }
+    long position = nextPosition;
+    int offset = (int) (position % recordsPerSegment);
+    if (segmentIndex(position) != segmentIndex) {
+      unflushedSegments.add(segment);
+      segmentIndex = segmentIndex(position);
+      segment = map(segmentIndex);
+    }
+    int index = offset * RECORD_SIZE;
+    int sequenceAndType = sequence << 8 | type;
+    segment.putLong(index, gameId);
+    segment.putInt(index + 8, sequenceAndType);
+    segment.putShort(index + 12, (short) noOfPins);
+    segment.putShort(index + 14, checksum(gameId, sequenceAndType, noOfPins));
+    nextPosition = position + 1;
+    return position;
+  }
+
+  /** Position the next record will be appended at, e.g., the end of a snapshot */
+  public synchronized long position() {
+    return nextPosition;
+  }
+
+  /**
+   * Blocks until the record at a position has been forced to disk, a close in the meantime forces
+   * it before returning
+   *
+   * @param position
+   * @throws IllegalStateException if the journal was closed before the record was forced
+   */
+  public synchronized void awaitDurable(long position) throws InterruptedException {
+    while (flushedPosition <= position) {
+      if (finalFlushDone) {
+        throw new IllegalStateException("Journal closed before " + position + " was durable");
+      }
+      notifyAll(); // Wake the flusher up early for a waiting appender
+      wait();
+    }
+  }
+
+  /**
+   * Deletes the segments that only hold records before a position, e.g., the position of the oldest
+   * snapshot that is kept
+   *
+   * @param position
+   * @return number of deleted segments
+   */
+  public synchronized int truncateBefore(long position) throws IOException {
+    int deleted = 0;
+    for (Map.Entry<Long, Path> entry : segments(directory).entrySet()) {
+      if (entry.getKey() >= segmentIndex(position) || entry.getKey() >= segmentIndex) {
+        break;
+      }
+      Files.delete(entry.getValue());
+      deleted++;
+    }
+    return deleted;
+  }
+
+  @Override
+  public void close() {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      notifyAll();
+    }
+    try {
+      flusher.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    try {
+      flush();
+    } finally {
+      synchronized (this) {
+        finalFlushDone = true;
+        notifyAll();
+      }
+    }
+  }
+
+  /*
+   * Group commit
+   */
+
+  private void flushLoop() {
+    while (true) {
+      synchronized (this) {
+        if (closed) {
+          return;
+        }
+        if (flushedPosition == nextPosition) {
+          try {
+            wait(flushIntervalMillis);
+          } catch (InterruptedException e) {
+            return;
+          }
+        }
+      }
+      flush();
+    }
+  }
+
+  private void flush() {
+    MappedByteBuffer current;
+    List<MappedByteBuffer> previous;
+    long position;
+    synchronized (this) {
+      if (flushedPosition == nextPosition) {
+        return;
+      }
+      current = segment;
+      previous = new ArrayList<>(unflushedSegments);
+      unflushedSegments.clear();
+      position = nextPosition;
+    }
+    // Forcing outside the lock keeps appends going during the disk write
+    previous.forEach(MappedByteBuffer::force);
+    current.force();
+    synchronized (this) {
+      flushedPosition = Math.max(flushedPosition, position);
+      notifyAll();
+    }
+  }
+
+  /*
+   * Recovery
+   */
+
+  @FunctionalInterface
+  public interface RecordVisitor {
+    void visit(long position, long gameId, int sequence, byte type, int noOfPins);
+  }
+
+  /**
+   * Reads the journal from a position up to the first missing or torn record
+   *
+   * @return the position after the last valid record
+   */
+  public static long replay(Path directory, long fromPosition, RecordVisitor visitor)
+      throws IOException {
+    return replay(directory, DEFAULT_SEGMENT_SIZE, fromPosition, visitor);
+  }
+
+  public static long replay(
+      Path directory, int segmentSize, long fromPosition, RecordVisitor visitor)
+      throws IOException {
+    int recordsPerSegment = segmentSize / RECORD_SIZE;
+    long position = fromPosition;
+    for (Map.Entry<Long, Path> entry : segments(directory).entrySet()) {
+      long segmentIndex = entry.getKey();
+      if ((segmentIndex + 1) * recordsPerSegment <= position) {
+        continue;
+      }
+      if (segmentIndex * recordsPerSegment > position) {
+        break; // Missing segment
+      }
+      MappedByteBuffer buffer = mapReadOnly(entry.getValue());
+      int records = Math.min(recordsPerSegment, buffer.capacity() / RECORD_SIZE);
+      for (int offset = (int) (position - segmentIndex * recordsPerSegment);
+          offset < records;
+          offset++) {
+        int index = offset * RECORD_SIZE;
+        long gameId = buffer.getLong(index);
+        int sequenceAndType = buffer.getInt(index + 8);
+        int noOfPins = buffer.getShort(index + 12);
+        if (gameId == BowlingRegistry.NO_GAME
+            || buffer.getShort(index + 14) != checksum(gameId, sequenceAndType, noOfPins)) {
+          return position;
+        }
+        visitor.visit(position, gameId, sequenceAndType >>> 8, (byte) sequenceAndType, noOfPins);
+        position++;
+      }
+      if (records < recordsPerSegment) {
+        break;
+      }
+    }
+    return position;
+  }
+
+  /**
+   * Rebuilds the live games by replaying the journal through a registry. Records already reflected
+   * in the registry (e.g., loaded from a snapshot) are skipped by their sequence.
+   *
+   * @return the position after the last valid record
+   */
+  public static long recover(Path directory, long fromPosition, BowlingRegistry registry)
+      throws IOException {
+    return recover(directory, DEFAULT_SEGMENT_SIZE, fromPosition, registry);
+  }
+
+  public static long recover(
+      Path directory, int segmentSize, long fromPosition, BowlingRegistry registry)
+      throws IOException {
+    // Records that arrived ahead of their sequence: gameId -> sequence -> type << 16 | pins
+    Map<Long, TreeMap<Integer, Integer>> pending = new HashMap<>();
+    long end =
+        replay(
+            directory,
+            segmentSize,
+            fromPosition,
+            (position, gameId, sequence, type, noOfPins) -> {
+              int applied = sequence(registry, gameId);
+              if (sequence <= applied) {
+                return; // Already applied
+              }
+              if (sequence > applied + 1) {
+                pending
+                    .computeIfAbsent(gameId, id -> new TreeMap<>())
+                    .put(sequence, type << 16 | noOfPins);
+                return;
+              }
+              apply(registry, gameId, type, noOfPins);
+              TreeMap<Integer, Integer> ahead = pending.get(gameId);
+              while (ahead != null && !ahead.isEmpty() && ahead.firstKey() == sequence + 1) {
+                int record = ahead.pollFirstEntry().getValue();
+                apply(registry, gameId, (byte) (record >>> 16), record & 0xFFFF);
+                sequence++;
+              }
+              if (ahead != null && ahead.isEmpty()) {
+                pending.remove(gameId);
+              }
+            });
+    pending.forEach(
+        (gameId, ahead) ->
+            log.warn("Game {} has records after a gap, sequences {}", gameId, ahead.keySet()));
+    return end;
+  }
+
+  private static int sequence(BowlingRegistry registry, long gameId) {
+    return registry.contains(gameId) ? BowlingRegistry.sequence(registry.state(gameId)) : 0;
+  }
+
+  private static void apply(BowlingRegistry registry, long gameId, byte type, int noOfPins) {
+    switch (type) {
+      case ROLL:
+        registry.roll(gameId, noOfPins);
+        break;
+      case COMPLETE:
+        registry.complete(gameId);
+        break;
+      case NEW_GAME:
+        registry.newGame(gameId);
+        break;
+      default:
+        throw new IllegalStateException("Unknown journal record type " + type);
+    }
+  }
+
+  /*
+   * Segment files
+   */
+
+  private long segmentIndex(long position) {
+    return position / recordsPerSegment;
+  }
+
+  private MappedByteBuffer map(long segmentIndex) {
+    Path path = directory.resolve(segmentName(segmentIndex));
+    try (FileChannel channel =
+        FileChannel.open(
+            path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      MappedByteBuffer buffer =
+          channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE);
+      buffer.order(ByteOrder.nativeOrder());
+      return buffer;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot map journal segment " + path, e);
+    }
+  }
+
+  private static MappedByteBuffer mapReadOnly(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      buffer.order(ByteOrder.nativeOrder());
+      return buffer;
+    }
+  }
+
+  private static long findEnd(Path directory, int recordsPerSegment) throws IOException {
+    TreeMap<Long, Path> segments = segments(directory);
+    long start = segments.isEmpty() ? 0 : segments.firstKey() * recordsPerSegment;
+    return replay(
+        directory,
+        recordsPerSegment * RECORD_SIZE,
+        start,
+        (position, gameId, sequence, type, pins) -> {});
+  }
+
+  private static TreeMap<Long, Path> segments(Path directory) throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return new TreeMap<>();
+    }
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+          .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+          .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+          .collect(
+              Collectors.toMap(
+                  RollJournal::segmentIndexOf, path -> path, (a, b) -> a, TreeMap::new));
+    }
+  }
+
+  private static String segmentName(long segmentIndex) {
+    return String.format("%s%012d%s", SEGMENT_PREFIX, segmentIndex, SEGMENT_SUFFIX);
+  }
+
+  private static long segmentIndexOf(Path path) {
+    String name = path.getFileName().toString();
+    return Long.parseLong(
+        name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+  }
+
+  /** Never zero, so a zero filled (never written) record is not valid */
+  private static short checksum(long gameId, int sequenceAndType, int noOfPins) {
+    long h = (gameId ^ ((long) sequenceAndType << 20) ^ noOfPins) * 0x9E3779B97F4A7C15L;
+    return (short) ((h >>> 48) | 0x8000);
+  }
+}
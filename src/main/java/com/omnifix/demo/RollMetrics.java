@@ -0,0 +1,333 @@
+package com.omnifix.demo;
+
+import static com.omnifix.demo.BowlingConstants.ALL_PINS;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import lombok.extern.slf4j.Slf4j;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Optional metrics of the rolls applied by {@link GameStateHelper#roll(int)}: the rolls of every
+ * {@link GameStateMachine} transition, STRIKEs and SPAREs of frames 1-10, rejected rolls and a
+ * {@link LogLinearHistogram} of the roll latency.
+ *
+ * <p>While the metrics are disabled they cost the roll path one more volatile field read, {@link
+ * #recorder()}, which is null. Enabled, a roll increments a few {@link LongAdder}s, which stripe
+ * their cells under contention, and a timed roll reads the clock twice. Reading the clock can cost
+ * more than the roll, so the latency can be sampled on one roll in N. The metrics are pulled with
+ * {@link #snapshot()} or through JMX.
+ *
+ * @author George Bilchev
+ */
+@Slf4j
+@ThreadSafe
+public final class RollMetrics implements RollMetricsMXBean {
+
+  public static final String OBJECT_NAME = "com.omnifix.demo:type=RollMetrics";
+
+  /** Latency of a roll that was not timed */
+  public static final long NOT_TIMED = -1;
+
+  private static final GameStateMachine[] STATES = GameStateMachine.values();
+
+  private static volatile RollMetrics recorder;
+
+  private final LongAdder[] transitions = new LongAdder[STATES.length * STATES.length];
+  private final LongAdder strikes = new LongAdder();
+  private final LongAdder spares = new LongAdder();
+  private final LongAdder rejectedRolls = new LongAdder();
+  private final LogLinearHistogram latency = new LogLinearHistogram();
+  private final int latencySampling;
+
+  RollMetrics(int latencySampling) {
+    if (latencySampling < 1) {
+      throw new IllegalArgumentException("Invalid latency sampling " + latencySampling);
+    }
+    this.latencySampling = latencySampling;
+    for (int transition = 0; transition < transitions.length; transition++) {
+      transitions[transition] = new LongAdder();
+    }
+  }
+
+  /** @return the metrics to record to, or null when disabled */
+  public static RollMetrics recorder() {
+    return recorder;
+  }
+
+  /** Starts recording with every roll timed, see {@link #enable(int)} */
+  public static RollMetrics enable() {
+    return enable(1);
+  }
+
+  /**
+   * Starts recording and registers the MBean, metrics already being recorded are replaced
+   *
+   * @param latencySampling one roll in {@code latencySampling} is timed at random, 1 times all
+   * @return the metrics being recorded
+   */
+  public static synchronized RollMetrics enable(int latencySampling) {
+    RollMetrics metrics = new RollMetrics(latencySampling);
+    register(metrics);
+    recorder = metrics;
+    return metrics;
+  }
+
+  /** Stops recording and unregisters the MBean */
+  public static synchronized void disable() {
+    if (recorder != null) {
+      recorder = null;
+      unregister();
+    }
+  }
+
+  /** @return whether the next roll of the calling thread should be timed */
+  public boolean timeRoll() {
+    return latencySampling == 1 || ThreadLocalRandom.current().nextInt(latencySampling) == 0;
+  }
+
+  /**
+   * Records a roll applied in the given state
+   *
+   * @param from state of the game before the roll
+   * @param to state of the game after the roll
+   * @param noOfPins
+   * @param prevRollValue pins of the previous roll of the frame, before the roll
+   * @param nanos time taken by the roll or {@link #NOT_TIMED}
+   */
+  public void recordRoll(
+      GameStateMachine from, GameStateMachine to, int noOfPins, int prevRollValue, long nanos) {
+    transitions[from.ordinal() * STATES.length + to.ordinal()].increment();
+    if (from == GameStateMachine.FIRST_GO && noOfPins == ALL_PINS) {
+      strikes.increment();
+    } else if (from == GameStateMachine.SECOND_GO && prevRollValue + noOfPins == ALL_PINS) {
+      spares.increment();
+    }
+    if (nanos != NOT_TIMED) {
+      latency.record(nanos);
+    }
+  }
+
+  /** Records a roll that threw, e.g., after the end of the game */
+  public void recordRejectedRoll() {
+    rejectedRolls.increment();
+  }
+
+  public Snapshot snapshot() {
+    long[] counts = new long[transitions.length];
+    for (int transition = 0; transition < transitions.length; transition++) {
+      counts[transition] = transitions[transition].sum();
+    }
+    return new Snapshot(
+        counts, strikes.sum(), spares.sum(), rejectedRolls.sum(), latency.snapshot());
+  }
+
+  /*
+   * MBean attributes
+   */
+
+  @Override
+  public long getRolls() {
+    return snapshot().getRolls();
+  }
+
+  @Override
+  public Map<String, Long> getTransitions() {
+    return snapshot().getTransitions();
+  }
+
+  @Override
+  public long getCompletedGames() {
+    return snapshot().getCompletedGames();
+  }
+
+  @Override
+  public long getStrikes() {
+    return strikes.sum();
+  }
+
+  @Override
+  public long getSpares() {
+    return spares.sum();
+  }
+
+  @Override
+  public long getRejectedRolls() {
+    return rejectedRolls.sum();
+  }
+
+  @Override
+  public double getLatencyMeanNanos() {
+    return latency.snapshot().getMean();
+  }
+
+  @Override
+  public long getLatencyP50Nanos() {
+    return latency.snapshot().valueAt(0.5);
+  }
+
+  @Override
+  public long getLatencyP99Nanos() {
+    return latency.snapshot().valueAt(0.99);
+  }
+
+  @Override
+  public long getLatencyP999Nanos() {
+    return latency.snapshot().valueAt(0.999);
+  }
+
+  @Override
+  public long getLatencyMaxNanos() {
+    return latency.snapshot().getMax();
+  }
+
+  /** Zeroes the metrics, rolls recorded meanwhile may be partly kept */
+  @Override
+  public void reset() {
+    for (LongAdder transition : transitions) {
+      transition.reset();
+    }
+    strikes.reset();
+    spares.reset();
+    rejectedRolls.reset();
+    latency.reset();
+  }
+
+  /** Metrics at one point in time, every counter is read once */
+  @Immutable
+  public static final class Snapshot {
+    private final long[] transitions;
+    private final long strikes;
+    private final long spares;
+    private final long rejectedRolls;
+    private final LogLinearHistogram.Snapshot latency;
+
+    Snapshot(
+        long[] transitions,
+        long strikes,
+        long spares,
+        long rejectedRolls,
+        LogLinearHistogram.Snapshot latency) {
+      this.transitions = transitions;
+      this.strikes = strikes;
+      this.spares = spares;
+      this.rejectedRolls = rejectedRolls;
+      this.latency = latency;
+    }
+
+    public long getTransitions(GameStateMachine from, GameStateMachine to) {
+      return transitions[from.ordinal() * STATES.length + to.ordinal()];
+    }
+
+    /** The transitions that happened at least once */
+    public Map<String, Long> getTransitions() {
+      Map<String, Long> counts = new LinkedHashMap<>();
+      for (GameStateMachine from : STATES) {
+        for (GameStateMachine to : STATES) {
+          long count = getTransitions(from, to);
+          if (count > 0) {
+            counts.put(from + "->" + to, count);
+          }
+        }
+      }
+      return counts;
+    }
+
+    /** Rolls applied in the state */
+    public long getRolls(GameStateMachine from) {
+      long rolls = 0;
+      for (GameStateMachine to : STATES) {
+        rolls += getTransitions(from, to);
+      }
+      return rolls;
+    }
+
+    /** Rolls applied, the rejected ones are not included */
+    public long getRolls() {
+      long rolls = 0;
+      for (long count : transitions) {
+        rolls += count;
+      }
+      return rolls;
+    }
+
+    public long getCompletedGames() {
+      long games = 0;
+      for (GameStateMachine from : STATES) {
+        games += getTransitions(from, GameStateMachine.END_OF_GAME);
+      }
+      return games;
+    }
+
+    public long getStrikes() {
+      return strikes;
+    }
+
+    public long getSpares() {
+      return spares;
+    }
+
+    public long getRejectedRolls() {
+      return rejectedRolls;
+    }
+
+    public LogLinearHistogram.Snapshot getLatency() {
+      return latency;
+    }
+
+    @Override
+    public String toString() {
+      return "RollMetrics.Snapshot(rolls="
+          + getRolls()
+          + ", completedGames="
+          + getCompletedGames()
+          + ", strikes="
+          + strikes
+          + ", spares="
+          + spares
+          + ", rejectedRolls="
+          + rejectedRolls
+          + ", transitions="
+          + getTransitions()
+          + ", latency="
+          + latency
+          + ")";
+    }
+  }
+
+  /*
+   * Implementation details
+   */
+
+  private static void register(RollMetrics metrics) {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      ObjectName name = new ObjectName(OBJECT_NAME);
+      if (server.isRegistered(name)) {
+        server.unregisterMBean(name);
+      }
+      server.registerMBean(metrics, name);
+    } catch (JMException e) {
+      log.warn("Roll metrics are not available through JMX", e);
+    }
+  }
+
+  private static void unregister() {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      ObjectName name = new ObjectName(OBJECT_NAME);
+      if (server.isRegistered(name)) {
+        server.unregisterMBean(name);
+      }
+    } catch (JMException e) {
+      log.warn("Could not unregister the roll metrics", e);
+    }
+  }
+}
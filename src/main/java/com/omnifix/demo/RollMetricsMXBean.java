@@ -0,0 +1,35 @@
+package com.omnifix.demo;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link RollMetrics}, registered as {@value RollMetrics#OBJECT_NAME} while the metrics
+ * are enabled. Every attribute is read from a fresh snapshot.
+ */
+public interface RollMetricsMXBean {
+
+  long getRolls();
+
+  /** Rolls by {@link GameStateMachine} transition, e.g., {@code FIRST_GO->SECOND_GO} */
+  Map<String, Long> getTransitions();
+
+  long getCompletedGames();
+
+  long getStrikes();
+
+  long getSpares();
+
+  long getRejectedRolls();
+
+  double getLatencyMeanNanos();
+
+  long getLatencyP50Nanos();
+
+  long getLatencyP99Nanos();
+
+  long getLatencyP999Nanos();
+
+  long getLatencyMaxNanos();
+
+  void reset();
+}
@@ -0,0 +1,316 @@
+package com.omnifix.demo;
+
+import static com.omnifix.demo.BowlingConstants.ALL_PINS;
+import static com.omnifix.demo.BowlingConstants.LAST_FRAME;
+import static com.omnifix.demo.BowlingConstants.MULTIPLYER_IDENTITY;
+
+import java.util.Arrays;
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Ten frame scorecard of a game kept up to date roll by roll.
+ *
+ * <p>The rolls are validated and counted by a {@link PackedBowling} state. Every frame is a fixed
+ * row of a single {@code int[]}: its rolls, its own score so far, the cumulative score and the
+ * number of bonus rolls it still waits for. A roll adds its pins to its own frame and to at most
+ * the two frames before it that wait for a bonus, so at most three rows change per roll. The
+ * getters only read the array, so a display can poll them as often as it likes.
+ *
+ * @author George Bilchev
+ */
+@NotThreadSafe
+public class ScoreCard implements Bowling {
+
+  /** Value of a roll that has not been rolled yet */
+  public static final int NOT_ROLLED = -1;
+
+  public static final int MAX_ROLLS_IN_FRAME = 3;
+
+  public static final int MAX_ROLLS = 21;
+
+  private static final int FRAME_SCORE = MAX_ROLLS_IN_FRAME;
+  private static final int CUMULATIVE_SCORE = FRAME_SCORE + 1;
+  private static final int PENDING_BONUS = CUMULATIVE_SCORE + 1;
+  private static final int ROLLS_IN_FRAME = PENDING_BONUS + 1;
+  private static final int FIRST_ROLL = ROLLS_IN_FRAME + 1;
+  private static final int FRAME_STRIDE = FIRST_ROLL + 1;
+
+  private static final int STRIKE_BONUS_ROLLS = 2;
+  private static final int SPARE_BONUS_ROLLS = 1;
+
+  private final int[] frames = new int[LAST_FRAME * FRAME_STRIDE];
+  private long state;
+  private int currentFrame;
+
+  // Roll history
+  private final int[] rolls = new int[MAX_ROLLS];
+  private final int[] rollFrames = new int[MAX_ROLLS];
+  private final long[] frameStartStates = new long[LAST_FRAME];
+  private int rollCount;
+
+  public ScoreCard() {
+    reset();
+  }
+
+  /*
+   * Bowling Interface contract
+   */
+
+  @Override
+  public void roll(int noOfPins) {
+    long next = PackedBowling.roll(state, noOfPins); // Validates before the card is touched
+    int frame = frameOf(PackedBowling.rollIndex(state));
+    long previousState = state;
+    state = next;
+    currentFrame = frame;
+
+    int row = row(frame);
+    int firstTouched = frame;
+    for (int previous = Math.max(1, frame - STRIKE_BONUS_ROLLS); previous < frame; previous++) {
+      int previousRow = row(previous);
+      if (frames[previousRow + PENDING_BONUS] > 0) {
+        frames[previousRow + FRAME_SCORE] += noOfPins;
+        frames[previousRow + PENDING_BONUS]--;
+        firstTouched = Math.min(firstTouched, previous);
+      }
+    }
+
+    int ball = frames[row + ROLLS_IN_FRAME]++;
+    if (ball == 0) {
+      frames[row + FIRST_ROLL] = rollCount;
+      frameStartStates[frame - 1] = previousState;
+    }
+    frames[row + ball] = noOfPins;
+    rolls[rollCount] = noOfPins;
+    rollFrames[rollCount++] = frame;
+    frames[row + FRAME_SCORE] += noOfPins;
+    if (frame < LAST_FRAME) {
+      if (ball == 0 && noOfPins == ALL_PINS) {
+        frames[row + PENDING_BONUS] = STRIKE_BONUS_ROLLS;
+      } else if (ball == 1 && frames[row] + noOfPins == ALL_PINS) {
+        frames[row + PENDING_BONUS] = SPARE_BONUS_ROLLS;
+      }
+    }
+
+    int cumulative = firstTouched == 1 ? 0 : frames[row(firstTouched - 1) + CUMULATIVE_SCORE];
+    for (int touched = firstTouched; touched <= frame; touched++) {
+      cumulative += frames[row(touched) + FRAME_SCORE];
+      frames[row(touched) + CUMULATIVE_SCORE] = cumulative;
+    }
+  }
+
+  @Override
+  public int score() {
+    return PackedBowling.score(state);
+  }
+
+  public boolean isOver() {
+    return PackedBowling.isOver(state);
+  }
+
+  /** Clears the card for a new game */
+  public void reset() {
+    Arrays.fill(frames, 0);
+    for (int frame = 1; frame <= LAST_FRAME; frame++) {
+      Arrays.fill(frames, row(frame), row(frame) + MAX_ROLLS_IN_FRAME, NOT_ROLLED);
+    }
+    state = PackedBowling.NEW_GAME;
+    currentFrame = 1;
+    rollCount = 0;
+  }
+
+  /**
+   * Corrects a mis-keyed roll.
+   *
+   * <p>Only the frame of the roll and the two frames before it (which may have taken the roll as a
+   * bonus) are re-scored, the cumulative scores after them move by the difference. The corrected
+   * frame is validated by rolling it again from its start state. Turning a STRIKE of frames 1-9
+   * into a non STRIKE or back moves the frames of all the later rolls, that case replays the game.
+   *
+   * @param rollIndex position of the roll in the game, from 0
+   * @param newPins
+   * @throws IllegalArgumentException if the corrected game is not valid, the card is unchanged
+   */
+  public void correctRoll(int rollIndex, int newPins) {
+    if (rollIndex < 0 || rollIndex >= rollCount) {
+      throw new IllegalArgumentException(
+          "Invalid roll index " + rollIndex + ", " + rollCount + " rolls so far");
+    }
+    int oldPins = rolls[rollIndex];
+    if (oldPins == newPins) {
+      return;
+    }
+    int frame = rollFrames[rollIndex];
+    int row = row(frame);
+    int ball = rollIndex - frames[row + FIRST_ROLL];
+    if (frame < LAST_FRAME && ball == 0 && (oldPins == ALL_PINS) != (newPins == ALL_PINS)) {
+      replayWithCorrection(rollIndex, newPins);
+      return;
+    }
+
+    long frameState = frameStartStates[frame - 1];
+    try {
+      for (int roll = frames[row + FIRST_ROLL];
+          roll < rollCount && rollFrames[roll] == frame;
+          roll++) {
+        frameState = PackedBowling.roll(frameState, roll == rollIndex ? newPins : rolls[roll]);
+      }
+    } catch (RuntimeException e) {
+      throw rejectedCorrection(rollIndex, newPins, e);
+    }
+
+    rolls[rollIndex] = newPins;
+    frames[row + ball] = newPins;
+    int firstTouched = Math.max(1, frame - STRIKE_BONUS_ROLLS);
+    for (int touched = firstTouched; touched <= frame; touched++) {
+      rescoreFrame(touched);
+    }
+    int cumulative = firstTouched == 1 ? 0 : frames[row(firstTouched - 1) + CUMULATIVE_SCORE];
+    int pendingNext = 0;
+    int pendingAfterNext = 0;
+    for (int touched = firstTouched; touched <= currentFrame; touched++) {
+      cumulative += frames[row(touched) + FRAME_SCORE];
+      frames[row(touched) + CUMULATIVE_SCORE] = cumulative;
+    }
+    for (int pending = Math.max(1, currentFrame - STRIKE_BONUS_ROLLS);
+        pending <= currentFrame;
+        pending++) {
+      int bonus = frames[row(pending) + PENDING_BONUS];
+      pendingNext += bonus > 0 ? 1 : 0;
+      pendingAfterNext += bonus > 1 ? 1 : 0;
+    }
+
+    // The rack and the end of the game only change when the last frame is corrected
+    long rack = frame == currentFrame ? frameState : state;
+    state =
+        PackedBowling.withMultipliers(
+            PackedBowling.withScore(rack, cumulative),
+            MULTIPLYER_IDENTITY + pendingNext,
+            MULTIPLYER_IDENTITY + pendingAfterNext);
+  }
+
+  /*
+   * Scorecard view, frames are numbered 1 to 10 and rolls in a frame 1 to 3
+   */
+
+  /** Frame of the last roll, 1 before the first roll */
+  public int getCurrentFrame() {
+    return currentFrame;
+  }
+
+  /** @return pins of a roll or {@link #NOT_ROLLED} */
+  public int getRoll(int frame, int roll) {
+    if (roll < 1 || roll > MAX_ROLLS_IN_FRAME) {
+      throw new IllegalArgumentException("Invalid roll " + roll);
+    }
+    return frames[row(frame) + roll - 1];
+  }
+
+  public int getRollsInFrame(int frame) {
+    return frames[row(frame) + ROLLS_IN_FRAME];
+  }
+
+  /** Pins of the frame plus the bonus pins it got so far */
+  public int getFrameScore(int frame) {
+    return frames[row(frame) + FRAME_SCORE];
+  }
+
+  /** Running total up to and including the frame */
+  public int getCumulativeScore(int frame) {
+    return frame > currentFrame ? 0 : frames[row(frame) + CUMULATIVE_SCORE];
+  }
+
+  /** Number of bonus rolls the frame still waits for, 2 after a STRIKE and 1 after a SPARE */
+  public int getPendingBonus(int frame) {
+    return frames[row(frame) + PENDING_BONUS];
+  }
+
+  /** The frame is rolled and has all its bonus pins, so its cumulative score is final */
+  public boolean isFrameScored(int frame) {
+    if (frame < currentFrame) {
+      return getPendingBonus(frame) == 0;
+    }
+    if (frame == LAST_FRAME) {
+      return isOver();
+    }
+    // A STRIKE or a SPARE waits for its bonus, so only an open frame is scored when rolled
+    return frame == currentFrame && getRollsInFrame(frame) == 2 && getPendingBonus(frame) == 0;
+  }
+
+  /** Number of rolls so far */
+  public int getRollCount() {
+    return rollCount;
+  }
+
+  /** @return pins of a roll by its position in the game, from 0 */
+  public int getRoll(int rollIndex) {
+    if (rollIndex < 0 || rollIndex >= rollCount) {
+      throw new IllegalArgumentException("Invalid roll index " + rollIndex);
+    }
+    return rolls[rollIndex];
+  }
+
+  /*
+   * Implementation details
+   */
+
+  /** Frame score and pending bonus of a frame from the roll history */
+  private void rescoreFrame(int frame) {
+    int row = row(frame);
+    int first = frames[row + FIRST_ROLL];
+    int rollsInFrame = frames[row + ROLLS_IN_FRAME];
+    int score = 0;
+    for (int roll = first; roll < first + rollsInFrame; roll++) {
+      score += rolls[roll];
+    }
+    int bonusRolls = 0;
+    if (frame < LAST_FRAME && rolls[first] == ALL_PINS) {
+      bonusRolls = STRIKE_BONUS_ROLLS;
+    } else if (frame < LAST_FRAME && rollsInFrame == 2 && score == ALL_PINS) {
+      bonusRolls = SPARE_BONUS_ROLLS;
+    }
+    int bonusRolled = Math.min(bonusRolls, rollCount - first - rollsInFrame);
+    for (int roll = first + rollsInFrame; roll < first + rollsInFrame + bonusRolled; roll++) {
+      score += rolls[roll];
+    }
+    frames[row + FRAME_SCORE] = score;
+    frames[row + PENDING_BONUS] = bonusRolls - bonusRolled;
+  }
+
+  private void replayWithCorrection(int rollIndex, int newPins) {
+    int[] original = Arrays.copyOf(rolls, rollCount);
+    int[] corrected = original.clone();
+    corrected[rollIndex] = newPins;
+    try {
+      replay(corrected);
+    } catch (RuntimeException e) {
+      replay(original);
+      throw rejectedCorrection(rollIndex, newPins, e);
+    }
+  }
+
+  private void replay(int[] gameRolls) {
+    reset();
+    for (int noOfPins : gameRolls) {
+      roll(noOfPins);
+    }
+  }
+
+  private static IllegalArgumentException rejectedCorrection(
+      int rollIndex, int newPins, RuntimeException cause) {
+    return new IllegalArgumentException(
+        "Invalid correction of roll " + rollIndex + " to " + newPins + ": " + cause.getMessage(),
+        cause);
+  }
+
+  private static int frameOf(int rollIndex) {
+    return Math.min(LAST_FRAME, (rollIndex + 1) / 2);
+  }
+
+  private static int row(int frame) {
+    if (frame < 1 || frame > LAST_FRAME) {
+      throw new IllegalArgumentException("Invalid frame " + frame);
+    }
+    return (frame - 1) * FRAME_STRIDE;
+  }
+}
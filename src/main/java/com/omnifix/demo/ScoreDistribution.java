@@ -0,0 +1,187 @@
+package com.omnifix.demo;
+
+import static com.omnifix.demo.BowlingConstants.ALL_PINS;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Exact distribution of the final score of a game under a {@link PinModel}.
+ *
+ * <p>A forward dynamic programming pass moves the probability of every {@code (state, score)} pair
+ * along the {@link TransitionTableBowling} transitions, e.g., over the multiplier states of {@link
+ * BowlingAlgorithmHelper}. Every roll moves the roll index forward, so the states are processed in
+ * layers of the same roll index; each state pulls its probabilities from its predecessors in the
+ * earlier layers, which lets the states of a layer run in parallel on the common fork join pool
+ * without sharing any writes. Distributions are cached per model, computed by the first caller
+ * outside the cache map.
+ *
+ * @author George Bilchev
+ */
+@ThreadSafe
+public final class ScoreDistribution {
+
+  public static final int MAX_SCORE = 300;
+
+  /** Below this number of states a fork join task computes its range itself */
+  static final int PARALLEL_THRESHOLD = 16;
+
+  private static final int PIN_COUNTS = ALL_PINS + 1;
+  private static final int SCORES = MAX_SCORE + 1;
+
+  // States grouped by their roll index (T2), the new game is the only state of roll index 1
+  private static final int[][] LAYERS;
+
+  // stateId -> (predecessor stateId * 11 + pins) of the transitions into the state
+  private static final int[][] PREDECESSORS;
+
+  // Completed outside the map, so that a computation never holds a bin of the map
+  private static final Map<PinModel, CompletableFuture<double[]>> CACHE = new ConcurrentHashMap<>();
+
+  static {
+    int stateCount = TransitionTableBowling.stateCount();
+    List<List<Integer>> predecessors = new ArrayList<>();
+    List<List<Integer>> layers = new ArrayList<>();
+    for (int stateId = 0; stateId < stateCount; stateId++) {
+      predecessors.add(new ArrayList<>());
+    }
+    for (int stateId = 0; stateId < stateCount; stateId++) {
+      int rollIndex = PackedBowling.rollIndex(TransitionTableBowling.packedState(stateId));
+      while (layers.size() <= rollIndex) {
+        layers.add(new ArrayList<>());
+      }
+      layers.get(rollIndex).add(stateId);
+      for (int pins = 0; pins <= ALL_PINS; pins++) {
+        int transition = TransitionTableBowling.transition(stateId, pins);
+        if (transition >= 0) {
+          predecessors
+              .get(TransitionTableBowling.nextState(transition))
+              .add(stateId * PIN_COUNTS + pins);
+        }
+      }
+    }
+    LAYERS = layers.stream().map(ScoreDistribution::toArray).toArray(int[][]::new);
+    PREDECESSORS = predecessors.stream().map(ScoreDistribution::toArray).toArray(int[][]::new);
+  }
+
+  private ScoreDistribution() {}
+
+  /**
+   * Computes the distribution of a model on the first call, concurrent calls for the same model
+   * wait for that computation
+   *
+   * @param model
+   * @return {@code distribution[score]} is the probability that a game ends with the score
+   */
+  public static double[] of(PinModel model) {
+    CompletableFuture<double[]> distribution = CACHE.get(model);
+    if (distribution == null) {
+      CompletableFuture<double[]> computing = new CompletableFuture<>();
+      distribution = CACHE.putIfAbsent(model, computing);
+      if (distribution == null) {
+        distribution = computing;
+        try {
+          computing.complete(compute(model));
+        } catch (RuntimeException | Error e) {
+          CACHE.remove(model, computing); // The next call tries again
+          computing.completeExceptionally(e);
+          throw e;
+        }
+      }
+    }
+    return distribution.join().clone();
+  }
+
+  public static double mean(double[] distribution) {
+    double mean = 0;
+    for (int score = 0; score < distribution.length; score++) {
+      mean += score * distribution[score];
+    }
+    return mean;
+  }
+
+  /*
+   * Implementation details
+   */
+
+  /** Uncached computation */
+  static double[] compute(PinModel model) {
+    double[][] probabilities = new double[TransitionTableBowling.stateCount()][SCORES];
+    probabilities[TransitionTableBowling.NEW_GAME_STATE][0] = 1;
+    for (int[] layer : LAYERS) {
+      ForkJoinPool.commonPool().invoke(new LayerTask(layer, 0, layer.length, model, probabilities));
+    }
+    double[] distribution = new double[SCORES];
+    for (int stateId = 0; stateId < probabilities.length; stateId++) {
+      if (TransitionTableBowling.isOver(stateId)) {
+        for (int score = 0; score < SCORES; score++) {
+          distribution[score] += probabilities[stateId][score];
+        }
+      }
+    }
+    return distribution;
+  }
+
+  /** Pulls the probabilities of a state from its predecessors, which are all complete */
+  private static void pull(int stateId, PinModel model, double[][] probabilities) {
+    double[] target = probabilities[stateId];
+    for (int predecessor : PREDECESSORS[stateId]) {
+      int sourceId = predecessor / PIN_COUNTS;
+      int pins = predecessor % PIN_COUNTS;
+      int standing =
+          ALL_PINS - PackedBowling.prevRollValue(TransitionTableBowling.packedState(sourceId));
+      double probability = model.probability(standing, pins);
+      if (probability == 0) {
+        continue;
+      }
+      int delta =
+          TransitionTableBowling.scoreDelta(TransitionTableBowling.transition(sourceId, pins));
+      double[] source = probabilities[sourceId];
+      for (int score = 0; score + delta < SCORES; score++) {
+        target[score + delta] += probability * source[score];
+      }
+    }
+  }
+
+  private static int[] toArray(List<Integer> list) {
+    return list.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  private static class LayerTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final int[] layer;
+    private final int from;
+    private final int to;
+    private final PinModel model;
+    private final double[][] probabilities;
+
+    LayerTask(int[] layer, int from, int to, PinModel model, double[][] probabilities) {
+      this.layer = layer;
+      this.from = from;
+      this.to = to;
+      this.model = model;
+      this.probabilities = probabilities;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= PARALLEL_THRESHOLD) {
+        for (int i = from; i < to; i++) {
+          pull(layer[i], model, probabilities);
+        }
+      } else {
+        int middle = (from + to) >>> 1;
+        invokeAll(
+            new LayerTask(layer, from, middle, model, probabilities),
+            new LayerTask(layer, middle, to, model, probabilities));
+      }
+    }
+  }
+}
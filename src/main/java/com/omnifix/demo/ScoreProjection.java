@@ -0,0 +1,95 @@
+package com.omnifix.demo;
+
+import static com.omnifix.demo.BowlingConstants.ALL_PINS;
+
+import java.util.Arrays;
+import lombok.extern.slf4j.Slf4j;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Best and worst final score that a game can still reach.
+ *
+ * <p>The points still to come depend only on the scoring state (the roll index, the multiplier
+ * registers of {@link BowlingAlgorithmHelper} and the pins standing), not on the score so far. The
+ * most and the fewest points left are computed once per state of {@link TransitionTableBowling}
+ * with dynamic programming over its transition table, so a projection is a table lookup plus the
+ * current score.
+ *
+ * @author George Bilchev
+ */
+@Slf4j
+@ThreadSafe
+public final class ScoreProjection {
+
+  private static final int UNKNOWN = -1;
+
+  // stateId -> most / fewest points the remaining rolls can add
+  private static final short[] MAX_REMAINING;
+  private static final short[] MIN_REMAINING;
+
+  static {
+    int stateCount = TransitionTableBowling.stateCount();
+    MAX_REMAINING = new short[stateCount];
+    MIN_REMAINING = new short[stateCount];
+    Arrays.fill(MAX_REMAINING, (short) UNKNOWN);
+    for (int stateId = 0; stateId < stateCount; stateId++) {
+      project(stateId);
+    }
+    log.debug("Projected {} scoring states", stateCount);
+  }
+
+  private ScoreProjection() {}
+
+  /** Highest final score still achievable from a {@link PackedBowling} state */
+  public static int maxPossible(long packedState) {
+    return PackedBowling.score(packedState)
+        + MAX_REMAINING[TransitionTableBowling.stateId(packedState)];
+  }
+
+  /** Lowest final score still achievable from a {@link PackedBowling} state */
+  public static int minPossible(long packedState) {
+    return PackedBowling.score(packedState)
+        + MIN_REMAINING[TransitionTableBowling.stateId(packedState)];
+  }
+
+  /** Highest final score still achievable from a {@link TransitionTableBowling} state and score */
+  public static int maxPossible(int stateId, int score) {
+    return score + MAX_REMAINING[stateId];
+  }
+
+  /** Lowest final score still achievable from a {@link TransitionTableBowling} state and score */
+  public static int minPossible(int stateId, int score) {
+    return score + MIN_REMAINING[stateId];
+  }
+
+  /*
+   * Implementation details
+   */
+
+  // Every roll moves the roll index forward, so the recursion is at most 21 deep
+  private static void project(int stateId) {
+    if (MAX_REMAINING[stateId] != UNKNOWN) {
+      return;
+    }
+    if (TransitionTableBowling.isOver(stateId)) {
+      MAX_REMAINING[stateId] = 0;
+      MIN_REMAINING[stateId] = 0;
+      return;
+    }
+    int max = Integer.MIN_VALUE;
+    int min = Integer.MAX_VALUE;
+    for (int noOfPins = 0; noOfPins <= ALL_PINS; noOfPins++) {
+      int transition = TransitionTableBowling.transition(stateId, noOfPins);
+      if (transition < 0) {
+        continue;
+      }
+      int next = TransitionTableBowling.nextState(transition);
+      project(next);
+      int delta = TransitionTableBowling.scoreDelta(transition);
+      max = Math.max(max, delta + MAX_REMAINING[next]);
+      min = Math.min(min, delta + MIN_REMAINING[next]);
+    }
+    MAX_REMAINING[stateId] = (short) max;
+    MIN_REMAINING[stateId] = (short) min;
+  }
+}
@@ -0,0 +1,13 @@
+package com.omnifix.demo;
+
+import lombok.Value;
+
+/** Score of a game after one of its rolls */
+@Value(staticConstructor = "of")
+public class ScoreUpdate {
+  int laneId;
+  long gameId;
+  int pins;
+  int score;
+  boolean gameOver;
+}
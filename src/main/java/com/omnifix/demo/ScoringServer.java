@@ -0,0 +1,274 @@
+package com.omnifix.demo;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Self-contained HTTP scoring service on the JDK built-in server ({@code com.sun.net.httpserver}).
+ *
+ * <pre>
+ * POST   /games                  creates a game             201 {"gameId":1}
+ * POST   /games/{id}/rolls       body is the number of pins {"gameId":1,"score":7,"over":false}
+ * GET    /games/{id}/score                                  {"gameId":1,"score":7,"over":false}
+ * GET    /games/{id}/scorecard   the frames and the notation
+ * DELETE /games/{id}                                        204
+ * </pre>
+ *
+ * <p>A roll that breaks the rules gets a 400, a roll after the end of the game a 409 and an unknown
+ * game a 404, a roll body longer than {@value #MAX_ROLL_BODY} bytes a 413. The games are {@link
+ * ScoreCard}s in a concurrent map, every request locks only its game. Every request runs on its own
+ * virtual thread when the JDK has them (21 and up), otherwise on a cached pool of platform threads:
+ * reading the body of a roll blocks until the client has sent it, so a slow client holds its thread
+ * and a pool sized to the cores would leave the others waiting.
+ *
+ * @author George Bilchev
+ */
+@Slf4j
+@ThreadSafe
+public class ScoringServer implements AutoCloseable {
+
+  public static final String GAMES = "/games";
+
+  /** Longest body of a roll, the number of pins and some white space */
+  static final int MAX_ROLL_BODY = 16;
+
+  private static final int STOP_DELAY_SECONDS = 1;
+
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final Map<Long, ScoreCard> games = new ConcurrentHashMap<>();
+  private final AtomicLong nextGameId = new AtomicLong(1);
+
+  /**
+   * Starts serving
+   *
+   * @param address port 0 picks a free port
+   * @param backlog of connections waiting to be accepted, 0 for the system default
+   */
+  public ScoringServer(InetSocketAddress address, int backlog) throws IOException {
+    this.executor = newRequestExecutor();
+    this.server = HttpServer.create(address, backlog);
+    server.createContext(GAMES, this::handle);
+    server.setExecutor(executor);
+    server.start();
+    log.info("Scoring on {} with {}", getAddress(), executor.getClass().getSimpleName());
+  }
+
+  /**
+   * Serves on the port of the first argument, 8080 by default, with {@code
+   * -Dsun.net.httpserver.nodelay=true} unless it is set otherwise: small responses on keep-alive
+   * connections would wait for the delayed ACK (~40 ms)
+   */
+  public static void main(String[] args) throws IOException {
+    System.getProperties().putIfAbsent("sun.net.httpserver.nodelay", "true");
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+    ScoringServer server = new ScoringServer(new InetSocketAddress(port), 0);
+    Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+  }
+
+  public InetSocketAddress getAddress() {
+    return server.getAddress();
+  }
+
+  public int getGameCount() {
+    return games.size();
+  }
+
+  /**
+   * A virtual thread per task executor, looked up reflectively so that the project still builds for
+   * Java 15
+   */
+  static ExecutorService newRequestExecutor() {
+    try {
+      return (ExecutorService)
+          Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return Executors.newCachedThreadPool(
+          task -> {
+            Thread thread = new Thread(task, "scoring");
+            thread.setDaemon(true);
+            return thread;
+          });
+    }
+  }
+
+  /** Stops accepting and waits a moment for the requests in progress */
+  @Override
+  public void close() {
+    server.stop(STOP_DELAY_SECONDS);
+    executor.shutdown();
+    try {
+      executor.awaitTermination(STOP_DELAY_SECONDS, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /*
+   * Implementation details
+   */
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try {
+      route(exchange);
+    } catch (RuntimeException e) {
+      log.warn("Failed {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+      send(exchange, 500, error(e.toString()));
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private void route(HttpExchange exchange) throws IOException {
+    String[] path = exchange.getRequestURI().getPath().substring(GAMES.length()).split("/");
+    String method = exchange.getRequestMethod();
+    if (path.length > 0 && !path[0].isEmpty()) {
+      send(exchange, 404, error("Unknown path " + exchange.getRequestURI()));
+      return;
+    }
+    if (path.length <= 1) {
+      if (!"POST".equals(method)) {
+        send(exchange, 405, error("Use POST to create a game"));
+        return;
+      }
+      long gameId = nextGameId.getAndIncrement();
+      games.put(gameId, new ScoreCard());
+      send(exchange, 201, "{\"gameId\":" + gameId + "}");
+      return;
+    }
+    long gameId;
+    try {
+      gameId = Long.parseLong(path[1]);
+    } catch (NumberFormatException e) {
+      send(exchange, 404, error("Unknown game " + path[1]));
+      return;
+    }
+    String resource = path.length > 2 ? path[2] : "";
+    ScoreCard card = games.get(gameId);
+    if (card == null) {
+      send(exchange, 404, error("Unknown game " + gameId));
+    } else if ("rolls".equals(resource) && "POST".equals(method)) {
+      roll(exchange, gameId, card);
+    } else if ("score".equals(resource) && "GET".equals(method)) {
+      send(exchange, 200, score(gameId, card));
+    } else if ("scorecard".equals(resource) && "GET".equals(method)) {
+      send(exchange, 200, scoreCard(gameId, card));
+    } else if (resource.isEmpty() && "DELETE".equals(method)) {
+      games.remove(gameId);
+      send(exchange, 204, null);
+    } else {
+      send(exchange, 405, error(method + " is not supported on " + exchange.getRequestURI()));
+    }
+  }
+
+  private void roll(HttpExchange exchange, long gameId, ScoreCard card) throws IOException {
+    byte[] bytes;
+    try (InputStream body = exchange.getRequestBody()) {
+      bytes = body.readNBytes(MAX_ROLL_BODY + 1);
+    }
+    if (bytes.length > MAX_ROLL_BODY) {
+      send(
+          exchange,
+          413,
+          error("Expected the number of pins in at most " + MAX_ROLL_BODY + " bytes"));
+      return;
+    }
+    int noOfPins;
+    try {
+      noOfPins = Integer.parseInt(new String(bytes, StandardCharsets.US_ASCII).trim());
+    } catch (NumberFormatException e) {
+      send(exchange, 400, error("Expected the number of pins"));
+      return;
+    }
+    int status = 200;
+    String response;
+    synchronized (card) {
+      try {
+        card.roll(noOfPins);
+        response = score(gameId, card);
+      } catch (IllegalArgumentException e) {
+        status = 400;
+        response = error(e.getMessage());
+      } catch (IllegalStateException e) {
+        status = 409;
+        response = error(e.getMessage());
+      }
+    }
+    send(exchange, status, response);
+  }
+
+  private static String score(long gameId, ScoreCard card) {
+    synchronized (card) {
+      return "{\"gameId\":"
+          + gameId
+          + ",\"score\":"
+          + card.score()
+          + ",\"over\":"
+          + card.isOver()
+          + "}";
+    }
+  }
+
+  private static String scoreCard(long gameId, ScoreCard card) {
+    StringBuilder json = new StringBuilder(512);
+    synchronized (card) {
+      json.append("{\"gameId\":").append(gameId).append(",\"frames\":[");
+      for (int frame = 1; frame <= card.getCurrentFrame() && card.getRollCount() > 0; frame++) {
+        json.append(frame == 1 ? "" : ",")
+            .append("{\"frame\":")
+            .append(frame)
+            .append(",\"rolls\":[");
+        for (int roll = 1; roll <= card.getRollsInFrame(frame); roll++) {
+          json.append(roll == 1 ? "" : ",").append(card.getRoll(frame, roll));
+        }
+        json.append("],\"score\":").append(card.getFrameScore(frame));
+        if (card.isFrameScored(frame)) {
+          json.append(",\"cumulative\":").append(card.getCumulativeScore(frame));
+        }
+        json.append('}');
+      }
+      int[] rolls = new int[card.getRollCount()];
+      for (int roll = 0; roll < rolls.length; roll++) {
+        rolls[roll] = card.getRoll(roll);
+      }
+      json.append("],\"notation\":\"")
+          .append(NotationParser.format(rolls))
+          .append("\",\"score\":")
+          .append(card.score())
+          .append(",\"over\":")
+          .append(card.isOver())
+          .append('}');
+    }
+    return json.toString();
+  }
+
+  private static String error(String message) {
+    return "{\"error\":\"" + message.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}";
+  }
+
+  private static void send(HttpExchange exchange, int status, String json) throws IOException {
+    if (json == null) {
+      exchange.sendResponseHeaders(status, -1);
+      return;
+    }
+    byte[] body = json.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+}
@@ -0,0 +1,179 @@
+package com.omnifix.demo;
+
+import static com.omnifix.demo.BowlingConstants.ALL_PINS;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Table driven implementation of the Bowling Scoring Algorithm.
+ *
+ * <p>The reachable scoring states of a game (everything in {@link PackedBowling} except the score)
+ * are enumerated once when the class is loaded into a dense table indexed by {@code (stateId,
+ * noOfPins)} that holds the next state id and the score delta, so a roll is a single array lookup.
+ *
+ * @author George Bilchev
+ */
+@Slf4j
+@NotThreadSafe
+public class TransitionTableBowling implements Bowling {
+
+  public static final int NEW_GAME_STATE = 0;
+
+  /** Transition marker for a roll after the end of the game */
+  public static final int END_OF_GAME = -1;
+
+  /** Transition marker for more pins than are standing */
+  public static final int INVALID_PINS = -2;
+
+  private static final int PIN_COUNTS = ALL_PINS + 1;
+  private static final int DELTA_BITS = 8;
+  private static final int DELTA_MASK = (1 << DELTA_BITS) - 1;
+
+  private static final int STATE_KEY_SHIFT = PackedBowling.SCORE_BITS;
+
+  // Packed state (score cleared) of each state id
+  private static final long[] PACKED_STATES;
+
+  // (stateId * 11 + noOfPins) -> nextStateId << 8 | scoreDelta, or one of the markers above
+  private static final int[] TRANSITIONS;
+
+  // Packed state >>> 9 -> stateId
+  private static final int[] STATE_IDS;
+
+  static {
+    Map<Long, Integer> ids = new HashMap<>();
+    Deque<Long> pending = new ArrayDeque<>();
+    ids.put(PackedBowling.NEW_GAME, NEW_GAME_STATE);
+    pending.add(PackedBowling.NEW_GAME);
+    long[] states = new long[64];
+    int[] transitions = new int[states.length * PIN_COUNTS];
+    while (!pending.isEmpty()) {
+      long state = pending.poll();
+      int stateId = ids.get(state);
+      if (stateId >= states.length) {
+        states = Arrays.copyOf(states, states.length * 2);
+        transitions = Arrays.copyOf(transitions, states.length * PIN_COUNTS);
+      }
+      states[stateId] = state;
+      for (int noOfPins = 0; noOfPins <= ALL_PINS; noOfPins++) {
+        transitions[stateId * PIN_COUNTS + noOfPins] = enumerate(state, noOfPins, ids, pending);
+      }
+    }
+    PACKED_STATES = Arrays.copyOf(states, ids.size());
+    TRANSITIONS = Arrays.copyOf(transitions, ids.size() * PIN_COUNTS);
+    STATE_IDS = new int[(int) (PackedBowling.STATE_MASK >>> STATE_KEY_SHIFT) + 1];
+    Arrays.fill(STATE_IDS, -1);
+    for (int stateId = 0; stateId < PACKED_STATES.length; stateId++) {
+      STATE_IDS[(int) (PACKED_STATES[stateId] >>> STATE_KEY_SHIFT)] = stateId;
+    }
+    log.debug("Enumerated {} reachable scoring states", PACKED_STATES.length);
+  }
+
+  private int stateId = NEW_GAME_STATE;
+  private int score = 0;
+
+  /*
+   * Bowling Interface contract
+   */
+
+  @Override
+  public void roll(int noOfPins) {
+    int transition = transition(stateId, noOfPins);
+    if (transition < 0) {
+      throw rejected(transition, stateId, noOfPins);
+    }
+    stateId = nextState(transition);
+    score += scoreDelta(transition);
+  }
+
+  @Override
+  public int score() {
+    return score;
+  }
+
+  public int getStateId() {
+    return stateId;
+  }
+
+  public boolean isOver() {
+    return isOver(stateId);
+  }
+
+  /*
+   * Table access
+   */
+
+  /**
+   * Looks up a roll in the table
+   *
+   * @param stateId
+   * @param noOfPins
+   * @return the encoded transition, see {@link #nextState(int)} and {@link #scoreDelta(int)}, or
+   *     {@link #END_OF_GAME} or {@link #INVALID_PINS}
+   */
+  public static int transition(int stateId, int noOfPins) {
+    if (noOfPins < 0 || noOfPins > ALL_PINS) {
+      return INVALID_PINS;
+    }
+    return TRANSITIONS[stateId * PIN_COUNTS + noOfPins];
+  }
+
+  public static int nextState(int transition) {
+    return transition >>> DELTA_BITS;
+  }
+
+  public static int scoreDelta(int transition) {
+    return transition & DELTA_MASK;
+  }
+
+  public static int stateCount() {
+    return PACKED_STATES.length;
+  }
+
+  public static boolean isOver(int stateId) {
+    return PackedBowling.isOver(PACKED_STATES[stateId]);
+  }
+
+  /** The {@link PackedBowling} state (with a zero score) that a state id stands for */
+  public static long packedState(int stateId) {
+    return PACKED_STATES[stateId];
+  }
+
+  /** Maps a {@link PackedBowling} state to its state id, the score and caller bits are ignored */
+  public static int stateId(long packedState) {
+    return STATE_IDS[(int) ((packedState & PackedBowling.STATE_MASK) >>> STATE_KEY_SHIFT)];
+  }
+
+  public static RuntimeException rejected(int transition, int stateId, int noOfPins) {
+    String state = PackedBowling.toString(PACKED_STATES[stateId]);
+    if (transition == END_OF_GAME) {
+      return new IllegalStateException("End of game! " + state);
+    }
+    return new IllegalArgumentException("Invalid number of pins " + noOfPins + "! " + state);
+  }
+
+  private static int enumerate(
+      long state, int noOfPins, Map<Long, Integer> ids, Deque<Long> pending) {
+    if (PackedBowling.isOver(state)) {
+      return END_OF_GAME;
+    }
+    if (PackedBowling.prevRollValue(state) + noOfPins > ALL_PINS) {
+      return INVALID_PINS;
+    }
+    long next = PackedBowling.roll(state, noOfPins);
+    long nextState = PackedBowling.withScore(next, 0);
+    Integer nextId = ids.get(nextState);
+    if (nextId == null) {
+      nextId = ids.size();
+      ids.put(nextState, nextId);
+      pending.add(nextState);
+    }
+    return nextId << DELTA_BITS | PackedBowling.score(next);
+  }
+}
@@ -0,0 +1,97 @@
+package com.omnifix.demo;
+
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * {@link PackedBowling} game with a bounded undo history.
+ *
+ * <p>The states after the last rolls are kept in a ring of {@code long}s, so undoing or redoing a
+ * roll moves a pointer in the ring instead of replaying the game. A new roll after an undo drops
+ * the rolls that could have been redone, and the oldest state falls out of the ring when it is
+ * full.
+ *
+ * @author George Bilchev
+ */
+@NotThreadSafe
+public class UndoableBowling implements Bowling {
+
+  private final long[] history;
+  private int current; // Ring index of the current state
+  private int undoable; // Rolls that can be undone
+  private int redoable; // Undone rolls that can be redone
+
+  /** @param maxUndo number of rolls that can be undone */
+  public UndoableBowling(int maxUndo) {
+    this(maxUndo, GameSnapshot.NEW_GAME);
+  }
+
+  /** Continues a game from a snapshot, the snapshot is the oldest undo point */
+  public UndoableBowling(int maxUndo, GameSnapshot snapshot) {
+    if (maxUndo < 0) {
+      throw new IllegalArgumentException("Invalid undo history size " + maxUndo);
+    }
+    this.history = new long[maxUndo + 1];
+    this.history[0] = snapshot.getState();
+  }
+
+  /*
+   * Bowling Interface contract
+   */
+
+  @Override
+  public void roll(int noOfPins) {
+    long next = PackedBowling.roll(history[current], noOfPins);
+    current = (current + 1) % history.length;
+    history[current] = next;
+    undoable = Math.min(undoable + 1, history.length - 1);
+    redoable = 0;
+  }
+
+  @Override
+  public int score() {
+    return PackedBowling.score(history[current]);
+  }
+
+  public boolean isOver() {
+    return PackedBowling.isOver(history[current]);
+  }
+
+  /** @return false if there is no roll left in the history to undo */
+  public boolean undo() {
+    if (undoable == 0) {
+      return false;
+    }
+    current = (current - 1 + history.length) % history.length;
+    undoable--;
+    redoable++;
+    return true;
+  }
+
+  /** @return false if there is no undone roll to redo */
+  public boolean redo() {
+    if (redoable == 0) {
+      return false;
+    }
+    current = (current + 1) % history.length;
+    undoable++;
+    redoable--;
+    return true;
+  }
+
+  public int getUndoable() {
+    return undoable;
+  }
+
+  public int getRedoable() {
+    return redoable;
+  }
+
+  public GameSnapshot snapshot() {
+    return GameSnapshot.of(history[current]);
+  }
+
+  /** An independent game from the current state, with a fresh history */
+  public UndoableBowling fork() {
+    return new UndoableBowling(history.length - 1, snapshot());
+  }
+}
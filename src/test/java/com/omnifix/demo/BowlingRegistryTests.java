@@ -0,0 +1,115 @@
+package com.omnifix.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.Test;
+
+class BowlingRegistryTests {
+
+  @Test
+  void canRollScoreAndCompleteGames() {
+    BowlingRegistry registry = new BowlingRegistry(16);
+
+    registry.roll(7L, 10);
+    registry.roll(7L, 3);
+    long state = registry.roll(7L, 2);
+
+    assertThat(registry.score(7L)).isEqualTo(20);
+    assertThat(BowlingRegistry.sequence(state)).isEqualTo(3);
+    long completed = registry.complete(7L);
+    assertThat(PackedBowling.score(completed)).isEqualTo(20);
+    assertThat(BowlingRegistry.isCompleted(completed)).isTrue();
+    assertThat(BowlingRegistry.sequence(completed)).isEqualTo(4);
+    assertThat(registry.complete(7L)).isEqualTo(completed);
+    assertThatThrownBy(() -> registry.roll(7L, 1))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("completed");
+
+    assertThat(BowlingRegistry.sequence(registry.newGame(7L))).isEqualTo(5);
+    assertThat(BowlingRegistry.sequence(registry.newGame(7L))).isEqualTo(5);
+    registry.roll(7L, 4);
+    assertThat(registry.score(7L)).isEqualTo(4);
+    assertThatThrownBy(() -> registry.newGame(7L)).isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void wrapsTheSequenceWithinItsBits() {
+    BowlingRegistry registry = new BowlingRegistry(16);
+    long last =
+        BowlingRegistry.withSequence(PackedBowling.roll(PackedBowling.NEW_GAME, 3), 0xFFFFFF);
+    registry.restore(9L, last);
+
+    long rolled = registry.roll(9L, 4);
+
+    assertThat(rolled)
+        .isEqualTo(BowlingRegistry.withSequence(PackedBowling.roll(last, 4), 0))
+        .isEqualTo(PackedBowling.roll(PackedBowling.roll(PackedBowling.NEW_GAME, 3), 4));
+    registry.restore(9L, BowlingRegistry.withSequence(rolled, 0xFFFFFF));
+    long completed = registry.complete(9L);
+    assertThat(completed).isEqualTo(BowlingRegistry.completed(rolled));
+    registry.restore(9L, BowlingRegistry.withSequence(completed, 0xFFFFFF));
+    assertThat(registry.newGame(9L)).isEqualTo(PackedBowling.NEW_GAME);
+  }
+
+  @Test
+  void rejectsUnknownGamesAndOverflow() {
+    BowlingRegistry registry = new BowlingRegistry(2);
+
+    assertThatThrownBy(() -> registry.score(1L)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> registry.roll(BowlingRegistry.NO_GAME, 1))
+        .isInstanceOf(IllegalArgumentException.class);
+
+    for (long gameId = 1; gameId <= registry.capacity() * 2; gameId++) {
+      registry.roll(gameId, 1);
+    }
+    assertThatThrownBy(() -> registry.roll(1000L, 1))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("Registry is full");
+  }
+
+  @Test
+  void concurrentRollsOnSharedGamesAreNotLost() throws Exception {
+    int games = 1000;
+    int threads = 4;
+    BowlingRegistry registry = new BowlingRegistry(games);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      // Every thread rolls 1 pin five times into every game: 20 rolls of 1 pin in total
+      List<CompletableFuture<Void>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        futures.add(
+            CompletableFuture.runAsync(
+                () -> {
+                  for (int i = 0; i < 5; i++) {
+                    for (long gameId = 1; gameId <= games; gameId++) {
+                      registry.roll(gameId, 1);
+                    }
+                  }
+                },
+                executor));
+      }
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+    } finally {
+      executor.shutdown();
+    }
+
+    Map<Long, Long> states = new HashMap<>();
+    registry.forEach(states::put);
+    assertThat(states).hasSize(games);
+    assertThat(states.values())
+        .allSatisfy(
+            state -> {
+              assertThat(PackedBowling.score(state)).isEqualTo(20);
+              assertThat(PackedBowling.isOver(state)).isTrue();
+              assertThat(BowlingRegistry.sequence(state)).isEqualTo(20);
+            });
+  }
+}
@@ -0,0 +1,71 @@
+package com.omnifix.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class BulkScorerTests {
+
+  @Test
+  void scoresLikeGameState() {
+    int[][] games = RandomGames.games(4L, 300);
+    int[] offsets = offsets(games);
+    int[] rolls = flatten(games, offsets);
+
+    int[] scores = BulkScorer.scoreAll(rolls, offsets);
+
+    for (int i = 0; i < games.length; i++) {
+      GameState gameState = GameState.builder().build();
+      for (int pins : games[i]) {
+        gameState.roll(pins);
+      }
+      assertThat(scores[i]).as("Game %d", i).isEqualTo(gameState.score());
+    }
+  }
+
+  @Test
+  void columnarAndParallelVariantsAgree() {
+    int[][] games = RandomGames.games(5L, 5 * BulkScorer.PARALLEL_THRESHOLD + 17);
+    int[] offsets = offsets(games);
+    int[] rolls = flatten(games, offsets);
+    byte[] columnar = new byte[rolls.length];
+    for (int i = 0; i < rolls.length; i++) {
+      columnar[i] = (byte) rolls[i];
+    }
+
+    int[] scores = BulkScorer.scoreAll(rolls, offsets);
+
+    assertThat(BulkScorer.scoreAll(columnar, offsets)).isEqualTo(scores);
+    assertThat(BulkScorer.scoreAllParallel(rolls, offsets)).isEqualTo(scores);
+    assertThat(BulkScorer.scoreAllParallel(columnar, offsets)).isEqualTo(scores);
+  }
+
+  @Test
+  void scoresUnfinishedGamesAndRejectsInvalidOnes() {
+    assertThat(BulkScorer.scoreAll(new int[] {10, 3, 4, 5}, new int[] {0, 3}))
+        .containsExactly(24, 5);
+    assertThat(BulkScorer.scoreAll(new int[0], new int[0])).isEmpty();
+
+    assertThatThrownBy(() -> BulkScorer.scoreAll(new int[] {1, 1, 6, 5}, new int[] {0, 2}))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Game 1 at roll offset 3");
+  }
+
+  static int[] offsets(int[][] games) {
+    int[] offsets = new int[games.length];
+    for (int i = 1; i < games.length; i++) {
+      offsets[i] = offsets[i - 1] + games[i - 1].length;
+    }
+    return offsets;
+  }
+
+  static int[] flatten(int[][] games, int[] offsets) {
+    int length = games.length == 0 ? 0 : offsets[games.length - 1] + games[games.length - 1].length;
+    int[] rolls = new int[length];
+    for (int i = 0; i < games.length; i++) {
+      System.arraycopy(games[i], 0, rolls, offsets[i], games[i].length);
+    }
+    return rolls;
+  }
+}
@@ -0,0 +1,365 @@
+package com.omnifix.demo;
+
+import static com.omnifix.demo.BowlingConstants.ALL_PINS;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import net.jcip.annotations.ThreadSafe;
+import reactor.core.publisher.Flux;
+
+/**
+ * Seeded, parallel differential testing of the scoring engines.
+ *
+ * <p>Random valid games are generated in fixed size chunks, every chunk with its own {@link
+ * SplittableRandom} split from the seed, so a run is reproducible whatever the number of cores.
+ * Every game is scored by every engine and compared with the first engine, the reference. A game on
+ * which the engines disagree (or one of them throws) is counted, and the first ones are shrunk to a
+ * minimal reproducer: rolls are lowered one at a time, keeping the game valid and complete, as long
+ * as the engines still disagree. Broken games can be mixed in to check that the engines reject the
+ * same games and that a rejection leaves no trace in the next game scored by an engine.
+ *
+ * @author George Bilchev
+ */
+@Slf4j
+@ThreadSafe
+public class DifferentialFuzzer {
+
+  /** Games generated from one split of the seed */
+  static final int CHUNK_GAMES = 1 << 16;
+
+  /** Mismatches kept in a report, all of them are counted */
+  public static final int MAX_REPORTED = 10;
+
+  private static final int REJECTED = Integer.MIN_VALUE;
+
+  /** Scores the first {@code count} rolls of the array, which may be reused for the next game */
+  @FunctionalInterface
+  public interface Engine {
+    int score(int[] rolls, int count);
+  }
+
+  private final Map<String, Engine> engines;
+  private final String[] names;
+  private final Engine[] scorers;
+  private final int brokenGameOdds;
+
+  /** @param engines by name, the first one is the reference */
+  public DifferentialFuzzer(Map<String, Engine> engines) {
+    this(engines, 0);
+  }
+
+  /**
+   * @param engines by name, the first one is the reference
+   * @param brokenGameOdds one game in that many gets a random roll that may break the rules (0 for
+   *     none), the engines must then all reject it or agree on its score
+   */
+  public DifferentialFuzzer(Map<String, Engine> engines, int brokenGameOdds) {
+    if (engines.size() < 2) {
+      throw new IllegalArgumentException("At least two engines are needed");
+    }
+    this.engines = Collections.unmodifiableMap(new LinkedHashMap<>(engines));
+    this.names = this.engines.keySet().toArray(new String[0]);
+    this.scorers = this.engines.values().toArray(new Engine[0]);
+    this.brokenGameOdds = brokenGameOdds;
+  }
+
+  /** The allocation light engines of this package */
+  public static Map<String, Engine> fastEngines() {
+    Map<String, Engine> engines = new LinkedHashMap<>();
+    engines.put(
+        "PackedBowling",
+        (rolls, count) -> {
+          long state = PackedBowling.NEW_GAME;
+          for (int i = 0; i < count; i++) {
+            state = PackedBowling.roll(state, rolls[i]);
+          }
+          return PackedBowling.score(state);
+        });
+    engines.put(
+        "TransitionTableBowling",
+        (rolls, count) -> play(new TransitionTableBowling(), rolls, count));
+    engines.put("ScoreCard", (rolls, count) -> play(new ScoreCard(), rolls, count));
+    engines.put("GameState", (rolls, count) -> play(GameState.builder().build(), rolls, count));
+    engines.put(
+        "BulkScorer",
+        (rolls, count) -> BulkScorer.scoreAll(Arrays.copyOf(rolls, count), new int[] {0})[0]);
+    // One trie per thread that lives across games, small so that its nodes keep being evicted
+    ThreadLocal<PrefixTrieScorer> tries =
+        ThreadLocal.withInitial(() -> new PrefixTrieScorer(PrefixTrieScorer.MIN_NODES));
+    engines.put(
+        "PrefixTrieScorer",
+        (rolls, count) -> tries.get().scoreAll(new int[][] {Arrays.copyOf(rolls, count)})[0]);
+    engines.put(
+        "GameCodec",
+        (rolls, count) -> {
+          byte[] encoded = new byte[GameCodec.MAX_ENCODED_SIZE];
+          GameCodec.encode(rolls, count, encoded, 0);
+          return GameCodec.score(encoded, 0);
+        });
+    return engines;
+  }
+
+  /** The reactive engines, a few microseconds per game */
+  public static Map<String, Engine> reactiveEngines() {
+    Map<String, Engine> engines = new LinkedHashMap<>();
+    engines.put(
+        "ReactiveBowling",
+        (rolls, count) -> new ReactiveBowling().play(pinsStream(rolls, count)).blockLast());
+    engines.put(
+        "FunctionalReactiveBowling",
+        (rolls, count) ->
+            new FunctionalReactiveBowling().play(pinsStream(rolls, count)).blockLast().getT1());
+    engines.put(
+        "FunctionalReactiveBowling.FUSED",
+        (rolls, count) ->
+            new FunctionalReactiveBowling(FunctionalReactiveBowling.Mode.FUSED)
+                .score(pinsStream(rolls, count))
+                .block());
+    return engines;
+  }
+
+  /**
+   * Scores {@code games} random games with every engine
+   *
+   * @param seed
+   * @param games
+   * @return the number of games, the mismatches and the time taken
+   */
+  public Report run(long seed, long games) {
+    long start = System.nanoTime();
+    int chunks = (int) ((games + CHUNK_GAMES - 1) / CHUNK_GAMES);
+    SplittableRandom root = new SplittableRandom(seed);
+    SplittableRandom[] randoms = new SplittableRandom[chunks];
+    for (int chunk = 0; chunk < chunks; chunk++) {
+      randoms[chunk] = root.split();
+    }
+    List<Chunk> found =
+        IntStream.range(0, chunks)
+            .parallel()
+            .mapToObj(
+                chunk ->
+                    runChunk(
+                        randoms[chunk],
+                        (long) chunk * CHUNK_GAMES,
+                        (int) Math.min(CHUNK_GAMES, games - (long) chunk * CHUNK_GAMES)))
+            .collect(Collectors.toList());
+    List<Mismatch> mismatches = new ArrayList<>();
+    long mismatchCount = 0;
+    for (Chunk chunk : found) {
+      for (int i = 0; i < chunk.games.size() && mismatches.size() < MAX_REPORTED; i++) {
+        int[] minimized = chunk.broken.get(i) ? chunk.games.get(i) : minimize(chunk.games.get(i));
+        mismatches.add(
+            new Mismatch(
+                chunk.gameIndexes.get(i), chunk.games.get(i), minimized, results(minimized)));
+      }
+      mismatchCount += chunk.mismatches;
+    }
+    Report report =
+        new Report(
+            seed,
+            games,
+            mismatchCount,
+            Collections.unmodifiableList(mismatches),
+            System.nanoTime() - start);
+    log.debug("{}", report);
+    return report;
+  }
+
+  public Map<String, Engine> getEngines() {
+    return engines;
+  }
+
+  /** A game on which the engines disagree */
+  @Value
+  public static class Mismatch {
+    /** Index of the game in the run */
+    long game;
+
+    int[] rolls;
+    int[] minimized;
+    /** Score (or exception) of every engine on the minimized game */
+    Map<String, String> results;
+
+    @Override
+    public String toString() {
+      return "Game "
+          + game
+          + " "
+          + Arrays.toString(rolls)
+          + " minimized to "
+          + Arrays.toString(minimized)
+          + ": "
+          + results;
+    }
+  }
+
+  @Value
+  public static class Report {
+    long seed;
+    long games;
+    long mismatchCount;
+    /** The first mismatches by game index, at most {@link #MAX_REPORTED} */
+    List<Mismatch> mismatches;
+
+    long elapsedNanos;
+
+    public double getGamesPerSecond() {
+      return games * 1e9 / Math.max(1, elapsedNanos);
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "DifferentialFuzzer.Report(seed=%d, games=%d, mismatches=%d, gamesPerSecond=%.0f)%s",
+          seed,
+          games,
+          mismatchCount,
+          getGamesPerSecond(),
+          mismatches.stream().map(m -> "\n  " + m).collect(Collectors.joining()));
+    }
+  }
+
+  /*
+   * Implementation details
+   */
+
+  /** @return the disagreeing games of the chunk, only the first ones can be reported */
+  private Chunk runChunk(SplittableRandom random, long firstGame, int games) {
+    Chunk chunk = new Chunk();
+    int[] rolls = new int[ScoreCard.MAX_ROLLS];
+    for (int game = 0; game < games; game++) {
+      int count = RandomGames.game(random, rolls, true);
+      boolean broken = brokenGameOdds > 0 && random.nextInt(brokenGameOdds) == 0;
+      if (broken) {
+        rolls[random.nextInt(count)] = random.nextInt(ALL_PINS + 6) - 1;
+      }
+      if (disagree(rolls, count, broken)) {
+        if (chunk.games.size() < MAX_REPORTED) {
+          chunk.gameIndexes.add(firstGame + game);
+          chunk.games.add(Arrays.copyOf(rolls, count));
+          chunk.broken.add(broken);
+        }
+        chunk.mismatches++;
+      }
+    }
+    return chunk;
+  }
+
+  /** A rejected game only agrees with another rejection, and only when the game was broken */
+  private boolean disagree(int[] rolls, int count, boolean broken) {
+    int reference = outcome(0, rolls, count);
+    if (reference == REJECTED && !broken) {
+      return true;
+    }
+    for (int engine = 1; engine < scorers.length; engine++) {
+      if (outcome(engine, rolls, count) != reference) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int outcome(int engine, int[] rolls, int count) {
+    try {
+      return scorers[engine].score(rolls, count);
+    } catch (RuntimeException e) {
+      return REJECTED;
+    }
+  }
+
+  /**
+   * Lowers one roll at a time while the engines still disagree, every step lowers the sum of the
+   * pins. A lowered 10 is also tried followed by a gutter, so the rolls after a STRIKE can stay in
+   * their frames.
+   */
+  private int[] minimize(int[] rolls) {
+    int[] current = rolls;
+    boolean shrunk = true;
+    while (shrunk) {
+      shrunk = false;
+      for (int i = 0; i < current.length && !shrunk; i++) {
+        for (int pins = 0; pins < current[i] && !shrunk; pins++) {
+          for (int gutters = 0; gutters <= (current[i] == ALL_PINS ? 1 : 0) && !shrunk; gutters++) {
+            int[] candidate = complete(lower(current, i, pins, gutters));
+            if (sum(candidate) < sum(current) && disagree(candidate, candidate.length, false)) {
+              current = candidate;
+              shrunk = true;
+            }
+          }
+        }
+      }
+    }
+    return current;
+  }
+
+  /** Lowers roll {@code i} and inserts gutters after it */
+  private static int[] lower(int[] rolls, int i, int pins, int gutters) {
+    int[] lowered = new int[rolls.length + gutters];
+    System.arraycopy(rolls, 0, lowered, 0, i);
+    lowered[i] = pins;
+    System.arraycopy(rolls, i + 1, lowered, i + 1 + gutters, rolls.length - i - 1);
+    return lowered;
+  }
+
+  /**
+   * Turns edited rolls back into a valid complete game: rolls are capped by the standing pins, the
+   * rolls after the end of the game are dropped and missing rolls are gutters.
+   */
+  private static int[] complete(int[] rolls) {
+    int[] game = new int[ScoreCard.MAX_ROLLS];
+    int count = 0;
+    long state = PackedBowling.NEW_GAME;
+    for (int i = 0; !PackedBowling.isOver(state); i++) {
+      int standing = ALL_PINS - PackedBowling.prevRollValue(state);
+      int pins = i < rolls.length ? Math.min(rolls[i], standing) : 0;
+      state = PackedBowling.roll(state, pins);
+      game[count++] = pins;
+    }
+    return Arrays.copyOf(game, count);
+  }
+
+  private Map<String, String> results(int[] rolls) {
+    Map<String, String> results = new LinkedHashMap<>();
+    for (int engine = 0; engine < scorers.length; engine++) {
+      String result;
+      try {
+        result = String.valueOf(scorers[engine].score(rolls, rolls.length));
+      } catch (RuntimeException e) {
+        result = e.toString();
+      }
+      results.put(names[engine], result);
+    }
+    return results;
+  }
+
+  private static int sum(int[] rolls) {
+    return Arrays.stream(rolls).sum();
+  }
+
+  private static int play(Bowling bowling, int[] rolls, int count) {
+    for (int i = 0; i < count; i++) {
+      bowling.roll(rolls[i]);
+    }
+    return bowling.score();
+  }
+
+  private static final class Chunk {
+    final List<Long> gameIndexes = new ArrayList<>();
+    final List<int[]> games = new ArrayList<>();
+    final List<Boolean> broken = new ArrayList<>();
+    long mismatches;
+  }
+
+  private static Flux<Integer> pinsStream(int[] rolls, int count) {
+    return Flux.range(0, count).map(i -> rolls[i]);
+  }
+}
@@ -0,0 +1,99 @@
+package com.omnifix.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.omnifix.demo.verifier.BowlingGame;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+/** Raise {@code -Dfuzz.games} (e.g., to 300000000) for a long run of the fast engines */
+@Slf4j
+class DifferentialFuzzerTests {
+
+  private static final long SEED = 20211128L;
+  private static final long FAST_GAMES = Long.getLong("fuzz.games", 1_000_000L);
+  private static final long ALL_ENGINE_GAMES = Math.max(20_000L, FAST_GAMES / 50);
+
+  @Test
+  void fastEnginesAgreeWithTheVerifier() {
+    Map<String, DifferentialFuzzer.Engine> engines = new LinkedHashMap<>();
+    engines.put("verifier", DifferentialFuzzerTests::verifier);
+    engines.putAll(DifferentialFuzzer.fastEngines());
+
+    DifferentialFuzzer.Report report = new DifferentialFuzzer(engines).run(SEED, FAST_GAMES);
+
+    log.info("{}", report);
+    assertThat(report.getGames()).isEqualTo(FAST_GAMES);
+    assertThat(report.getMismatches()).isEmpty();
+  }
+
+  @Test
+  void allEnginesAgreeWithTheVerifier() {
+    Map<String, DifferentialFuzzer.Engine> engines = new LinkedHashMap<>();
+    engines.put("verifier", DifferentialFuzzerTests::verifier);
+    engines.putAll(DifferentialFuzzer.fastEngines());
+    engines.putAll(DifferentialFuzzer.reactiveEngines());
+
+    DifferentialFuzzer.Report report = new DifferentialFuzzer(engines).run(SEED, ALL_ENGINE_GAMES);
+
+    log.info("{}", report);
+    assertThat(report.getMismatches()).isEmpty();
+  }
+
+  @Test
+  void fastEnginesRejectTheSameBrokenGames() {
+    Map<String, DifferentialFuzzer.Engine> engines = DifferentialFuzzer.fastEngines();
+    engines.remove("GameState"); // Scores any number of pins
+
+    DifferentialFuzzer.Report report = new DifferentialFuzzer(engines, 4).run(SEED, 200_000);
+
+    log.info("{}", report);
+    assertThat(report.getMismatches()).isEmpty();
+  }
+
+  @Test
+  void reportsAReproducibleMinimizedMismatch() {
+    Map<String, DifferentialFuzzer.Engine> engines = new LinkedHashMap<>();
+    engines.put("PackedBowling", DifferentialFuzzer.fastEngines().get("PackedBowling"));
+    // Planted bug: the bonus rolls of frame 10 are not counted
+    engines.put(
+        "buggy",
+        (rolls, count) -> {
+          long state = PackedBowling.NEW_GAME;
+          int lastFrameScore = 0;
+          for (int i = 0; i < count; i++) {
+            long next = PackedBowling.roll(state, rolls[i]);
+            if (PackedBowling.rollIndex(state) == 21) {
+              lastFrameScore = PackedBowling.score(next) - PackedBowling.score(state);
+            }
+            state = next;
+          }
+          return PackedBowling.score(state) - lastFrameScore;
+        });
+    DifferentialFuzzer fuzzer = new DifferentialFuzzer(engines);
+
+    DifferentialFuzzer.Report report = fuzzer.run(SEED, 100_000);
+
+    assertThat(report.getMismatchCount()).isGreaterThan(1_000);
+    assertThat(report.getMismatches()).hasSize(DifferentialFuzzer.MAX_REPORTED);
+    DifferentialFuzzer.Mismatch first = report.getMismatches().get(0);
+    // Nine gutter frames and a SPARE with a single pin for the bonus roll
+    assertThat(first.getMinimized()).hasSize(21).startsWith(new int[18]);
+    assertThat(Arrays.stream(first.getMinimized()).sum()).isEqualTo(11);
+    assertThat(first.getResults())
+        .containsEntry("PackedBowling", "11")
+        .containsEntry("buggy", "10");
+    assertThat(fuzzer.run(SEED, 100_000).getMismatches()).isEqualTo(report.getMismatches());
+  }
+
+  private static int verifier(int[] rolls, int count) {
+    BowlingGame game = new BowlingGame();
+    for (int i = 0; i < count; i++) {
+      game.roll(rolls[i]);
+    }
+    return game.getScore();
+  }
+}
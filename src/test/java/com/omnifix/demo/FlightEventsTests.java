@@ -0,0 +1,111 @@
+package com.omnifix.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+class FlightEventsTests {
+
+  @TempDir Path directory;
+
+  @Test
+  void recordsTheLifecycleAndTheRollsOfAGame() throws Exception {
+    List<RecordedEvent> events;
+    try (Recording recording = new Recording()) {
+      recording.enable(FlightEvents.GAME_STARTED);
+      recording.enable(FlightEvents.ROLL_APPLIED).withThreshold(Duration.ZERO);
+      recording.enable(FlightEvents.GAME_COMPLETED);
+      recording.start();
+
+      GameState game = GameState.builder().gameId(7L).build();
+      for (int pins : new int[] {10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10}) {
+        game.roll(pins);
+      }
+
+      events = stop(recording);
+    }
+
+    assertThat(ofType(events, FlightEvents.GAME_STARTED))
+        .singleElement()
+        .satisfies(event -> assertThat(event.getLong("gameId")).isEqualTo(7L));
+    List<RecordedEvent> rolls = ofType(events, FlightEvents.ROLL_APPLIED);
+    assertThat(rolls).hasSize(12);
+    assertThat(rolls.get(0).getString("fromState")).isEqualTo("FIRST_GO");
+    assertThat(rolls.get(11).getString("fromState")).isEqualTo("BONUS_GO");
+    assertThat(rolls.get(11).getString("toState")).isEqualTo("END_OF_GAME");
+    assertThat(rolls.get(11).getInt("score")).isEqualTo(300);
+    assertThat(ofType(events, FlightEvents.GAME_COMPLETED))
+        .singleElement()
+        .satisfies(event -> assertThat(event.getInt("score")).isEqualTo(300));
+  }
+
+  @Test
+  void recordsOnlyTheRollsAboveTheThreshold() throws Exception {
+    List<RecordedEvent> events;
+    try (Recording recording = new Recording()) {
+      recording.enable(FlightEvents.ROLL_APPLIED).withThreshold(Duration.ofSeconds(10));
+      recording.start();
+
+      GameState game = GameState.builder().build();
+      for (int pins : RandomGames.games(3L, 1)[0]) {
+        game.roll(pins);
+      }
+
+      events = stop(recording);
+    }
+
+    assertThat(ofType(events, FlightEvents.ROLL_APPLIED)).isEmpty();
+  }
+
+  @Test
+  void recordsTheWaitsForDemandOfTheReactivePipeline() throws Exception {
+    List<RecordedEvent> events;
+    try (Recording recording = new Recording()) {
+      recording.enable(FlightEvents.BACKPRESSURE).withThreshold(Duration.ZERO);
+      recording.start();
+
+      StepVerifier.create(new ReactiveBowling().play(Flux.just(3, 4, 5, 5, 1)), 0)
+          .thenRequest(2)
+          .expectNextCount(2)
+          .thenAwait(Duration.ofMillis(20))
+          .thenRequest(3)
+          .expectNextCount(3)
+          .verifyComplete();
+
+      events = stop(recording);
+    }
+
+    assertThat(ofType(events, FlightEvents.BACKPRESSURE))
+        .singleElement()
+        .satisfies(
+            event -> {
+              assertThat(event.getString("pipeline")).isEqualTo("ReactiveBowling");
+              assertThat(event.getLong("delivered")).isEqualTo(2);
+              assertThat(event.getLong("requested")).isEqualTo(3);
+              assertThat(event.getDuration()).isGreaterThanOrEqualTo(Duration.ofMillis(20));
+            });
+  }
+
+  private List<RecordedEvent> stop(Recording recording) throws Exception {
+    recording.stop();
+    Path file = directory.resolve("recording.jfr");
+    recording.dump(file);
+    return RecordingFile.readAllEvents(file);
+  }
+
+  private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+    return events.stream()
+        .filter(event -> event.getEventType().getName().equals(name))
+        .collect(Collectors.toList());
+  }
+}
@@ -2,21 +2,27 @@ package com.omnifix.demo;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import reactor.core.Fuseable;
 import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
 
 class FunctionalReactiveTenPinBwlingTests {
 
   private ReactiveBowling reactiveBowling;
   private FunctionalReactiveBowling standaloneReactiveBowling;
+  private FunctionalReactiveBowling fusedReactiveBowling;
 
   @BeforeAll
   static void setUpBeforeClass() throws Exception {}
@@ -28,6 +34,7 @@ class FunctionalReactiveTenPinBwlingTests {
   void setUp() throws Exception {
     reactiveBowling = new ReactiveBowling();
     standaloneReactiveBowling = new FunctionalReactiveBowling();
+    fusedReactiveBowling = new FunctionalReactiveBowling(FunctionalReactiveBowling.Mode.FUSED);
   }
 
   @AfterEach
@@ -43,6 +50,46 @@ class FunctionalReactiveTenPinBwlingTests {
         .isEqualTo(score); // Expected score sequence
   }
 
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("provideParameters")
+  void fusedScenariosTests(String scenarioName, List<Integer> pins, Integer score) {
+
+    Flux<Integer> pinsStream = Flux.fromIterable(pins);
+
+    assertThat(fusedReactiveBowling.play(pinsStream).collectList().block())
+        .isEqualTo(standaloneReactiveBowling.play(pinsStream).collectList().block());
+    assertThat(fusedReactiveBowling.score(pinsStream).block()).isEqualTo(score);
+    assertThat(standaloneReactiveBowling.score(pinsStream).block()).isEqualTo(score);
+  }
+
+  @Test
+  void fusedModeEmitsTheSameRegistryForRandomGames() {
+    for (int[] game : RandomGames.games(9L, 200)) {
+      Flux<Integer> pinsStream =
+          Flux.fromIterable(Arrays.stream(game).boxed().collect(Collectors.toList()));
+
+      assertThat(fusedReactiveBowling.play(pinsStream).collectList().block())
+          .as(Arrays.toString(game))
+          .isEqualTo(standaloneReactiveBowling.play(pinsStream).collectList().block());
+    }
+  }
+
+  @Test
+  void fusedModeSupportsSyncAndAsyncFusion() {
+    List<Integer> pins = List.of(10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10);
+
+    StepVerifier.create(fusedReactiveBowling.play(Flux.fromIterable(pins)))
+        .expectFusion(Fuseable.SYNC)
+        .expectNextCount(11)
+        .assertNext(state -> assertThat(state.getT1()).isEqualTo(300))
+        .verifyComplete();
+    StepVerifier.create(fusedReactiveBowling.play(Flux.fromIterable(pins).onBackpressureBuffer()))
+        .expectFusion(Fuseable.ASYNC)
+        .expectNextCount(11)
+        .assertNext(state -> assertThat(state.getT1()).isEqualTo(300))
+        .verifyComplete();
+  }
+
   private static Stream<Arguments> provideParameters() {
     return Stream.of(
         Arguments.of("One frame", List.of(5, 3), 8),
@@ -0,0 +1,84 @@
+package com.omnifix.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class GameCodecTests {
+
+  @Test
+  void encodesTwoRollsPerByteAfterALengthByte() {
+    byte[] encoded = GameCodec.encode(new int[] {10, 7, 3});
+
+    assertThat(encoded).containsExactly(3, 0x7A, 3);
+    assertThat(GameCodec.decode(encoded, 0)).containsExactly(10, 7, 3);
+    assertThat(GameCodec.score(encoded, 0)).isEqualTo(30);
+
+    byte[] perfect = GameCodec.encode(new int[] {10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10});
+    assertThat(perfect).hasSize(7);
+    assertThat(GameCodec.score(perfect, 0)).isEqualTo(300);
+    assertThat(GameCodec.encodedSize(21)).isEqualTo(GameCodec.MAX_ENCODED_SIZE).isEqualTo(12);
+  }
+
+  @Test
+  void scoresGamesStoredBackToBackWithoutDecodingThem() {
+    int[][] games = RandomGames.games(37L, 10_000);
+    byte[] encoded = new byte[games.length * GameCodec.MAX_ENCODED_SIZE];
+    int offset = 0;
+    for (int[] game : games) {
+      ScoreCard card = new ScoreCard();
+      for (int noOfPins : game) {
+        card.roll(noOfPins);
+      }
+      int end = GameCodec.encode(card, encoded, offset);
+      assertThat(end - offset).isLessThanOrEqualTo(GameCodec.MAX_ENCODED_SIZE);
+      assertThat(GameCodec.decode(encoded, offset)).containsExactly(game);
+      offset = end;
+    }
+    encoded = Arrays.copyOf(encoded, offset);
+
+    int[] gameOffsets = BulkScorerTests.offsets(games);
+    assertThat(GameCodec.count(encoded, 0)).isEqualTo(games.length);
+    assertThat(GameCodec.scoreAll(encoded, 0))
+        .containsExactly(
+            BulkScorer.scoreAll(BulkScorerTests.flatten(games, gameOffsets), gameOffsets));
+  }
+
+  @Test
+  void rejectsInvalidGames() {
+    assertThatThrownBy(() -> GameCodec.encode(new int[] {11}))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> GameCodec.encode(new int[22]))
+        .isInstanceOf(IllegalArgumentException.class);
+
+    byte[] encoded = new byte[4];
+    GameCodec.encode(new int[] {1, 2}, 2, encoded, 0);
+    GameCodec.encode(new int[] {6, 5}, 2, encoded, 2);
+    assertThatThrownBy(() -> GameCodec.scoreAll(encoded, 0))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageStartingWith("Game 1 at byte offset 3: Invalid number of pins 5");
+    assertThatThrownBy(() -> GameCodec.score(new byte[] {30}, 0))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Invalid number of rolls 30");
+  }
+
+  @Test
+  void rejectsTruncatedGames() {
+    byte[] encoded = new byte[GameCodec.encodedSize(12) + GameCodec.encodedSize(5)];
+    int end = GameCodec.encode(new int[12], 12, encoded, 0);
+    GameCodec.encode(new int[] {1, 2, 3, 4, 5}, 5, encoded, end);
+    byte[] truncated = Arrays.copyOf(encoded, encoded.length - 1);
+
+    assertThatThrownBy(() -> GameCodec.count(truncated, 0))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Truncated game of 5 rolls at byte offset " + end);
+    assertThatThrownBy(() -> GameCodec.scoreAll(truncated, 0))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Truncated game of 5 rolls at byte offset " + end);
+    assertThatThrownBy(() -> GameCodec.score(truncated, end))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThat(GameCodec.score(truncated, 0)).isZero();
+  }
+}
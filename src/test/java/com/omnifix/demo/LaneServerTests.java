@@ -0,0 +1,190 @@
+package com.omnifix.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LaneServerTests {
+
+  private LaneServer server;
+  private SocketChannel terminal;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = new LaneServer(new InetSocketAddress("127.0.0.1", 0));
+    terminal = SocketChannel.open(server.getAddress());
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    terminal.close();
+    server.close();
+  }
+
+  @Test
+  void scoresPipelinedGames() throws Exception {
+    ByteBuffer requests = ByteBuffer.allocate(1024);
+    LaneServer.putNewGame(requests, 0);
+    LaneServer.putNewGame(requests, 255);
+    for (int roll = 0; roll < 12; roll++) {
+      LaneServer.putRoll(requests, 0, 10);
+    }
+    for (int pins : new int[] {10, 7, 3, 9, 0}) {
+      LaneServer.putRoll(requests, 255, pins);
+    }
+    write(requests);
+
+    ByteBuffer acks = read(2 + 12 + 5);
+
+    assertAck(acks, 0, LaneServer.SCORED, 0, 0);
+    assertAck(acks, 1, LaneServer.SCORED, 255, 0);
+    assertAck(acks, 2, LaneServer.SCORED, 0, 10);
+    assertAck(acks, 11, LaneServer.SCORED, 0, 270);
+    assertAck(acks, 13, LaneServer.COMPLETED, 0, 300);
+    assertAck(acks, 18, LaneServer.SCORED, 255, 48);
+  }
+
+  @Test
+  void rejectsInvalidRequests() throws Exception {
+    ByteBuffer requests = ByteBuffer.allocate(1024);
+    LaneServer.putRoll(requests, 3, 5);
+    LaneServer.putNewGame(requests, 3);
+    LaneServer.putRoll(requests, 3, 11);
+    LaneServer.putRoll(requests, 3, 7);
+    LaneServer.putRoll(requests, 3, 4);
+    requests.put((byte) 2).put((byte) 9).put((byte) 3);
+    for (int roll = 0; roll < 19; roll++) {
+      LaneServer.putRoll(requests, 3, 0);
+    }
+    LaneServer.putRoll(requests, 3, 0);
+    write(requests);
+
+    ByteBuffer acks = read(6 + 19 + 1);
+
+    assertAck(acks, 0, LaneServer.NO_GAME, 3, 0);
+    assertAck(acks, 2, LaneServer.INVALID_ROLL, 3, 0);
+    assertAck(acks, 4, LaneServer.INVALID_ROLL, 3, 7);
+    assertAck(acks, 5, LaneServer.UNKNOWN_REQUEST, 3, 0);
+    assertAck(acks, 24, LaneServer.COMPLETED, 3, 7);
+    assertAck(acks, 25, LaneServer.GAME_OVER, 3, 7);
+  }
+
+  @Test
+  void scoresRequestsSplitAcrossReads() throws Exception {
+    ByteBuffer requests = ByteBuffer.allocate(1024);
+    LaneServer.putNewGame(requests, 1);
+    LaneServer.putRoll(requests, 1, 7);
+    LaneServer.putRoll(requests, 1, 3);
+    requests.flip();
+    for (int end = 2; end <= requests.limit(); end += 3) {
+      ByteBuffer part = requests.duplicate().limit(end);
+      terminal.write(part);
+      requests.position(end);
+      Thread.sleep(20); // Lets the server read the part alone
+    }
+
+    ByteBuffer acks = read(3);
+
+    assertAck(acks, 0, LaneServer.SCORED, 1, 0);
+    assertAck(acks, 1, LaneServer.SCORED, 1, 7);
+    assertAck(acks, 2, LaneServer.SCORED, 1, 10);
+  }
+
+  @Test
+  void closesOnlyTheBrokenTerminal() throws Exception {
+    try (SocketChannel broken = SocketChannel.open(server.getAddress())) {
+      broken.write(ByteBuffer.wrap(new byte[] {0})); // Empty message
+
+      assertThat(broken.read(ByteBuffer.allocate(LaneServer.ACK_SIZE))).isEqualTo(-1);
+    }
+    ByteBuffer requests = ByteBuffer.allocate(1024);
+    LaneServer.putNewGame(requests, 7);
+    LaneServer.putRoll(requests, 7, 9);
+    write(requests);
+
+    assertAck(read(2), 1, LaneServer.SCORED, 7, 9);
+  }
+
+  @Test
+  void keepsUpWithATerminalThatReadsLate() throws Exception {
+    // More acks than the socket buffers and the server output hold, so the server has to wait
+    SplittableRandom random = new SplittableRandom(42);
+    int rounds = 100;
+    int[] rolls = new int[ScoreCard.MAX_ROLLS];
+    ByteBuffer requests = ByteBuffer.allocate(rounds * LaneServer.SLOTS * 22 * 4);
+    int[] expected = new int[rounds * LaneServer.SLOTS];
+    int count = 0;
+    for (int game = 0; game < expected.length; game++) {
+      int slot = game % LaneServer.SLOTS;
+      LaneServer.putNewGame(requests, slot);
+      long state = PackedBowling.NEW_GAME;
+      for (int roll = 0, rollCount = RandomGames.game(random, rolls, true);
+          roll < rollCount;
+          roll++) {
+        LaneServer.putRoll(requests, slot, rolls[roll]);
+        state = PackedBowling.roll(state, rolls[roll]);
+        count++;
+      }
+      expected[game] = PackedBowling.score(state);
+      count++;
+    }
+    CompletableFuture<Void> writer =
+        CompletableFuture.runAsync(
+            () -> {
+              try {
+                write(requests);
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
+            });
+
+    ByteBuffer acks = read(count);
+    writer.join();
+
+    int completed = 0;
+    for (int ack = 0; ack < count; ack++) {
+      int at = ack * LaneServer.ACK_SIZE;
+      assertThat(acks.get(at + 1)).isIn(LaneServer.SCORED, LaneServer.COMPLETED);
+      if (acks.get(at + 1) == LaneServer.COMPLETED) {
+        assertThat(acks.getShort(at + 3)).isEqualTo((short) expected[completed++]);
+      }
+    }
+    assertThat(completed).isEqualTo(expected.length);
+    assertThat(server.getRequestCount()).isEqualTo(count);
+    assertThat(server.getBatchCount()).isLessThan(count / 10);
+  }
+
+  private void write(ByteBuffer requests) throws IOException {
+    requests.flip();
+    while (requests.hasRemaining()) {
+      terminal.write(requests);
+    }
+  }
+
+  private ByteBuffer read(int acks) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(acks * LaneServer.ACK_SIZE);
+    while (buffer.hasRemaining()) {
+      if (terminal.read(buffer) < 0) {
+        throw new IOException("Closed by the server");
+      }
+    }
+    return buffer.flip();
+  }
+
+  private static void assertAck(ByteBuffer acks, int ack, byte status, int slot, int score) {
+    int at = ack * LaneServer.ACK_SIZE;
+    assertThat(acks.get(at)).isEqualTo((byte) (LaneServer.ACK_SIZE - 1));
+    assertThat(acks.get(at + 1)).isEqualTo(status);
+    assertThat(acks.get(at + 2) & 0xFF).isEqualTo(slot);
+    assertThat(acks.getShort(at + 3)).isEqualTo((short) score);
+  }
+}
@@ -0,0 +1,157 @@
+package com.omnifix.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.Test;
+
+class LeaderboardTests {
+
+  @Test
+  void keepsTheTopGamesAndRanksTies() {
+    Leaderboard leaderboard = new Leaderboard(3, 4);
+    leaderboard.update(1L, 1, 50);
+    leaderboard.update(2L, 1, 80);
+    leaderboard.update(3L, 1, 80);
+    leaderboard.update(4L, 1, 20);
+    leaderboard.update(5L, 1, 10);
+
+    Leaderboard.Snapshot snapshot = leaderboard.snapshot();
+    assertThat(snapshot.size()).isEqualTo(3);
+    assertThat(snapshot.getGames()).isEqualTo(5);
+    assertThat(new long[] {snapshot.getGameId(0), snapshot.getGameId(1), snapshot.getGameId(2)})
+        .containsExactly(2L, 3L, 1L);
+    assertThat(new int[] {snapshot.getRank(0), snapshot.getRank(1), snapshot.getRank(2)})
+        .containsExactly(1, 1, 3);
+    assertThat(snapshot.rankOf(20)).isEqualTo(4);
+    assertThat(leaderboard.rank(5L)).isEqualTo(5);
+
+    leaderboard.update(5L, 2, 90);
+    leaderboard.remove(2L);
+    assertThat(leaderboard.rank(5L)).isEqualTo(1);
+    assertThat(leaderboard.rank(3L)).isEqualTo(2);
+    assertThat(leaderboard.snapshot().toString())
+        .isEqualTo("Leaderboard.Snapshot(games=4, top=[1. 5=90, 2. 3=80, 3. 1=50])");
+    // The old snapshot is not affected
+    assertThat(snapshot.getGameId(0)).isEqualTo(2L);
+    assertThatThrownBy(() -> leaderboard.rank(2L)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void ignoresUpdatesOlderThanTheRecordedOne() {
+    Leaderboard leaderboard = new Leaderboard(10);
+    BowlingRegistry registry = new BowlingRegistry(4);
+    long first = registry.roll(9L, 7);
+    long second = registry.roll(9L, 2);
+
+    assertThat(leaderboard.update(9L, second)).isTrue();
+    assertThat(leaderboard.update(9L, first)).isFalse();
+    assertThat(leaderboard.score(9L)).isEqualTo(9);
+    // Wraps around with the 24 bit registry sequence
+    leaderboard.update(8L, 0xFFFFFF, 1);
+    assertThat(leaderboard.update(8L, 0, 2)).isTrue();
+    assertThat(leaderboard.score(8L)).isEqualTo(2);
+  }
+
+  @Test
+  void concurrentGamesEndUpRankedByTheirFinalScores() throws Exception {
+    int[][] games = RandomGames.games(29L, 20_000);
+    int threads = 4;
+    BowlingRegistry registry = new BowlingRegistry(games.length);
+    Leaderboard leaderboard = new Leaderboard(100, 8);
+    ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+    try {
+      List<CompletableFuture<Void>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        int thread = t;
+        futures.add(
+            CompletableFuture.runAsync(
+                () -> {
+                  for (int game = thread; game < games.length; game += threads) {
+                    for (int noOfPins : games[game]) {
+                      leaderboard.update(game + 1L, registry.roll(game + 1L, noOfPins));
+                    }
+                  }
+                },
+                executor));
+      }
+      CompletableFuture<Void> rendering =
+          CompletableFuture.runAsync(
+              () -> {
+                for (int i = 0; i < 200; i++) {
+                  Leaderboard.Snapshot snapshot = leaderboard.snapshot();
+                  for (int position = 1; position < snapshot.size(); position++) {
+                    assertThat(snapshot.getScore(position))
+                        .isLessThanOrEqualTo(snapshot.getScore(position - 1));
+                  }
+                  assertThat(snapshot.rankOf(0) - 1).isLessThanOrEqualTo(snapshot.getGames());
+                }
+              },
+              executor);
+      futures.add(rendering);
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+    } finally {
+      executor.shutdown();
+    }
+
+    int[] gameOffsets = BulkScorerTests.offsets(games);
+    int[] finalScores =
+        BulkScorer.scoreAll(BulkScorerTests.flatten(games, gameOffsets), gameOffsets);
+    Map<Long, Integer> scores = new HashMap<>();
+    for (int game = 0; game < games.length; game++) {
+      scores.put(game + 1L, finalScores[game]);
+    }
+    List<Map.Entry<Long, Integer>> expected = new ArrayList<>(scores.entrySet());
+    expected.sort(
+        Map.Entry.<Long, Integer>comparingByValue(Comparator.reverseOrder())
+            .thenComparing(Map.Entry.comparingByKey()));
+
+    Leaderboard.Snapshot snapshot = leaderboard.snapshot();
+    assertThat(snapshot.getGames()).isEqualTo(games.length).isEqualTo(leaderboard.size());
+    for (int position = 0; position < snapshot.size(); position++) {
+      assertThat(snapshot.getGameId(position)).isEqualTo(expected.get(position).getKey());
+      assertThat(snapshot.getScore(position)).isEqualTo(expected.get(position).getValue());
+    }
+    for (long gameId = 1; gameId <= games.length; gameId += 997) {
+      int score = scores.get(gameId);
+      int expectedRank = 1 + (int) scores.values().stream().filter(s -> s > score).count();
+      assertThat(leaderboard.rank(gameId)).isEqualTo(expectedRank);
+    }
+  }
+
+  @Test
+  void selectsTheLowestIdsOfAScoreMostGamesShare() {
+    // New games all sit at 0, so the top K ends in a tie of nearly all games
+    Leaderboard leaderboard = new Leaderboard(100, 16);
+    SplittableRandom random = new SplittableRandom(7);
+    Map<Long, Integer> scores = new HashMap<>();
+    while (scores.size() < 200_000) {
+      long gameId = random.nextLong(1, Long.MAX_VALUE);
+      int score = scores.size() < 30 ? 1 + random.nextInt(Leaderboard.MAX_SCORE) : 0;
+      if (scores.putIfAbsent(gameId, score) == null) {
+        leaderboard.update(gameId, 1, score);
+      }
+    }
+    List<Map.Entry<Long, Integer>> expected = new ArrayList<>(scores.entrySet());
+    expected.sort(
+        Map.Entry.<Long, Integer>comparingByValue(Comparator.reverseOrder())
+            .thenComparing(Map.Entry.comparingByKey()));
+
+    Leaderboard.Snapshot snapshot = leaderboard.snapshot();
+
+    assertThat(snapshot.size()).isEqualTo(100);
+    for (int position = 0; position < snapshot.size(); position++) {
+      assertThat(snapshot.getGameId(position)).isEqualTo(expected.get(position).getKey());
+      assertThat(snapshot.getScore(position)).isEqualTo(expected.get(position).getValue());
+    }
+  }
+}
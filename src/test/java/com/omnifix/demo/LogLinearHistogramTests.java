@@ -0,0 +1,51 @@
+package com.omnifix.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class LogLinearHistogramTests {
+
+  @Test
+  void bucketsAreContiguousAndOrdered() {
+    assertThat(LogLinearHistogram.bucket(0)).isZero();
+    assertThat(LogLinearHistogram.bucket(Long.MAX_VALUE)).isLessThan(LogLinearHistogram.BUCKETS);
+    for (int bucket = 0; bucket < LogLinearHistogram.bucket(Long.MAX_VALUE); bucket++) {
+      long highest = LogLinearHistogram.highestValue(bucket);
+      assertThat(LogLinearHistogram.bucket(highest)).isEqualTo(bucket);
+      assertThat(LogLinearHistogram.bucket(highest + 1)).isEqualTo(bucket + 1);
+    }
+  }
+
+  @Test
+  void quantilesAreWithinTheBucketPrecision() {
+    LogLinearHistogram histogram = new LogLinearHistogram();
+    for (int value = 1; value <= 100_000; value++) {
+      histogram.record(value);
+    }
+
+    LogLinearHistogram.Snapshot snapshot = histogram.snapshot();
+    assertThat(snapshot.getCount()).isEqualTo(100_000);
+    assertThat(snapshot.getMax()).isEqualTo(100_000);
+    assertThat(snapshot.getMean()).isEqualTo(50_000.5);
+    assertThat(snapshot.valueAt(0.5)).isBetween(50_000L, 50_000L * 17 / 16);
+    assertThat(snapshot.valueAt(0.99)).isBetween(99_000L, 100_000L);
+    assertThat(snapshot.valueAt(1)).isEqualTo(100_000);
+    assertThat(new LogLinearHistogram().snapshot().valueAt(0.99)).isZero();
+  }
+
+  @Test
+  void recordsConcurrently() {
+    LogLinearHistogram histogram = new LogLinearHistogram();
+    SplittableRandom random = new SplittableRandom(9L);
+    long[] values = random.longs(400_000, 0, 1_000_000).toArray();
+
+    IntStream.range(0, values.length).parallel().forEach(i -> histogram.record(values[i]));
+
+    assertThat(histogram.snapshot().getCount()).isEqualTo(values.length);
+    histogram.reset();
+    assertThat(histogram.snapshot().getCount()).isZero();
+  }
+}
@@ -0,0 +1,97 @@
+package com.omnifix.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+class MultiGameReactiveBowlingTests {
+
+  @Test
+  void scoresInterleavedGamesInRollOrder() {
+    int[][] games = RandomGames.games(21L, 5_000);
+    List<LaneRoll> rolls = interleave(games, new SplittableRandom(5L));
+
+    List<ScoreUpdate> updates =
+        new MultiGameReactiveBowling(4, Schedulers.parallel())
+            .play(Flux.fromIterable(rolls))
+            .collectList()
+            .block();
+
+    assertThat(updates).hasSize(rolls.size());
+    Map<Long, Long> states = new HashMap<>();
+    for (ScoreUpdate update : updates) {
+      long state =
+          PackedBowling.roll(states.getOrDefault(update.getGameId(), 0L), update.getPins());
+      states.put(update.getGameId(), state);
+      assertThat(update.getScore()).isEqualTo(PackedBowling.score(state));
+      assertThat(update.isGameOver()).isEqualTo(PackedBowling.isOver(state));
+      assertThat(update.getLaneId()).isEqualTo((int) (update.getGameId() % 40));
+    }
+    for (int game = 0; game < games.length; game++) {
+      assertThat(PackedBowling.score(states.get(game + 1L)))
+          .isEqualTo(BulkScorer.scoreAll(games[game], new int[] {0})[0]);
+    }
+  }
+
+  @Test
+  void startsANewGameUnderTheIdOfAFinishedGame() {
+    Flux<LaneRoll> rolls = Flux.range(0, 14).map(i -> LaneRoll.of(1, 7L, i < 12 ? 10 : 3));
+
+    StepVerifier.create(new MultiGameReactiveBowling(2, Schedulers.immediate()).play(rolls))
+        .expectNextCount(11)
+        .expectNext(ScoreUpdate.of(1, 7L, 10, 300, true))
+        .expectNext(ScoreUpdate.of(1, 7L, 3, 3, false))
+        .expectNext(ScoreUpdate.of(1, 7L, 3, 6, false))
+        .verifyComplete();
+  }
+
+  @Test
+  void respectsBackpressureAndSkipsRejectedRolls() {
+    Flux<LaneRoll> rolls =
+        Flux.just(
+            LaneRoll.of(1, 1L, 6),
+            LaneRoll.of(2, 2L, 4),
+            LaneRoll.of(1, 1L, 5), // Only 4 pins standing
+            LaneRoll.of(1, 1L, 4),
+            LaneRoll.of(2, 2L, 6));
+
+    StepVerifier.create(
+            new MultiGameReactiveBowling(2, Schedulers.immediate())
+                .play(rolls)
+                .onErrorContinue(IllegalArgumentException.class, (e, roll) -> {}),
+            1)
+        .expectNextCount(1)
+        .thenRequest(3)
+        .expectNextCount(3)
+        .verifyComplete();
+  }
+
+  /** Rolls of all the games, every game keeps its own order */
+  static List<LaneRoll> interleave(int[][] games, SplittableRandom random) {
+    List<LaneRoll> rolls = new ArrayList<>();
+    int[] next = new int[games.length];
+    List<Integer> live = new ArrayList<>();
+    for (int game = 0; game < games.length; game++) {
+      live.add(game);
+    }
+    while (!live.isEmpty()) {
+      int pick = random.nextInt(live.size());
+      int game = live.get(pick);
+      long gameId = game + 1L;
+      rolls.add(LaneRoll.of((int) (gameId % 40), gameId, games[game][next[game]++]));
+      if (next[game] == games[game].length) {
+        live.set(pick, live.get(live.size() - 1));
+        live.remove(live.size() - 1);
+      }
+    }
+    return rolls;
+  }
+}
@@ -0,0 +1,94 @@
+package com.omnifix.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class NotationParserTests {
+
+  @TempDir Path directory;
+
+  @Test
+  void scoresStandardNotation() {
+    NotationParser.Result result =
+        parse(
+            "X X X X X X X X X XXX\n"
+                + "9- 9- 9- 9- 9- 9- 9- 9- 9- 9-\r\n"
+                + "\n"
+                + "5/ 5/ 5/ 5/ 5/ 5/ 5/ 5/ 5/ 5/5\n"
+                + "X 7/ 9- X -8 8/ -6 X X X81");
+
+    assertThat(result.getScores()).containsExactly(300, 90, 150, 167);
+    assertThat(result.getLines()).isEqualTo(5);
+    assertThat(result.getMalformedLines()).isEmpty();
+  }
+
+  @Test
+  void reportsMalformedLinesAndCarriesOn() {
+    String text =
+        "X X X X X X X X X XXX\n"
+            + "X 7/ 9- Q\n" // Offset 30
+            + "7 5\n" // Offset 34, too many pins
+            + "X X X X X X X X X X\n" // Offset 55, no bonus rolls
+            + "-- -- -- -- -- -- -- -- -- -- -\n" // Offset 86, after the end of the game
+            + "/5 X\n" // Offset 88
+            + "-/ -- -- -- -- -- -- -- -- --";
+
+    NotationParser.Result result = parse(text);
+
+    assertThat(result.getScores()).containsExactly(300, -1, -1, -1, -1, -1, 10);
+    assertThat(result.getMalformedLines())
+        .extracting(NotationParser.MalformedLine::getOffset)
+        .containsExactly(30L, 34L, 55L, 86L, 88L);
+    assertThat(result.getMalformedLines())
+        .extracting(NotationParser.MalformedLine::getLine)
+        .containsExactly(2L, 3L, 4L, 5L, 6L);
+    assertThat(result.getMalformedLines().get(0).getMessage()).contains("'Q'");
+    assertThat(result.getMalformedLines().get(1).getMessage()).contains("Invalid number of pins");
+    assertThat(result.getMalformedLines().get(2).getMessage()).isEqualTo("Incomplete game");
+    assertThat(result.getMalformedLines().get(3).getMessage()).contains("End of game");
+    assertThat(result.getMalformedLines().get(4).getGame()).isEqualTo(5);
+  }
+
+  @Test
+  void mappedFilesMatchTheBulkScorerSequentiallyAndInParallel() throws Exception {
+    int[][] games = RandomGames.games(31L, 30_000);
+    StringBuilder text = new StringBuilder();
+    for (int[] game : games) {
+      text.append(NotationParser.format(game)).append('\n');
+    }
+    text.append("X X oops\n");
+    Path file = directory.resolve("archive.txt");
+    Files.write(file, text.toString().getBytes(StandardCharsets.US_ASCII));
+    int[] gameOffsets = BulkScorerTests.offsets(games);
+    int[] expected = BulkScorer.scoreAll(BulkScorerTests.flatten(games, gameOffsets), gameOffsets);
+
+    // Small regions check the splitting of a file on line boundaries
+    for (NotationParser.Result result :
+        new NotationParser.Result[] {
+          NotationParser.parse(file),
+          NotationParser.parseParallel(file),
+          NotationParser.parse(file, 100_000, false),
+          NotationParser.parse(file, 100_000, true)
+        }) {
+      assertThat(result.getGames()).isEqualTo(games.length + 1);
+      for (int game = 0; game < games.length; game++) {
+        assertThat(result.getScores()[game]).isEqualTo(expected[game]);
+      }
+      assertThat(result.getMalformedLines()).hasSize(1);
+      NotationParser.MalformedLine malformed = result.getMalformedLines().get(0);
+      assertThat(malformed.getLine()).isEqualTo(games.length + 1);
+      assertThat(malformed.getGame()).isEqualTo(games.length);
+      assertThat(malformed.getOffset()).isEqualTo(text.length() - 5);
+    }
+  }
+
+  private static NotationParser.Result parse(String text) {
+    return NotationParser.parse(ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII)));
+  }
+}
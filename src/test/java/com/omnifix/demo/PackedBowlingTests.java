@@ -0,0 +1,125 @@
+package com.omnifix.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class PackedBowlingTests {
+
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("provideParameters")
+  void multipleScenariosTests(String scenarioName, List<Integer> pins, Integer score) {
+    PackedBowling game = new PackedBowling();
+
+    pins.forEach(game::roll);
+
+    assertThat(game.score()).isEqualTo(score);
+  }
+
+  @Test
+  void canHoldManyGamesInLongArray() {
+    long[] games = new long[3];
+
+    for (int i = 0; i < 12; i++) {
+      games[0] = PackedBowling.roll(games[0], 10);
+    }
+    for (int i = 0; i < 20; i++) {
+      games[1] = PackedBowling.roll(games[1], 4);
+    }
+
+    assertThat(PackedBowling.score(games[0])).isEqualTo(300);
+    assertThat(PackedBowling.score(games[1])).isEqualTo(80);
+    assertThat(PackedBowling.score(games[2])).isZero();
+    assertThat(PackedBowling.isOver(games[0])).isTrue();
+    assertThat(PackedBowling.isOver(games[1])).isTrue();
+    assertThat(games[2]).isEqualTo(PackedBowling.NEW_GAME);
+  }
+
+  @Test
+  void preservesCallerBits() {
+    long sequence = 7L << 32;
+
+    long state = PackedBowling.roll(PackedBowling.roll(sequence, 3), 7);
+
+    assertThat(state & ~PackedBowling.STATE_MASK).isEqualTo(sequence);
+    assertThat(PackedBowling.score(state)).isEqualTo(10);
+  }
+
+  @Test
+  void cannotExceedTotalGameFrames() {
+    PackedBowling game = new PackedBowling();
+    List.of(10, 10, 10, 10, 10, 10, 10, 10, 10, 1, 2).forEach(game::roll);
+
+    assertThat(game.isOver()).isTrue();
+    assertThatThrownBy(() -> game.roll(3))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("End of game!");
+  }
+
+  @Test
+  void cannotKnockDownMorePinsThanStanding() {
+    PackedBowling game = new PackedBowling();
+    game.roll(6);
+
+    assertThatThrownBy(() -> game.roll(5))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Invalid number of pins");
+
+    // Last frame STRIKE followed by a non STRIKE bonus roll leaves a partial rack
+    long state = PackedBowling.NEW_GAME;
+    for (int i = 0; i < 18; i++) {
+      state = PackedBowling.roll(state, 0);
+    }
+    long bonus = PackedBowling.roll(PackedBowling.roll(state, 10), 4);
+    assertThatThrownBy(() -> PackedBowling.roll(bonus, 7))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThat(PackedBowling.score(PackedBowling.roll(bonus, 6))).isEqualTo(20);
+  }
+
+  @Test
+  void randomGamesMatchGameState() {
+    for (int[] rolls : RandomGames.games(42L, 200)) {
+      GameState gameState = GameState.builder().build();
+      long state = PackedBowling.NEW_GAME;
+      for (int pins : rolls) {
+        gameState.roll(pins);
+        state = PackedBowling.roll(state, pins);
+        assertThat(PackedBowling.score(state)).isEqualTo(gameState.score());
+      }
+      assertThat(PackedBowling.isOver(state)).isTrue();
+      assertThat(GameStateMachine.calculateState(gameState))
+          .isEqualTo(GameStateMachine.END_OF_GAME);
+    }
+  }
+
+  private static Stream<Arguments> provideParameters() {
+    return Stream.of(
+        Arguments.of("One frame", List.of(5, 3), 8),
+        Arguments.of("Three STRIKES followed by a frame", List.of(10, 10, 10, 2, 3), 72),
+        Arguments.of(
+            "Max score - ALL STRIKES",
+            List.of(10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10),
+            300),
+        Arguments.of(
+            "All STRIKEs, finish with SPARE from single roll",
+            List.of(10, 10, 10, 10, 10, 10, 10, 10, 10, 0, 10, 7),
+            267),
+        Arguments.of(
+            "All STRIKEs, finish with SPARE from two rolls",
+            List.of(10, 10, 10, 10, 10, 10, 10, 10, 10, 2, 8, 4),
+            266),
+        Arguments.of("SPARE from two rolls", List.of(4, 6, 7), 24),
+        Arguments.of("SPARE from second roll only", List.of(0, 10, 5), 20),
+        Arguments.of("STRIKE followed by a frame", List.of(10, 3, 2), 20),
+        Arguments.of(
+            "10, 10, 4, 6, 3, 7, 10, 3, 4, 8, 2, 10, 10, 7, 3, 10",
+            List.of(10, 10, 4, 6, 3, 7, 10, 3, 4, 8, 2, 10, 10, 7, 3, 10),
+            188));
+  }
+}
@@ -0,0 +1,36 @@
+package com.omnifix.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class PackedGameMapTests {
+
+  @Test
+  void behavesLikeAHashMap() {
+    PackedGameMap games = new PackedGameMap();
+    Map<Long, Long> expected = new HashMap<>();
+    SplittableRandom random = new SplittableRandom(3L);
+
+    for (int i = 0; i < 200_000; i++) {
+      long gameId = 1 + random.nextInt(5_000);
+      if (random.nextInt(3) == 0) {
+        assertThat(games.remove(gameId)).isEqualTo(expected.remove(gameId) != null);
+      } else {
+        long state = random.nextLong();
+        games.put(gameId, state);
+        expected.put(gameId, state);
+      }
+    }
+
+    assertThat(games.size()).isEqualTo(expected.size());
+    for (long gameId = 1; gameId <= 5_000; gameId++) {
+      assertThat(games.contains(gameId)).isEqualTo(expected.containsKey(gameId));
+      assertThat(games.get(gameId))
+          .isEqualTo(expected.getOrDefault(gameId, PackedBowling.NEW_GAME));
+    }
+  }
+}
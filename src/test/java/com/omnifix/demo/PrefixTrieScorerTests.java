@@ -0,0 +1,79 @@
+package com.omnifix.demo;
+
+import static com.omnifix.demo.BowlingConstants.ALL_PINS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class PrefixTrieScorerTests {
+
+  @Test
+  void sharedPrefixesAreScoredOnce() {
+    int[][] games = {
+      {10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10},
+      {10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 9},
+      {10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10}
+    };
+    PrefixTrieScorer scorer = new PrefixTrieScorer(1024);
+
+    assertThat(scorer.scoreAll(games)).containsExactly(300, 299, 300);
+    assertThat(scorer.getMisses()).isEqualTo(13);
+    assertThat(scorer.getHits()).isEqualTo(23);
+    assertThat(scorer.getNodeCount()).isEqualTo(14);
+    assertThat(scorer.getNodesPerGame()).isEqualTo(13.0 / 3);
+    assertThat(scorer.getHitRatio()).isEqualTo(23.0 / 36);
+  }
+
+  @Test
+  void scoresLikeTheBulkScorerWithinAMemoryBudget() {
+    int[][] games = RandomGames.games(23L, 20_000);
+    int[] gameOffsets = BulkScorerTests.offsets(games);
+    int[] rolls = BulkScorerTests.flatten(games, gameOffsets);
+    PrefixTrieScorer scorer = new PrefixTrieScorer(PrefixTrieScorer.MIN_NODES);
+
+    for (int pass = 0; pass < 2; pass++) {
+      assertThat(scorer.scoreAll(rolls, gameOffsets))
+          .containsExactly(BulkScorer.scoreAll(rolls, gameOffsets));
+    }
+    assertThat(scorer.getNodeCount()).isEqualTo(PrefixTrieScorer.MIN_NODES);
+    assertThat(scorer.getEvictions()).isPositive();
+    assertThat(scorer.getGames()).isEqualTo(40_000);
+  }
+
+  @Test
+  void rejectsInvalidRolls() {
+    PrefixTrieScorer scorer = new PrefixTrieScorer(1024);
+
+    assertThatThrownBy(() -> scorer.scoreAll(new int[][] {{1, 2}, {6, 5}}))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageStartingWith("Game 1 at roll offset 1");
+    assertThat(scorer.scoreAll(new int[][] {{6, 4}})).containsExactly(10);
+  }
+
+  @Test
+  void staysConsistentAfterRejectedGames() {
+    SplittableRandom random = new SplittableRandom(31L);
+    int[][] games = RandomGames.games(37L, 200);
+    int[] gameOffsets = BulkScorerTests.offsets(games);
+    int[] rolls = BulkScorerTests.flatten(games, gameOffsets);
+    int[] expected = BulkScorer.scoreAll(rolls, gameOffsets);
+
+    for (int trial = 0; trial < 1_000; trial++) {
+      PrefixTrieScorer scorer = new PrefixTrieScorer(PrefixTrieScorer.MIN_NODES);
+      for (int rejected = 1 + random.nextInt(6); rejected > 0; rejected--) {
+        // Broken at a random roll, after a part of its prefix went into the trie
+        int[] game = RandomGames.game(random);
+        game[random.nextInt(game.length)] = random.nextInt(ALL_PINS + 6);
+        try {
+          scorer.scoreAll(new int[][] {game});
+        } catch (IllegalArgumentException e) {
+          // Expected for most of the broken games
+        }
+      }
+
+      assertThat(scorer.scoreAll(rolls, gameOffsets)).containsExactly(expected);
+    }
+  }
+}
@@ -0,0 +1,426 @@
+package com.omnifix.demo;
+
+import static com.omnifix.demo.BowlingConstants.ALL_PINS;
+import static com.omnifix.demo.BowlingConstants.MULTIPLYER_IDENTITY;
+import static com.omnifix.demo.BowlingConstants.RESET_PREV_VALUE;
+import static com.omnifix.demo.BowlingConstants.ROLL_TWO;
+import static com.omnifix.demo.BowlingConstants.STARTING_ROLL_INDEX;
+import static com.omnifix.demo.BowlingConstants.STARTING_SCORE;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import net.jcip.annotations.ThreadSafe;
+import reactor.util.function.Tuple6;
+import reactor.util.function.Tuples;
+
+/**
+ * Exhaustive check that scoring models agree on every reachable state of a game.
+ *
+ * <p>The models are walked together: a node is the tuple of the states of all models with their
+ * score taken out, so two games that score the remaining rolls the same way are visited once. From
+ * every node every legal pin count is rolled in every model and the score deltas, the standing pins
+ * and the end of the game are compared with the first model, the reference, which also decides
+ * which pin counts are legal. Nodes are expanded breadth first, one number of rolls at a time, and
+ * the nodes of a layer are expanded in parallel. Every node is reported with the smallest roll
+ * sequence reaching it, so a run gives the same report whatever the number of cores.
+ *
+ * @author George Bilchev
+ */
+@Slf4j
+@ThreadSafe
+public class ReachableStateChecker {
+
+  /** Mismatches kept in a report, all of them are counted */
+  public static final int MAX_REPORTED = 10;
+
+  /** Standing pins of a game that is over */
+  public static final int GAME_OVER = -1;
+
+  /** Standing pins of a model that keeps only the scoring state */
+  public static final int UNTRACKED = -2;
+
+  /**
+   * A scoring model with value states, e.g., immutable or copied on every roll
+   *
+   * @param <S> state of a game, with {@code equals} and {@code hashCode}
+   */
+  public interface Model<S> {
+    S newGame();
+
+    /** @return the state after the roll, the given state is left alone */
+    S roll(S state, int noOfPins);
+
+    int score(S state);
+
+    /** @return the state with a zero score */
+    S withoutScore(S state);
+
+    /** @return the pins the next roll can knock down, {@link #GAME_OVER} or {@link #UNTRACKED} */
+    default int standingPins(S state) {
+      return UNTRACKED;
+    }
+  }
+
+  private final Map<String, Model<?>> models;
+  private final String[] names;
+  private final Model<Object>[] checked;
+
+  /** @param models by name, the first one is the reference and must track the standing pins */
+  @SuppressWarnings("unchecked")
+  public ReachableStateChecker(Map<String, Model<?>> models) {
+    if (models.size() < 2) {
+      throw new IllegalArgumentException("At least two models are needed");
+    }
+    this.models = Collections.unmodifiableMap(new LinkedHashMap<>(models));
+    this.names = this.models.keySet().toArray(new String[0]);
+    this.checked = (Model<Object>[]) this.models.values().toArray(new Model<?>[0]);
+  }
+
+  /** The models of this package */
+  public static Map<String, Model<?>> models() {
+    Map<String, Model<?>> models = new LinkedHashMap<>();
+    models.put("GameStateMachine", gameStateMachine());
+    models.put("BowlingAlgorithmHelper", multiplierModel());
+    models.put("PackedBowling", packedBowling());
+    models.put("TransitionTableBowling", transitionTable());
+    return models;
+  }
+
+  /** {@link GameState} rolled with {@link GameStateMachine}, states are copied before each roll */
+  public static Model<GameState> gameStateMachine() {
+    return new Model<>() {
+      @Override
+      public GameState newGame() {
+        return GameState.builder().build();
+      }
+
+      @Override
+      public GameState roll(GameState state, int noOfPins) {
+        GameState next = copy(state, state.getScore());
+        GameStateMachine.calculateState(next).nextState(noOfPins, next);
+        return next;
+      }
+
+      @Override
+      public int score(GameState state) {
+        return state.getScore();
+      }
+
+      @Override
+      public GameState withoutScore(GameState state) {
+        return copy(state, STARTING_SCORE);
+      }
+
+      @Override
+      public int standingPins(GameState state) {
+        if (GameStateMachine.calculateState(state) == GameStateMachine.END_OF_GAME) {
+          return GAME_OVER;
+        }
+        // The rack is reset after a STRIKE, also by the first bonus roll
+        return state.getNextRoll() == ROLL_TWO && state.getPrevRollValue() < ALL_PINS
+            ? ALL_PINS - state.getPrevRollValue()
+            : ALL_PINS;
+      }
+    };
+  }
+
+  /**
+   * The registry of 6 of {@link FunctionalReactiveBowling} updated with the {@link
+   * BowlingAlgorithmHelper} operations. It does not know the end of the game.
+   */
+  public static Model<Tuple6<Integer, Integer, Integer, Integer, Integer, Integer>>
+      multiplierModel() {
+    BowlingAlgorithmHelper helper = new BowlingAlgorithmHelper() {};
+    return new Model<>() {
+      @Override
+      public Tuple6<Integer, Integer, Integer, Integer, Integer, Integer> newGame() {
+        return Tuples.of(
+            STARTING_SCORE,
+            STARTING_ROLL_INDEX,
+            MULTIPLYER_IDENTITY,
+            MULTIPLYER_IDENTITY,
+            MULTIPLYER_IDENTITY,
+            RESET_PREV_VALUE);
+      }
+
+      @Override
+      public Tuple6<Integer, Integer, Integer, Integer, Integer, Integer> roll(
+          Tuple6<Integer, Integer, Integer, Integer, Integer, Integer> gameState, int noOfPins) {
+        Tuple6<Integer, Integer, Integer, Integer, Integer, Integer> rolled =
+            gameState
+                .mapT1(helper.updateScore(noOfPins, gameState))
+                .mapT4(helper.updateNextMultiplierIfStrikeOrSpare(noOfPins, gameState))
+                .mapT5(helper.updateNextNextMultiplierIfStrike(noOfPins, gameState))
+                .mapT6(helper.storeOrResetPrevRollValue(noOfPins, gameState))
+                .mapT2(helper.moveToNextRollIndex(noOfPins, gameState));
+        return rolled
+            .mapT3(helper.shiftNextMultiplierToCurrent(rolled))
+            .mapT4(helper.shiftNextNextMultiplierToNext(rolled))
+            .mapT5(ignore -> MULTIPLYER_IDENTITY);
+      }
+
+      @Override
+      public int score(Tuple6<Integer, Integer, Integer, Integer, Integer, Integer> gameState) {
+        return gameState.getT1();
+      }
+
+      @Override
+      public Tuple6<Integer, Integer, Integer, Integer, Integer, Integer> withoutScore(
+          Tuple6<Integer, Integer, Integer, Integer, Integer, Integer> gameState) {
+        return gameState.mapT1(ignore -> STARTING_SCORE);
+      }
+    };
+  }
+
+  public static Model<Long> packedBowling() {
+    return new Model<>() {
+      @Override
+      public Long newGame() {
+        return PackedBowling.NEW_GAME;
+      }
+
+      @Override
+      public Long roll(Long state, int noOfPins) {
+        return PackedBowling.roll(state, noOfPins);
+      }
+
+      @Override
+      public int score(Long state) {
+        return PackedBowling.score(state);
+      }
+
+      @Override
+      public Long withoutScore(Long state) {
+        return PackedBowling.withScore(state, STARTING_SCORE);
+      }
+
+      @Override
+      public int standingPins(Long state) {
+        return PackedBowling.isOver(state)
+            ? GAME_OVER
+            : ALL_PINS - PackedBowling.prevRollValue(state);
+      }
+    };
+  }
+
+  /** The state is the score in the upper and the state id in the lower 32 bits */
+  public static Model<Long> transitionTable() {
+    return new Model<>() {
+      @Override
+      public Long newGame() {
+        return (long) TransitionTableBowling.NEW_GAME_STATE;
+      }
+
+      @Override
+      public Long roll(Long state, int noOfPins) {
+        int stateId = (int) (long) state;
+        int transition = TransitionTableBowling.transition(stateId, noOfPins);
+        if (transition < 0) {
+          throw TransitionTableBowling.rejected(transition, stateId, noOfPins);
+        }
+        return (long) (score(state) + TransitionTableBowling.scoreDelta(transition)) << 32
+            | TransitionTableBowling.nextState(transition);
+      }
+
+      @Override
+      public int score(Long state) {
+        return (int) (state >>> 32);
+      }
+
+      @Override
+      public Long withoutScore(Long state) {
+        return state & 0xFFFF_FFFFL;
+      }
+
+      @Override
+      public int standingPins(Long state) {
+        int stateId = (int) (long) state;
+        return TransitionTableBowling.isOver(stateId)
+            ? GAME_OVER
+            : ALL_PINS - PackedBowling.prevRollValue(TransitionTableBowling.packedState(stateId));
+      }
+    };
+  }
+
+  /** Walks every reachable state of the models */
+  public Report run() {
+    long start = System.nanoTime();
+    Set<List<Object>> visited = ConcurrentHashMap.newKeySet();
+    Queue<Mismatch> mismatches = new ConcurrentLinkedQueue<>();
+    LongAdder transitions = new LongAdder();
+    List<Object> newGame = new ArrayList<>();
+    for (Model<Object> model : checked) {
+      newGame.add(model.newGame());
+    }
+    visited.add(newGame);
+    Map<List<Object>, int[]> layer = Map.of(newGame, new int[0]);
+    int layers = 0;
+    while (!layer.isEmpty()) {
+      layers++;
+      // The smallest roll sequence wins when the same node is reached twice
+      Map<List<Object>, int[]> next =
+          layer.entrySet().parallelStream()
+              .flatMap(node -> expand(node.getKey(), node.getValue(), mismatches, transitions))
+              .filter(node -> !visited.contains(node.getKey()))
+              .collect(
+                  Collectors.toConcurrentMap(
+                      Map.Entry::getKey, Map.Entry::getValue, ReachableStateChecker::first));
+      visited.addAll(next.keySet());
+      layer = next;
+    }
+    List<Mismatch> sorted = new ArrayList<>(mismatches);
+    sorted.sort(Comparator.comparing(Mismatch::getRolls, ReachableStateChecker::compare));
+    Report report =
+        new Report(
+            visited.size(),
+            transitions.sum(),
+            layers,
+            sorted.size(),
+            Collections.unmodifiableList(
+                new ArrayList<>(sorted.subList(0, Math.min(MAX_REPORTED, sorted.size())))),
+            System.nanoTime() - start);
+    log.debug("{}", report);
+    return report;
+  }
+
+  public Map<String, Model<?>> getModels() {
+    return models;
+  }
+
+  /** A roll sequence after which the models disagree */
+  @Value
+  public static class Mismatch {
+    int[] rolls;
+    /** Score delta of the last roll (or exception) of every model, the standing pins at the end */
+    Map<String, String> results;
+
+    @Override
+    public String toString() {
+      return Arrays.toString(rolls) + ": " + results;
+    }
+  }
+
+  @Value
+  public static class Report {
+    /** Distinct tuples of states without score */
+    long states;
+
+    long transitions;
+    /** Breadth first layers, the new game is the first one */
+    int layers;
+
+    long mismatchCount;
+    /** The first mismatches by roll sequence, at most {@link #MAX_REPORTED} */
+    List<Mismatch> mismatches;
+
+    long elapsedNanos;
+
+    @Override
+    public String toString() {
+      return String.format(
+          "ReachableStateChecker.Report(states=%d, transitions=%d, layers=%d, mismatches=%d,"
+              + " elapsedMillis=%.1f)%s",
+          states,
+          transitions,
+          layers,
+          mismatchCount,
+          elapsedNanos / 1e6,
+          mismatches.stream().map(m -> "\n  " + m).collect(Collectors.joining()));
+    }
+  }
+
+  /*
+   * Implementation details
+   */
+
+  /** @return the nodes after every legal roll from the node */
+  private Stream<Map.Entry<List<Object>, int[]>> expand(
+      List<Object> node, int[] rolls, Queue<Mismatch> mismatches, LongAdder transitions) {
+    int standing = checked[0].standingPins(node.get(0));
+    for (int model = 1; model < checked.length; model++) {
+      int modelStanding = checked[model].standingPins(node.get(model));
+      if (modelStanding != UNTRACKED && modelStanding != standing) {
+        mismatches.add(new Mismatch(rolls, standingPins(node)));
+        return Stream.empty();
+      }
+    }
+    List<Map.Entry<List<Object>, int[]>> next = new ArrayList<>();
+    for (int noOfPins = 0; noOfPins <= standing; noOfPins++) {
+      transitions.increment();
+      int[] path = Arrays.copyOf(rolls, rolls.length + 1);
+      path[rolls.length] = noOfPins;
+      List<Object> rolled = new ArrayList<>(checked.length);
+      String[] deltas = new String[checked.length];
+      boolean agree = true;
+      for (int model = 0; model < checked.length; model++) {
+        try {
+          Object state = checked[model].roll(node.get(model), noOfPins);
+          deltas[model] = String.valueOf(checked[model].score(state));
+          rolled.add(checked[model].withoutScore(state));
+        } catch (RuntimeException e) {
+          deltas[model] = e.toString();
+        }
+        agree &= deltas[model].equals(deltas[0]);
+      }
+      if (agree && rolled.size() == checked.length) {
+        next.add(Map.entry(rolled, path));
+      } else {
+        mismatches.add(new Mismatch(path, results(deltas)));
+      }
+    }
+    return next.stream();
+  }
+
+  private Map<String, String> standingPins(List<Object> node) {
+    String[] standing = new String[checked.length];
+    for (int model = 0; model < checked.length; model++) {
+      standing[model] = "standing=" + checked[model].standingPins(node.get(model));
+    }
+    return results(standing);
+  }
+
+  private Map<String, String> results(String[] values) {
+    Map<String, String> results = new LinkedHashMap<>();
+    for (int model = 0; model < checked.length; model++) {
+      results.put(names[model], values[model]);
+    }
+    return Collections.unmodifiableMap(results);
+  }
+
+  private static int[] first(int[] rolls, int[] other) {
+    return compare(rolls, other) <= 0 ? rolls : other;
+  }
+
+  /** Shorter sequences first, then by the pins of the rolls */
+  private static int compare(int[] rolls, int[] other) {
+    return rolls.length != other.length
+        ? Integer.compare(rolls.length, other.length)
+        : Arrays.compare(rolls, other);
+  }
+
+  private static GameState copy(GameState gameState, int score) {
+    return GameState.builder()
+        .score(score)
+        .nextFrame(gameState.getNextFrame())
+        .nextRoll(gameState.getNextRoll())
+        .spareBonus(gameState.isSpareBonus())
+        .strikeBonus(gameState.getStrikeBonus())
+        .prevRollValue(gameState.getPrevRollValue())
+        .doubleStrike(gameState.isDoubleStrike())
+        .build();
+  }
+}
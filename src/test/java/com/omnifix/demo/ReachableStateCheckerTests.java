@@ -0,0 +1,119 @@
+package com.omnifix.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+@Slf4j
+class ReachableStateCheckerTests {
+
+  @Test
+  void allModelsAgreeOnEveryReachableState() {
+    ReachableStateChecker.Report report =
+        new ReachableStateChecker(ReachableStateChecker.models()).run();
+
+    log.info("{}", report);
+    assertThat(report.getMismatches()).isEmpty();
+    assertThat(report.getStates()).isGreaterThanOrEqualTo(TransitionTableBowling.stateCount());
+    assertThat(report.getTransitions()).isGreaterThan(report.getStates());
+  }
+
+  @Test
+  void reachesEveryTransitionTableState() {
+    Set<Integer> stateIds = ConcurrentHashMap.newKeySet();
+    ReachableStateChecker.Model<Long> table = ReachableStateChecker.transitionTable();
+    Map<String, ReachableStateChecker.Model<?>> models = new LinkedHashMap<>();
+    models.put("GameStateMachine", ReachableStateChecker.gameStateMachine());
+    models.put(
+        "TransitionTableBowling",
+        new ReachableStateChecker.Model<Long>() {
+          @Override
+          public Long newGame() {
+            return table.newGame();
+          }
+
+          @Override
+          public Long roll(Long state, int noOfPins) {
+            Long next = table.roll(state, noOfPins);
+            stateIds.add((int) (long) next); // The state id is in the low bits
+            return next;
+          }
+
+          @Override
+          public int score(Long state) {
+            return table.score(state);
+          }
+
+          @Override
+          public Long withoutScore(Long state) {
+            return table.withoutScore(state);
+          }
+
+          @Override
+          public int standingPins(Long state) {
+            return table.standingPins(state);
+          }
+        });
+
+    ReachableStateChecker.Report report = new ReachableStateChecker(models).run();
+
+    assertThat(report.getMismatches()).isEmpty();
+    stateIds.add(TransitionTableBowling.NEW_GAME_STATE);
+    assertThat(stateIds).hasSize(TransitionTableBowling.stateCount());
+  }
+
+  @Test
+  void reportsTheShortestRollsToAMismatch() {
+    Map<String, ReachableStateChecker.Model<?>> models = new LinkedHashMap<>();
+    models.put("GameStateMachine", ReachableStateChecker.gameStateMachine());
+    ReachableStateChecker.Model<Long> packed = ReachableStateChecker.packedBowling();
+    // Planted bug: a double STRIKE does not double the next roll
+    models.put(
+        "buggy",
+        new ReachableStateChecker.Model<Long>() {
+          @Override
+          public Long newGame() {
+            return packed.newGame();
+          }
+
+          @Override
+          public Long roll(Long state, int noOfPins) {
+            int current = Math.min(PackedBowling.currentMultiplier(state), 2);
+            return packed.roll(
+                PackedBowling.withMultipliers(state, current, PackedBowling.nextMultiplier(state)),
+                noOfPins);
+          }
+
+          @Override
+          public int score(Long state) {
+            return packed.score(state);
+          }
+
+          @Override
+          public Long withoutScore(Long state) {
+            return packed.withoutScore(state);
+          }
+
+          @Override
+          public int standingPins(Long state) {
+            return packed.standingPins(state);
+          }
+        });
+    ReachableStateChecker checker = new ReachableStateChecker(models);
+
+    ReachableStateChecker.Report report = checker.run();
+
+    assertThat(report.getMismatchCount()).isGreaterThan(0);
+    ReachableStateChecker.Mismatch first = report.getMismatches().get(0);
+    assertThat(first.getRolls()).containsExactly(10, 10, 1);
+    assertThat(first.getResults())
+        .containsEntry("GameStateMachine", "3")
+        .containsEntry("buggy", "2");
+    assertThat(checker.run().getMismatches()).isEqualTo(report.getMismatches());
+  }
+}
@@ -0,0 +1,92 @@
+package com.omnifix.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RegistrySnapshotterTests {
+
+  private static final int SEGMENT_SIZE = 256 * RollJournal.RECORD_SIZE;
+
+  @TempDir Path directory;
+
+  @Test
+  void snapshotRoundTrip() throws Exception {
+    BowlingRegistry registry = new BowlingRegistry(1 << 16);
+    for (long gameId = 1; gameId <= 50_000; gameId++) {
+      registry.roll(gameId, (int) (gameId % 11));
+    }
+    registry.complete(7L);
+    try (RollJournal journal = RollJournal.open(directory.resolve("journal"), SEGMENT_SIZE, 1)) {
+      journal.append(1L, 1, RollJournal.ROLL, 1);
+      Path snapshot = RegistrySnapshotter.write(registry, journal, directory);
+
+      BowlingRegistry loaded = new BowlingRegistry(1 << 16);
+      assertThat(RegistrySnapshotter.load(snapshot, loaded)).isEqualTo(1);
+      registry.forEach((gameId, state) -> assertThat(loaded.state(gameId)).isEqualTo(state));
+    }
+  }
+
+  @Test
+  void recoversFromTheLatestSnapshotAndTheJournalTail() throws Exception {
+    Path journalDirectory = directory.resolve("journal");
+    Path snapshotDirectory = directory.resolve("snapshots");
+    BowlingRegistry registry = new BowlingRegistry(256);
+    int[][] games = RandomGames.games(11L, 400);
+    AtomicBoolean rolling = new AtomicBoolean(true);
+
+    try (RollJournal journal = RollJournal.open(journalDirectory, SEGMENT_SIZE, 1);
+        RegistrySnapshotter snapshotter =
+            new RegistrySnapshotter(registry, journal, snapshotDirectory, 60_000)) {
+      // Snapshots are taken while the games keep rolling
+      CompletableFuture<Void> rolls =
+          CompletableFuture.runAsync(
+              () -> {
+                for (int game = 0; game < games.length; game++) {
+                  long gameId = 1 + game % 100;
+                  if (registry.contains(gameId)) {
+                    journal.appendComplete(gameId, registry.complete(gameId));
+                    journal.appendNewGame(gameId, registry.newGame(gameId));
+                  }
+                  for (int noOfPins : games[game]) {
+                    journal.appendRoll(gameId, registry.roll(gameId, noOfPins), noOfPins);
+                  }
+                }
+                rolling.set(false);
+              });
+      int snapshots = 0;
+      while (rolling.get() || snapshots < RegistrySnapshotter.KEEP_SNAPSHOTS + 1) {
+        snapshotter.snapshot();
+        snapshots++;
+      }
+      rolls.get();
+    }
+
+    assertThat(RegistrySnapshotter.snapshots(snapshotDirectory))
+        .hasSize(RegistrySnapshotter.KEEP_SNAPSHOTS);
+    assertThat(count(journalDirectory)).isLessThan(8000 * RollJournal.RECORD_SIZE / SEGMENT_SIZE);
+
+    BowlingRegistry recovered = new BowlingRegistry(256);
+    RegistrySnapshotter.recover(snapshotDirectory, journalDirectory, SEGMENT_SIZE, recovered);
+    registry.forEach((gameId, state) -> assertThat(recovered.state(gameId)).isEqualTo(state));
+    assertThat(count(recovered)).isEqualTo(count(registry));
+  }
+
+  private static long count(Path directory) throws Exception {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.count();
+    }
+  }
+
+  private static long count(BowlingRegistry registry) {
+    long[] count = new long[1];
+    registry.forEach((gameId, state) -> count[0]++);
+    return count[0];
+  }
+}
@@ -0,0 +1,113 @@
+package com.omnifix.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class RollEventsTests {
+
+  @AfterEach
+  void tearDown() {
+    RollEvents.detach();
+  }
+
+  @Test
+  void publishesNothingWithoutSink() {
+    assertThat(RollEvents.publisher()).isNull();
+
+    GameState game = GameState.builder().build();
+    game.roll(10);
+
+    assertThat(game.score()).isEqualTo(10);
+  }
+
+  @Test
+  void deliversStructuredEventsToSinks() {
+    List<String> events = new ArrayList<>();
+    List<String> lines = new ArrayList<>();
+    RollEvents.attach(
+        (gameId, fromState, toState, noOfPins, score, bonus) ->
+            events.add(
+                gameId
+                    + " "
+                    + RollEvents.stateStr(fromState)
+                    + " "
+                    + RollEvents.stateStr(toState)
+                    + " "
+                    + noOfPins
+                    + " "
+                    + score
+                    + " "
+                    + bonus),
+        (gameId, fromState, toState, noOfPins, score, bonus) ->
+            lines.add(RollEvents.format(fromState, toState, noOfPins, score, bonus)));
+
+    GameState game = GameState.builder().gameId(42L).build();
+    for (int i = 0; i < 9; i++) {
+      game.roll(3);
+      game.roll(4);
+    }
+    game.roll(10);
+    game.roll(4);
+    game.roll(6);
+    RollEvents.detach();
+
+    assertThat(events).hasSize(21);
+    assertThat(events.get(0)).isEqualTo("42 FIRST_GO[1] SECOND_GO[1] 3 3 NONE");
+    assertThat(events.get(18)).isEqualTo("42 FIRST_GO[10] BONUS_GO[1] 10 73 STRIKE");
+    assertThat(events.get(20)).isEqualTo("42 BONUS_GO[2] END_OF_GAME[11] 6 83 STRIKE");
+    assertThat(lines.get(0))
+        .isEqualTo("FIRST_GO[1]     ->    SECOND_GO[1]      ROLL:  3 ==> SCORE:   3             ");
+  }
+
+  @Test
+  void dropsEventsWhenConsumerIsFullRingBehind() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    List<Integer> delivered = new ArrayList<>();
+    RollEventRingBuffer ringBuffer =
+        new RollEventRingBuffer(
+            4,
+            (gameId, fromState, toState, noOfPins, score, bonus) -> {
+              awaitQuietly(release);
+              delivered.add(noOfPins);
+            });
+    ringBuffer.start();
+
+    int accepted = 0;
+    for (int i = 0; i < 10; i++) {
+      accepted += ringBuffer.publish(1L, 0, 0, i, 0, BonusKind.NONE) ? 1 : 0;
+    }
+    release.countDown();
+    ringBuffer.stop();
+
+    assertThat(ringBuffer.getDropped()).isEqualTo(10 - accepted);
+    assertThat(accepted).isEqualTo(4);
+    assertThat(delivered).hasSize(accepted).isSorted();
+  }
+
+  @Test
+  void dropsEventsPublishedAfterStop() {
+    List<Integer> delivered = new ArrayList<>();
+    RollEventRingBuffer ringBuffer =
+        new RollEventRingBuffer(
+            4, (gameId, fromState, toState, noOfPins, score, bonus) -> delivered.add(noOfPins));
+    ringBuffer.start();
+    ringBuffer.stop();
+
+    assertThat(ringBuffer.publish(1L, 0, 0, 7, 0, BonusKind.NONE)).isFalse();
+    assertThat(ringBuffer.getDropped()).isEqualTo(1);
+    assertThat(delivered).isEmpty();
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
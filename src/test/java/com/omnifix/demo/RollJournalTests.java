@@ -0,0 +1,189 @@
+package com.omnifix.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RollJournalTests {
+
+  private static final int SEGMENT_SIZE = 64 * RollJournal.RECORD_SIZE;
+
+  @TempDir Path directory;
+
+  @Test
+  void recoversLiveGamesAcrossSegments() throws Exception {
+    BowlingRegistry registry = new BowlingRegistry(64);
+    try (RollJournal journal = RollJournal.open(directory, SEGMENT_SIZE, 1)) {
+      for (int[] game : RandomGames.games(7L, 20)) {
+        long gameId = registry.capacity() - game.length;
+        journalGame(registry, journal, gameId, game);
+      }
+      journal.awaitDurable(journal.position() - 1);
+    }
+
+    BowlingRegistry recovered = new BowlingRegistry(64);
+    long end = RollJournal.recover(directory, SEGMENT_SIZE, 0, recovered);
+
+    assertThat(end).isGreaterThan(64);
+    assertThat(segmentCount()).isGreaterThan(1);
+    assertSameGames(registry, recovered);
+  }
+
+  @Test
+  void appendsContinueAfterTheLastRecordOnReopen() throws Exception {
+    BowlingRegistry registry = new BowlingRegistry(16);
+    try (RollJournal journal = RollJournal.open(directory, SEGMENT_SIZE, 1)) {
+      journal.appendRoll(1L, registry.roll(1L, 10), 10);
+    }
+    try (RollJournal journal = RollJournal.open(directory, SEGMENT_SIZE, 1)) {
+      assertThat(journal.position()).isEqualTo(1);
+      journal.appendRoll(1L, registry.roll(1L, 4), 4);
+      journal.appendComplete(1L, registry.complete(1L));
+      journal.appendNewGame(1L, registry.newGame(1L));
+      journal.appendRoll(1L, registry.roll(1L, 6), 6);
+    }
+
+    BowlingRegistry recovered = new BowlingRegistry(16);
+    assertThat(RollJournal.recover(directory, SEGMENT_SIZE, 0, recovered)).isEqualTo(5);
+    assertThat(recovered.state(1L)).isEqualTo(registry.state(1L));
+    assertThat(recovered.score(1L)).isEqualTo(6);
+  }
+
+  @Test
+  void appliesRecordsInSequenceOrderAndOnlyOnce() throws Exception {
+    try (RollJournal journal = RollJournal.open(directory, SEGMENT_SIZE, 1)) {
+      // Two threads rolling the same game may append out of order
+      journal.append(3L, 2, RollJournal.ROLL, 5);
+      journal.append(3L, 1, RollJournal.ROLL, 10);
+      journal.append(3L, 3, RollJournal.ROLL, 4);
+    }
+
+    BowlingRegistry recovered = new BowlingRegistry(16);
+    RollJournal.recover(directory, SEGMENT_SIZE, 0, recovered);
+    assertThat(recovered.score(3L)).isEqualTo(28);
+
+    // Replaying again over the recovered registry changes nothing
+    RollJournal.recover(directory, SEGMENT_SIZE, 0, recovered);
+    assertThat(recovered.score(3L)).isEqualTo(28);
+    assertThat(BowlingRegistry.sequence(recovered.state(3L))).isEqualTo(3);
+  }
+
+  @Test
+  void closeEndsTheWaitsOfTheAppenders() throws Exception {
+    RollJournal journal = RollJournal.open(directory, SEGMENT_SIZE, 1);
+    long appended = journal.append(7L, 1, RollJournal.ROLL, 3);
+    long neverAppended = appended + 1;
+    CompletableFuture<Void> durable = awaitDurable(journal, appended);
+    CompletableFuture<Void> lost = awaitDurable(journal, neverAppended);
+
+    journal.close();
+
+    durable.get(10, TimeUnit.SECONDS);
+    assertThatThrownBy(() -> lost.get(10, TimeUnit.SECONDS))
+        .hasCauseInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("Journal closed before " + neverAppended);
+    assertThat(RollJournal.replay(directory, SEGMENT_SIZE, 0, (p, g, s, t, n) -> {}))
+        .isEqualTo(neverAppended);
+  }
+
+  @Test
+  void stopsAtATornRecord() throws Exception {
+    try (RollJournal journal = RollJournal.open(directory, SEGMENT_SIZE, 1)) {
+      journal.append(5L, 1, RollJournal.ROLL, 3);
+      journal.append(5L, 2, RollJournal.ROLL, 4);
+      journal.append(5L, 3, RollJournal.ROLL, 5);
+    }
+    corruptPins(1);
+
+    List<Integer> pins = new ArrayList<>();
+    long end =
+        RollJournal.replay(
+            directory,
+            SEGMENT_SIZE,
+            0,
+            (position, gameId, sequence, type, noOfPins) -> pins.add(noOfPins));
+
+    assertThat(end).isEqualTo(1);
+    assertThat(pins).containsExactly(3);
+    try (RollJournal journal = RollJournal.open(directory, SEGMENT_SIZE, 1)) {
+      assertThat(journal.position()).isEqualTo(1);
+    }
+  }
+
+  /** Returns once the appender waits */
+  private static CompletableFuture<Void> awaitDurable(RollJournal journal, long position)
+      throws InterruptedException {
+    CompletableFuture<Void> durable = new CompletableFuture<>();
+    Thread appender =
+        new Thread(
+            () -> {
+              try {
+                journal.awaitDurable(position);
+                durable.complete(null);
+              } catch (InterruptedException | RuntimeException e) {
+                durable.completeExceptionally(e);
+              }
+            });
+    appender.start();
+    while (appender.getState() != Thread.State.WAITING && !durable.isDone()) {
+      Thread.sleep(1);
+    }
+    return durable;
+  }
+
+  private static void journalGame(
+      BowlingRegistry registry, RollJournal journal, long gameId, int[] game) {
+    if (registry.contains(gameId)) {
+      journal.appendComplete(gameId, registry.complete(gameId));
+      journal.appendNewGame(gameId, registry.newGame(gameId));
+    }
+    for (int noOfPins : game) {
+      journal.appendRoll(gameId, registry.roll(gameId, noOfPins), noOfPins);
+    }
+  }
+
+  private static void assertSameGames(BowlingRegistry expected, BowlingRegistry actual) {
+    List<Long> gameIds = new ArrayList<>();
+    expected.forEach(
+        (gameId, state) -> {
+          gameIds.add(gameId);
+          assertThat(actual.state(gameId)).as("game %d", gameId).isEqualTo(state);
+        });
+    actual.forEach((gameId, state) -> assertThat(gameIds).contains(gameId));
+  }
+
+  private long segmentCount() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.count();
+    }
+  }
+
+  private void corruptPins(int position) throws IOException {
+    try (Stream<Path> files = Files.list(directory);
+        FileChannel channel =
+            FileChannel.open(
+                files.sorted().findFirst().orElseThrow(IllegalStateException::new),
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_SIZE);
+      buffer.order(ByteOrder.nativeOrder());
+      int index = position * RollJournal.RECORD_SIZE + 12;
+      buffer.putShort(index, (short) (buffer.getShort(index) + 1));
+      buffer.force();
+    }
+  }
+}
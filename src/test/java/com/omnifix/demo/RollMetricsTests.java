@@ -0,0 +1,128 @@
+package com.omnifix.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.lang.management.ManagementFactory;
+import java.util.stream.IntStream;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class RollMetricsTests {
+
+  @AfterEach
+  void tearDown() {
+    RollMetrics.disable();
+  }
+
+  @Test
+  void recordsNothingWhenDisabled() {
+    RollMetrics metrics = RollMetrics.enable();
+    RollMetrics.disable();
+    assertThat(RollMetrics.recorder()).isNull();
+
+    GameState game = GameState.builder().build();
+    game.roll(10);
+    game.roll(3);
+
+    assertThat(game.score()).isEqualTo(16);
+    RollMetrics.Snapshot snapshot = metrics.snapshot();
+    assertThat(snapshot.getRolls()).isZero();
+    assertThat(snapshot.getStrikes()).isZero();
+    assertThat(snapshot.getLatency().getCount()).isZero();
+  }
+
+  @Test
+  void countsTransitionsStrikesSparesAndRejectedRolls() {
+    RollMetrics metrics = RollMetrics.enable();
+
+    GameState game = GameState.builder().build();
+    for (int i = 0; i < 9; i++) {
+      game.roll(3);
+      game.roll(7);
+    }
+    game.roll(10);
+    game.roll(4);
+    game.roll(6);
+    assertThatThrownBy(() -> game.roll(1)).isInstanceOf(IllegalStateException.class);
+
+    RollMetrics.Snapshot snapshot = metrics.snapshot();
+    assertThat(snapshot.getRolls()).isEqualTo(21);
+    assertThat(snapshot.getTransitions(GameStateMachine.FIRST_GO, GameStateMachine.SECOND_GO))
+        .isEqualTo(9);
+    assertThat(snapshot.getTransitions(GameStateMachine.SECOND_GO, GameStateMachine.FIRST_GO))
+        .isEqualTo(9);
+    assertThat(snapshot.getTransitions(GameStateMachine.FIRST_GO, GameStateMachine.BONUS_GO))
+        .isEqualTo(1);
+    assertThat(snapshot.getRolls(GameStateMachine.BONUS_GO)).isEqualTo(2);
+    assertThat(snapshot.getCompletedGames()).isEqualTo(1);
+    assertThat(snapshot.getStrikes()).isEqualTo(1);
+    assertThat(snapshot.getSpares()).isEqualTo(9);
+    assertThat(snapshot.getRejectedRolls()).isEqualTo(1);
+    assertThat(snapshot.getLatency().getCount()).isEqualTo(21);
+    assertThat(snapshot.getTransitions())
+        .containsEntry("FIRST_GO->SECOND_GO", 9L)
+        .containsEntry("BONUS_GO->END_OF_GAME", 1L)
+        .hasSize(5);
+  }
+
+  @Test
+  void countsConcurrentRolls() {
+    RollMetrics metrics = RollMetrics.enable();
+    int[][] games = RandomGames.games(5L, 4_000);
+
+    IntStream.range(0, games.length)
+        .parallel()
+        .forEach(
+            i -> {
+              GameState game = GameState.builder().build();
+              for (int pins : games[i]) {
+                game.roll(pins);
+              }
+            });
+
+    RollMetrics.Snapshot snapshot = metrics.snapshot();
+    assertThat(snapshot.getCompletedGames()).isEqualTo(games.length);
+    assertThat(snapshot.getRolls())
+        .isEqualTo(IntStream.range(0, games.length).map(i -> games[i].length).sum());
+    assertThat(snapshot.getLatency().getCount()).isEqualTo(snapshot.getRolls());
+  }
+
+  @Test
+  void samplesTheLatency() {
+    RollMetrics metrics = RollMetrics.enable(1 << 20);
+
+    for (int[] rolls : RandomGames.games(6L, 1_000)) {
+      GameState game = GameState.builder().build();
+      for (int pins : rolls) {
+        game.roll(pins);
+      }
+    }
+
+    RollMetrics.Snapshot snapshot = metrics.snapshot();
+    assertThat(snapshot.getCompletedGames()).isEqualTo(1_000);
+    assertThat(snapshot.getLatency().getCount()).isLessThan(snapshot.getRolls() / 100);
+  }
+
+  @Test
+  void isExposedThroughJmxWhileEnabled() throws Exception {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = new ObjectName(RollMetrics.OBJECT_NAME);
+    RollMetrics.enable();
+
+    GameState game = GameState.builder().build();
+    game.roll(10);
+    game.roll(10);
+
+    assertThat(server.getAttribute(name, "Rolls")).isEqualTo(2L);
+    assertThat(server.getAttribute(name, "Strikes")).isEqualTo(2L);
+    server.invoke(name, "reset", null, null);
+    assertThat(server.getAttribute(name, "Rolls")).isEqualTo(0L);
+
+    RollMetrics.disable();
+
+    assertThat(server.isRegistered(name)).isFalse();
+  }
+}
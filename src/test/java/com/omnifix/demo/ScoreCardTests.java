@@ -0,0 +1,197 @@
+package com.omnifix.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class ScoreCardTests {
+
+  @Test
+  void tracksFramesBonusesAndCumulativeScores() {
+    ScoreCard card = new ScoreCard();
+
+    card.roll(10);
+    assertThat(card.getPendingBonus(1)).isEqualTo(2);
+    assertThat(card.isFrameScored(1)).isFalse();
+    card.roll(7);
+    card.roll(3);
+    assertThat(card.getFrameScore(1)).isEqualTo(20);
+    assertThat(card.isFrameScored(1)).isTrue();
+    assertThat(card.getPendingBonus(2)).isEqualTo(1);
+    card.roll(4);
+    card.roll(2);
+
+    assertThat(card.getCurrentFrame()).isEqualTo(3);
+    assertThat(card.getRoll(2, 1)).isEqualTo(7);
+    assertThat(card.getRoll(2, 2)).isEqualTo(3);
+    assertThat(card.getRoll(2, 3)).isEqualTo(ScoreCard.NOT_ROLLED);
+    assertThat(card.getRollsInFrame(1)).isEqualTo(1);
+    assertThat(new int[] {card.getCumulativeScore(1), card.getCumulativeScore(2)})
+        .containsExactly(20, 34);
+    assertThat(card.getCumulativeScore(3)).isEqualTo(40).isEqualTo(card.score());
+    assertThat(card.isFrameScored(3)).isTrue();
+    assertThat(card.getCumulativeScore(4)).isZero();
+  }
+
+  @Test
+  void lastFrameHoldsItsBonusRolls() {
+    ScoreCard card = new ScoreCard();
+    for (int roll = 0; roll < 12; roll++) {
+      card.roll(10);
+    }
+
+    assertThat(card.isOver()).isTrue();
+    assertThat(card.getRollsInFrame(10)).isEqualTo(3);
+    assertThat(card.getFrameScore(10)).isEqualTo(30);
+    assertThat(card.getCumulativeScore(9)).isEqualTo(270);
+    assertThat(card.getCumulativeScore(10)).isEqualTo(300);
+    assertThat(card.isFrameScored(10)).isTrue();
+    assertThatThrownBy(() -> card.roll(1)).isInstanceOf(IllegalStateException.class);
+
+    card.reset();
+    assertThat(card.score()).isZero();
+    assertThat(card.getRoll(1, 1)).isEqualTo(ScoreCard.NOT_ROLLED);
+  }
+
+  @Test
+  void rejectedRollLeavesTheCardUnchanged() {
+    ScoreCard card = new ScoreCard();
+    card.roll(6);
+
+    assertThatThrownBy(() -> card.roll(5)).isInstanceOf(IllegalArgumentException.class);
+    assertThat(card.getRollsInFrame(1)).isEqualTo(1);
+    assertThat(card.getFrameScore(1)).isEqualTo(6);
+  }
+
+  @Test
+  void matchesAFullRecomputationAfterEveryRoll() {
+    for (int[] game : RandomGames.games(13L, 2_000)) {
+      ScoreCard card = new ScoreCard();
+      for (int rolls = 1; rolls <= game.length; rolls++) {
+        card.roll(game[rolls - 1]);
+        int[] expected = cumulativeScores(Arrays.copyOf(game, rolls));
+        for (int frame = 1; frame <= card.getCurrentFrame(); frame++) {
+          assertThat(card.getCumulativeScore(frame))
+              .as("%s frame %d", Arrays.toString(game), frame)
+              .isEqualTo(expected[frame - 1]);
+        }
+      }
+      assertThat(card.score()).isEqualTo(card.getCumulativeScore(10));
+    }
+  }
+
+  @Test
+  void correctsARollLikeAReplayOfTheCorrectedGame() {
+    SplittableRandom random = new SplittableRandom(17L);
+    int corrected = 0;
+    for (int[] game : RandomGames.games(19L, 5_000)) {
+      int rolls = 1 + random.nextInt(game.length);
+      ScoreCard card = play(Arrays.copyOf(game, rolls));
+      int rollIndex = random.nextInt(rolls);
+      int newPins = random.nextInt(11);
+      int[] correctedRolls = Arrays.copyOf(game, rolls);
+      correctedRolls[rollIndex] = newPins;
+
+      ScoreCard expected;
+      try {
+        expected = play(correctedRolls);
+      } catch (RuntimeException e) {
+        ScoreCard unchanged = play(Arrays.copyOf(game, rolls));
+        assertThatThrownBy(() -> card.correctRoll(rollIndex, newPins))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertSameCard(card, unchanged);
+        continue;
+      }
+      card.correctRoll(rollIndex, newPins);
+      assertSameCard(card, expected);
+      // The next roll is validated and scored the same way
+      int nextPins = random.nextInt(11);
+      assertThat(tryRoll(card, nextPins)).isEqualTo(tryRoll(expected, nextPins));
+      assertSameCard(card, expected);
+      corrected++;
+    }
+    assertThat(corrected).isGreaterThan(1_000);
+  }
+
+  @Test
+  void correctionCanEndOrReopenTheLastFrame() {
+    ScoreCard card = play(new int[] {0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 9, 1});
+    assertThat(card.isOver()).isFalse();
+
+    card.correctRoll(19, 0);
+    assertThat(card.isOver()).isTrue();
+    assertThat(card.score()).isEqualTo(9);
+    card.correctRoll(19, 1);
+    card.roll(5);
+    assertThat(card.score()).isEqualTo(15);
+    assertThatThrownBy(() -> card.correctRoll(19, 0))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("End of game");
+    assertThatThrownBy(() -> card.correctRoll(21, 0)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static ScoreCard play(int[] rolls) {
+    ScoreCard card = new ScoreCard();
+    for (int noOfPins : rolls) {
+      card.roll(noOfPins);
+    }
+    return card;
+  }
+
+  private static void assertSameCard(ScoreCard actual, ScoreCard expected) {
+    assertThat(actual.score()).isEqualTo(expected.score());
+    assertThat(actual.isOver()).isEqualTo(expected.isOver());
+    assertThat(actual.getCurrentFrame()).isEqualTo(expected.getCurrentFrame());
+    assertThat(actual.getRollCount()).isEqualTo(expected.getRollCount());
+    for (int frame = 1; frame <= 10; frame++) {
+      for (int roll = 1; roll <= ScoreCard.MAX_ROLLS_IN_FRAME; roll++) {
+        assertThat(actual.getRoll(frame, roll)).isEqualTo(expected.getRoll(frame, roll));
+      }
+      assertThat(actual.getFrameScore(frame)).isEqualTo(expected.getFrameScore(frame));
+      assertThat(actual.getCumulativeScore(frame)).isEqualTo(expected.getCumulativeScore(frame));
+      assertThat(actual.getPendingBonus(frame)).isEqualTo(expected.getPendingBonus(frame));
+    }
+    for (int roll = 0; roll < expected.getRollCount(); roll++) {
+      assertThat(actual.getRoll(roll)).isEqualTo(expected.getRoll(roll));
+    }
+  }
+
+  private static boolean tryRoll(ScoreCard card, int noOfPins) {
+    try {
+      card.roll(noOfPins);
+      return true;
+    } catch (RuntimeException e) {
+      return false;
+    }
+  }
+
+  /** Textbook frame by frame scoring of a (partial) roll list, missing bonus rolls count as 0 */
+  private static int[] cumulativeScores(int[] rolls) {
+    int[] cumulative = new int[10];
+    int total = 0;
+    int roll = 0;
+    for (int frame = 0; frame < 10 && roll < rolls.length; frame++) {
+      if (rolls[roll] == 10 && frame < 9) {
+        total += 10 + at(rolls, roll + 1) + at(rolls, roll + 2);
+        roll++;
+      } else if (frame < 9 && at(rolls, roll) + at(rolls, roll + 1) == 10) {
+        total += 10 + at(rolls, roll + 2);
+        roll += 2;
+      } else if (frame < 9) {
+        total += at(rolls, roll) + at(rolls, roll + 1);
+        roll += 2;
+      } else {
+        total += at(rolls, roll) + at(rolls, roll + 1) + at(rolls, roll + 2);
+      }
+      cumulative[frame] = total;
+    }
+    return cumulative;
+  }
+
+  private static int at(int[] rolls, int roll) {
+    return roll < rolls.length ? rolls[roll] : 0;
+  }
+}
@@ -0,0 +1,97 @@
+package com.omnifix.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class ScoreDistributionTests {
+
+  @Test
+  void deterministicModelsGiveASingleScore() {
+    double[] perfect = ScoreDistribution.of(PinModel.binomial(1));
+    double[] gutter = ScoreDistribution.of(PinModel.binomial(0));
+    double[][] fives = new double[11][];
+    for (int standing = 0; standing <= 10; standing++) {
+      fives[standing] = new double[standing + 1];
+      fives[standing][Math.min(5, standing)] = 1;
+    }
+    double[] spares = ScoreDistribution.of(PinModel.of(fives));
+
+    assertThat(perfect).hasSize(301);
+    assertThat(perfect[300]).isCloseTo(1, within(1e-12));
+    assertThat(gutter[0]).isCloseTo(1, within(1e-12));
+    assertThat(spares[150]).isCloseTo(1, within(1e-12));
+  }
+
+  @Test
+  void matchesAMonteCarloEstimate() {
+    PinModel model = PinModel.binomial(0.8);
+    double[] distribution = ScoreDistribution.of(model);
+    assertThat(Arrays.stream(distribution).sum()).isCloseTo(1, within(1e-9));
+
+    int games = 200_000;
+    double[] sampled = new double[301];
+    SplittableRandom random = new SplittableRandom(41L);
+    for (int game = 0; game < games; game++) {
+      long state = PackedBowling.NEW_GAME;
+      while (!PackedBowling.isOver(state)) {
+        int standing = 10 - PackedBowling.prevRollValue(state);
+        double u = random.nextDouble();
+        int pins = 0;
+        while (pins < standing && u >= model.probability(standing, pins)) {
+          u -= model.probability(standing, pins++);
+        }
+        state = PackedBowling.roll(state, pins);
+      }
+      sampled[PackedBowling.score(state)] += 1.0 / games;
+    }
+
+    assertThat(ScoreDistribution.mean(distribution))
+        .isCloseTo(ScoreDistribution.mean(sampled), within(0.5));
+    for (int score = 0; score <= 300; score++) {
+      assertThat(sampled[score]).as("score %d", score).isCloseTo(distribution[score], within(3e-3));
+    }
+  }
+
+  @Test
+  void modelsAreValuesAndResultsAreCached() {
+    assertThat(PinModel.uniform())
+        .isEqualTo(PinModel.uniform())
+        .hasSameHashCodeAs(PinModel.uniform());
+    double[] first = ScoreDistribution.of(PinModel.uniform());
+    first[0] = 42;
+    assertThat(ScoreDistribution.of(PinModel.uniform())[0]).isLessThan(1);
+
+    assertThatThrownBy(() -> PinModel.of(new double[11][])).isInstanceOf(RuntimeException.class);
+    double[][] unbalanced = new double[11][];
+    for (int standing = 0; standing <= 10; standing++) {
+      unbalanced[standing] = new double[standing + 1];
+    }
+    assertThatThrownBy(() -> PinModel.of(unbalanced))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("sum to 0");
+  }
+
+  @Test
+  void concurrentCallsShareOneResult() {
+    PinModel model = PinModel.binomial(0.42);
+    double[] expected = ScoreDistribution.compute(model);
+
+    List<CompletableFuture<double[]>> distributions =
+        IntStream.range(0, 8)
+            .mapToObj(call -> CompletableFuture.supplyAsync(() -> ScoreDistribution.of(model)))
+            .collect(Collectors.toList());
+
+    for (CompletableFuture<double[]> distribution : distributions) {
+      assertThat(distribution.join()).containsExactly(expected);
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package com.omnifix.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class ScoreProjectionTests {
+
+  @Test
+  void newGameCanEndAnywhereBetweenAGutterAndAPerfectGame() {
+    assertThat(ScoreProjection.maxPossible(PackedBowling.NEW_GAME)).isEqualTo(300);
+    assertThat(ScoreProjection.minPossible(PackedBowling.NEW_GAME)).isZero();
+    assertThat(ScoreProjection.maxPossible(TransitionTableBowling.NEW_GAME_STATE, 0))
+        .isEqualTo(300);
+  }
+
+  @Test
+  void projectsPendingBonuses() {
+    PackedBowling game = new PackedBowling();
+    game.roll(10);
+    game.roll(10);
+    game.roll(3); // 10 + 2 * 10 + 3 * 3 so far, the 3 can still become a SPARE
+
+    assertThat(ScoreProjection.minPossible(game.getState())).isEqualTo(39);
+    assertThat(ScoreProjection.maxPossible(game.getState())).isEqualTo(23 + 20 + 20 + 7 * 30);
+  }
+
+  @Test
+  void boundsNarrowDownToTheFinalScore() {
+    for (int[] game : RandomGames.games(23L, 2_000)) {
+      long state = PackedBowling.NEW_GAME;
+      int max = 300;
+      int min = 0;
+      for (int noOfPins : game) {
+        state = PackedBowling.roll(state, noOfPins);
+        assertThat(ScoreProjection.maxPossible(state)).isLessThanOrEqualTo(max);
+        assertThat(ScoreProjection.minPossible(state)).isGreaterThanOrEqualTo(min);
+        max = ScoreProjection.maxPossible(state);
+        min = ScoreProjection.minPossible(state);
+        if (PackedBowling.rollIndex(state) >= 17 && !PackedBowling.isOver(state)) {
+          assertThat(new int[] {min, max})
+              .containsExactly(bruteForce(state, false), bruteForce(state, true));
+        }
+      }
+      assertThat(min).isEqualTo(max).isEqualTo(PackedBowling.score(state));
+    }
+  }
+
+  /** Tries every continuation */
+  private static int bruteForce(long state, boolean best) {
+    if (PackedBowling.isOver(state)) {
+      return PackedBowling.score(state);
+    }
+    int result = best ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+    for (int noOfPins = 0; noOfPins <= 10 - PackedBowling.prevRollValue(state); noOfPins++) {
+      int score = bruteForce(PackedBowling.roll(state, noOfPins), best);
+      result = best ? Math.max(result, score) : Math.min(result, score);
+    }
+    return result;
+  }
+}
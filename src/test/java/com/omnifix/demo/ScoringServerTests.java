@@ -0,0 +1,136 @@
+package com.omnifix.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ScoringServerTests {
+
+  private static final Pattern SCORE = Pattern.compile("\"score\":(\\d+),\"over\":(true|false)}$");
+
+  private ScoringServer server;
+  private HttpClient client;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = new ScoringServer(new InetSocketAddress("127.0.0.1", 0), 0);
+    client = HttpClient.newHttpClient();
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.close();
+  }
+
+  @Test
+  void scoresAGame() throws Exception {
+    HttpResponse<String> created = send("POST", "/games", "");
+    assertThat(created.statusCode()).isEqualTo(201);
+    assertThat(created.body()).isEqualTo("{\"gameId\":1}");
+
+    for (int pins : new int[] {10, 7, 3, 9, 0}) {
+      assertThat(send("POST", "/games/1/rolls", String.valueOf(pins)).statusCode()).isEqualTo(200);
+    }
+
+    assertThat(send("GET", "/games/1/score", null).body())
+        .isEqualTo("{\"gameId\":1,\"score\":48,\"over\":false}");
+    assertThat(send("GET", "/games/1/scorecard", null).body())
+        .isEqualTo(
+            "{\"gameId\":1,\"frames\":["
+                + "{\"frame\":1,\"rolls\":[10],\"score\":20,\"cumulative\":20},"
+                + "{\"frame\":2,\"rolls\":[7,3],\"score\":19,\"cumulative\":39},"
+                + "{\"frame\":3,\"rolls\":[9,0],\"score\":9,\"cumulative\":48}],"
+                + "\"notation\":\"X 7/ 9-\",\"score\":48,\"over\":false}");
+  }
+
+  @Test
+  void rejectsInvalidRequests() throws Exception {
+    send("POST", "/games", "");
+    for (int i = 0; i < 12; i++) {
+      send("POST", "/games/1/rolls", "10");
+    }
+
+    assertThat(send("POST", "/games/1/rolls", "1").statusCode()).isEqualTo(409);
+    send("POST", "/games", "");
+    send("POST", "/games/2/rolls", "7");
+    HttpResponse<String> tooMany = send("POST", "/games/2/rolls", "4");
+    assertThat(tooMany.statusCode()).isEqualTo(400);
+    assertThat(tooMany.body()).contains("Invalid number of pins");
+    assertThat(send("POST", "/games/2/rolls", "seven").statusCode()).isEqualTo(400);
+    assertThat(send("POST", "/games/2/rolls", " ".repeat(100) + "1").statusCode()).isEqualTo(413);
+    assertThat(send("GET", "/games/3/score", null).statusCode()).isEqualTo(404);
+    assertThat(send("GET", "/games", null).statusCode()).isEqualTo(405);
+    assertThat(send("DELETE", "/games/2", null).statusCode()).isEqualTo(204);
+    assertThat(send("GET", "/games/2/score", null).statusCode()).isEqualTo(404);
+  }
+
+  @Test
+  void scoresConcurrentGames() {
+    int[][] games = RandomGames.games(13L, 200);
+
+    List<CompletableFuture<String>> scores =
+        IntStream.range(0, games.length)
+            .mapToObj(
+                game ->
+                    sendAsync("POST", "/games", "")
+                        .thenCompose(created -> play(games[game], created)))
+            .collect(Collectors.toList());
+
+    int[] offsets = BulkScorerTests.offsets(games);
+    int[] expected = BulkScorer.scoreAll(BulkScorerTests.flatten(games, offsets), offsets);
+    assertThat(scores.stream().map(CompletableFuture::join).collect(Collectors.toList()))
+        .containsExactlyInAnyOrderElementsOf(
+            IntStream.of(expected).mapToObj(String::valueOf).collect(Collectors.toList()));
+    assertThat(server.getGameCount()).isEqualTo(games.length);
+  }
+
+  private CompletableFuture<String> play(int[] rolls, HttpResponse<String> created) {
+    String gameId = created.body().replaceAll("\\D", "");
+    CompletableFuture<HttpResponse<String>> last = CompletableFuture.completedFuture(null);
+    for (int pins : rolls) {
+      last =
+          last.thenCompose(
+              ignore -> sendAsync("POST", "/games/" + gameId + "/rolls", String.valueOf(pins)));
+    }
+    return last.thenApply(
+        response -> {
+          Matcher matcher = SCORE.matcher(response.body());
+          assertThat(matcher.find()).isTrue();
+          assertThat(matcher.group(2)).isEqualTo("true");
+          return matcher.group(1);
+        });
+  }
+
+  private HttpResponse<String> send(String method, String path, String body) throws Exception {
+    return client.send(request(method, path, body), HttpResponse.BodyHandlers.ofString());
+  }
+
+  private CompletableFuture<HttpResponse<String>> sendAsync(
+      String method, String path, String body) {
+    return client.sendAsync(request(method, path, body), HttpResponse.BodyHandlers.ofString());
+  }
+
+  private HttpRequest request(String method, String path, String body) {
+    return HttpRequest.newBuilder(
+            URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path))
+        .method(
+            method,
+            body == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(body))
+        .build();
+  }
+}
@@ -0,0 +1,48 @@
+package com.omnifix.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TransitionTableBowlingTests {
+
+  // The equivalence with GameStateMachine on every reachable state is checked by
+  // ReachableStateCheckerTests
+
+  @Test
+  void canRecordGames() {
+    TransitionTableBowling game = new TransitionTableBowling();
+    List.of(10, 10, 4, 6, 3, 7, 10, 3, 4, 8, 2, 10, 10, 7, 3, 10).forEach(game::roll);
+
+    assertThat(game.score()).isEqualTo(188);
+    assertThat(game.isOver()).isTrue();
+    assertThatThrownBy(() -> game.roll(1))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("End of game!");
+  }
+
+  @Test
+  void rejectsInvalidPins() {
+    TransitionTableBowling game = new TransitionTableBowling();
+    game.roll(7);
+
+    assertThatThrownBy(() -> game.roll(4)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> game.roll(11)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> game.roll(-1)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void mapsPackedStatesToStateIds() {
+    long packed = PackedBowling.NEW_GAME;
+    TransitionTableBowling game = new TransitionTableBowling();
+    for (int pins : RandomGames.games(7L, 1)[0]) {
+      packed = PackedBowling.roll(packed, pins);
+      game.roll(pins);
+
+      assertThat(TransitionTableBowling.stateId(packed)).isEqualTo(game.getStateId());
+      assertThat(game.score()).isEqualTo(PackedBowling.score(packed));
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package com.omnifix.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class UndoableBowlingTests {
+
+  @Test
+  void snapshotsAreValuesAndForksAreIndependent() {
+    PackedBowling game = new PackedBowling();
+    game.roll(10);
+    game.roll(4);
+    GameSnapshot snapshot = game.snapshot();
+
+    PackedBowling spare = snapshot.fork();
+    spare.roll(6);
+    PackedBowling open = snapshot.fork();
+    open.roll(2);
+
+    assertThat(spare.score()).isEqualTo(30);
+    assertThat(open.score()).isEqualTo(22);
+    assertThat(snapshot.score()).isEqualTo(18);
+    assertThat(snapshot.roll(6)).isEqualTo(spare.snapshot()).isNotEqualTo(snapshot);
+    assertThat(GameSnapshot.NEW_GAME.roll(10).roll(4)).isEqualTo(snapshot);
+
+    game.roll(5);
+    game.restore(snapshot);
+    assertThat(game.snapshot()).isEqualTo(snapshot);
+  }
+
+  @Test
+  void undoAndRedoMoveThroughTheHistory() {
+    UndoableBowling game = new UndoableBowling(3);
+    List<Integer> scores = new ArrayList<>();
+    for (int noOfPins : new int[] {10, 3, 4, 5, 5}) {
+      game.roll(noOfPins);
+      scores.add(game.score());
+    }
+
+    assertThat(game.getUndoable()).isEqualTo(3);
+    assertThat(game.undo()).isTrue();
+    assertThat(game.score()).isEqualTo(scores.get(3));
+    assertThat(game.undo()).isTrue();
+    assertThat(game.undo()).isTrue();
+    assertThat(game.score()).isEqualTo(scores.get(1));
+    assertThat(game.undo()).isFalse(); // Only 3 rolls are kept
+    assertThat(game.redo()).isTrue();
+    assertThat(game.score()).isEqualTo(scores.get(2));
+
+    game.roll(0); // Drops the redo history
+    assertThat(game.redo()).isFalse();
+    assertThat(game.getRedoable()).isZero();
+    assertThat(game.score()).isEqualTo(scores.get(2));
+    assertThat(game.undo()).isTrue();
+    assertThat(game.score()).isEqualTo(scores.get(2));
+  }
+
+  @Test
+  void forkKeepsPlayingIndependently() {
+    UndoableBowling game = new UndoableBowling(5);
+    game.roll(7);
+    UndoableBowling fork = game.fork();
+    fork.roll(3);
+    game.roll(1);
+
+    assertThat(fork.score()).isEqualTo(10);
+    assertThat(game.score()).isEqualTo(8);
+    assertThat(fork.undo()).isTrue();
+    assertThat(fork.undo()).isFalse();
+    assertThat(fork.snapshot().score()).isEqualTo(7);
+  }
+}
@@ -0,0 +1,70 @@
+package com.omnifix.demo;
+
+import static com.omnifix.demo.BowlingConstants.ALL_PINS;
+import static com.omnifix.demo.BowlingConstants.LAST_FRAME;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded generator of valid, complete games shared by the tests, the fuzzer and the benchmarks (the
+ * {@code src/testFixtures} sources are compiled with the tests and with the benchmark profile).
+ */
+public final class RandomGames {
+
+  private RandomGames() {}
+
+  public static int[][] games(long seed, int count) {
+    SplittableRandom random = new SplittableRandom(seed);
+    int[][] games = new int[count][];
+    for (int i = 0; i < count; i++) {
+      games[i] = game(random);
+    }
+    return games;
+  }
+
+  /**
+   * One complete game, STRIKEs and SPAREs are made frequent on purpose so that the bonus rules get
+   * exercised.
+   */
+  public static int[] game(SplittableRandom random) {
+    int[] rolls = new int[ScoreCard.MAX_ROLLS];
+    return Arrays.copyOf(rolls, game(random, rolls, true));
+  }
+
+  /**
+   * Generates one complete game into the array, which may be reused for the next game
+   *
+   * @param frequentBonuses knocks down all the standing pins a third of the time, otherwise every
+   *     pin count that is left is equally likely
+   * @return the number of rolls
+   */
+  public static int game(SplittableRandom random, int[] rolls, boolean frequentBonuses) {
+    int count = 0;
+    for (int frame = 1; frame < LAST_FRAME; frame++) {
+      int first = pins(random, ALL_PINS, frequentBonuses);
+      rolls[count++] = first;
+      if (first < ALL_PINS) {
+        rolls[count++] = pins(random, ALL_PINS - first, frequentBonuses);
+      }
+    }
+    int first = pins(random, ALL_PINS, frequentBonuses);
+    rolls[count++] = first;
+    int second = pins(random, remaining(first), frequentBonuses);
+    rolls[count++] = second;
+    if (first == ALL_PINS) {
+      rolls[count++] = pins(random, remaining(second), frequentBonuses);
+    } else if (first + second == ALL_PINS) {
+      rolls[count++] = pins(random, ALL_PINS, frequentBonuses);
+    }
+    return count;
+  }
+
+  private static int pins(SplittableRandom random, int standing, boolean frequentBonuses) {
+    return frequentBonuses && random.nextInt(3) == 0 ? standing : random.nextInt(standing + 1);
+  }
+
+  private static int remaining(int pins) {
+    return pins == ALL_PINS ? ALL_PINS : ALL_PINS - pins;
+  }
+}